@@ -0,0 +1,106 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.async.method.invocation;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Base class of the {@link AsyncExecutor} implementations. Takes care of the async results, the
+ * callback-only mode and the {@link ExecutorMetrics}, subclasses only decide on which thread a task
+ * runs.
+ */
+public abstract class AbstractAsyncExecutor implements AsyncExecutor {
+
+  private final ExecutorMetrics metrics = new ExecutorMetrics();
+
+  @Override
+  public <T> AsyncResult<T> startProcess(Callable<T> task) {
+    return startProcess(task, null);
+  }
+
+  @Override
+  public <T> AsyncResult<T> startProcess(Callable<T> task, AsyncCallback<T> callback) {
+    CompletableResult<T> result = new CompletableResult<>(callback);
+    submit(task, result);
+    return result;
+  }
+
+  /**
+   * Starts processing of an async task without creating an async result.
+   */
+  @Override
+  public <T> void execute(Callable<T> task, AsyncCallback<T> callback) {
+    submit(task, callback);
+  }
+
+  /**
+   * 结束异步任务调用，这里的结束是等待直到正常完成，然后返回异步结果
+   */
+  @Override
+  public <T> T endProcess(AsyncResult<T> asyncResult) throws ExecutionException, InterruptedException {
+    if (!asyncResult.isCompleted()) {
+      asyncResult.await();
+    }
+    return asyncResult.getValue();
+  }
+
+  public ExecutorMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Runs the given runnable asynchronously.
+   *
+   * @param runnable the wrapped task
+   * @throws RejectedExecutionException if the runnable cannot be accepted
+   */
+  protected abstract void dispatch(Runnable runnable);
+
+  private <T> void submit(Callable<T> task, AsyncCallback<T> completion) {
+    long submitted = System.nanoTime();
+    metrics.taskSubmitted();
+    try {
+      dispatch(() -> {
+        long started = System.nanoTime();
+        metrics.taskStarted(started - submitted);
+        T value;
+        try {
+          // 返回线程调用结果，实际是使用Callable调用返回
+          value = task.call();
+        } catch (Exception ex) {
+          metrics.taskCompleted(System.nanoTime() - started);
+          completion.onComplete(null, Optional.of(ex));
+          return;
+        }
+        metrics.taskCompleted(System.nanoTime() - started);
+        completion.onComplete(value, Optional.empty());
+      });
+    } catch (RejectedExecutionException ex) {
+      metrics.taskRejected();
+      completion.onComplete(null, Optional.of(ex));
+    }
+  }
+}
@@ -52,6 +52,17 @@ public interface AsyncExecutor {
    */
   <T> AsyncResult<T> startProcess(Callable<T> task, AsyncCallback<T> callback);
 
+  /**
+   * Starts processing of an async task in callback-only mode. No async result is created, so the
+   * outcome of the task is only delivered to the callback.
+   *
+   * @param task task to be executed asynchronously
+   * @param callback callback to be executed on task completion
+   */
+  default <T> void execute(Callable<T> task, AsyncCallback<T> callback) {
+    startProcess(task, callback);
+  }
+
   /**
    * Ends processing of an async task. Blocks the current thread if necessary and returns the
    * evaluated value of the completed task.
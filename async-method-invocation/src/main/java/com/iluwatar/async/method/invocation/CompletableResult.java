@@ -0,0 +1,170 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.async.method.invocation;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步任务结果的简单实现类
+ * Simple implementation of async result that allows completing it successfully with a value or exceptionally with an
+ * exception. A really simplified version from its real life cousins FutureTask and CompletableFuture.
+ * <p>
+ * Threads waiting in {@link #await()} push themselves on a lock-free stack and park, the completing thread unparks
+ * them. No monitor is allocated or entered.
+ * @see java.util.concurrent.FutureTask
+ * @see java.util.concurrent.CompletableFuture
+ */
+class CompletableResult<T> implements AsyncResult<T>, AsyncCallback<T> {
+
+  //定义任务运行的状态值
+  static final int RUNNING = 1;
+  static final int FAILED = 2;
+  static final int COMPLETED = 3;
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<CompletableResult, Waiter> WAITERS =
+      AtomicReferenceFieldUpdater.newUpdater(CompletableResult.class, Waiter.class, "waiters");
+
+  /**
+   * A thread parked in {@link #await()}.
+   */
+  private static final class Waiter {
+    final Thread thread = Thread.currentThread();
+    Waiter next;
+  }
+
+  /**
+   * 回调对象，可以为空
+   */
+  private final AsyncCallback<T> callback;
+
+  private volatile int state = RUNNING;
+  private volatile Waiter waiters;
+  private T value;
+  private Exception exception;
+
+  CompletableResult(AsyncCallback<T> callback) {
+    this.callback = callback;
+  }
+
+  /**
+   * Completes the result with the outcome of the task.
+   */
+  @Override
+  public void onComplete(T value, Optional<Exception> ex) {
+    if (ex.isPresent()) {
+      setException(ex.get());
+    } else {
+      setValue(value);
+    }
+  }
+
+  /**
+   * 设置值的同时，修改返回结果状态为 COMPLETED
+   * Sets the value from successful execution and executes callback if available. Releases any thread waiting for
+   * completion.
+   *
+   * @param value
+   *          value of the evaluated task
+   */
+  void setValue(T value) {
+    this.value = value;
+    try {
+      if (callback != null) {
+        callback.onComplete(value, Optional.<Exception>empty());
+      }
+    } finally {
+      complete(COMPLETED);
+    }
+  }
+
+  /**
+   * 异常时，设置Exception
+   * Sets the exception from failed execution and executes callback if available. Releases any thread waiting for
+   * completion.
+   *
+   * @param exception
+   *          exception of the failed task
+   */
+  void setException(Exception exception) {
+    this.exception = exception;
+    try {
+      if (callback != null) {
+        callback.onComplete(null, Optional.of(exception));
+      }
+    } finally {
+      complete(FAILED);
+    }
+  }
+
+  private void complete(int finalState) {
+    state = finalState;
+    Waiter waiter = WAITERS.getAndSet(this, null);
+    while (waiter != null) {
+      LockSupport.unpark(waiter.thread);
+      waiter = waiter.next;
+    }
+  }
+
+  @Override
+  public boolean isCompleted() {
+    return state > RUNNING;
+  }
+
+  /**
+   * 获取值，只有完成状态的对象才能获取到value值
+   */
+  @Override
+  public T getValue() throws ExecutionException {
+    if (state == COMPLETED) {
+      return value;
+    } else if (state == FAILED) {
+      throw new ExecutionException(exception);
+    } else {
+      throw new IllegalStateException("Execution not completed yet");
+    }
+  }
+
+  /**
+   * 线程进入等待状态，直到任务完成
+   */
+  @Override
+  public void await() throws InterruptedException {
+    if (isCompleted()) {
+      return;
+    }
+    Waiter waiter = new Waiter();
+    do {
+      waiter.next = waiters;
+    } while (!WAITERS.compareAndSet(this, waiter.next, waiter));
+    while (!isCompleted()) {
+      LockSupport.park(this);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.async.method.invocation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of an {@link AsyncExecutor}: how many tasks wait to be started, and histograms of the
+ * time tasks waited before they started and of the time they ran.
+ */
+public class ExecutorMetrics {
+
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LatencyHistogram queueLatency = new LatencyHistogram();
+  private final LatencyHistogram executionLatency = new LatencyHistogram();
+
+  void taskSubmitted() {
+    submitted.increment();
+    queueDepth.incrementAndGet();
+  }
+
+  void taskStarted(long queuedNanos) {
+    queueDepth.decrementAndGet();
+    queueLatency.record(queuedNanos);
+  }
+
+  void taskCompleted(long executionNanos) {
+    completed.increment();
+    executionLatency.record(executionNanos);
+  }
+
+  void taskRejected() {
+    queueDepth.decrementAndGet();
+    rejected.increment();
+  }
+
+  /**
+   * @return number of tasks submitted but not started yet
+   */
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  public long getSubmittedCount() {
+    return submitted.sum();
+  }
+
+  public long getCompletedCount() {
+    return completed.sum();
+  }
+
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  /**
+   * @return histogram of the time between submitting and starting a task
+   */
+  public LatencyHistogram getQueueLatency() {
+    return queueLatency;
+  }
+
+  /**
+   * @return histogram of the time a task ran
+   */
+  public LatencyHistogram getExecutionLatency() {
+    return executionLatency;
+  }
+
+  @Override
+  public String toString() {
+    return "queueDepth=" + getQueueDepth() + ", submitted=" + getSubmittedCount() + ", completed="
+        + getCompletedCount() + ", rejected=" + getRejectedCount() + ", queueLatency=["
+        + queueLatency + "], executionLatency=[" + executionLatency + "]";
+  }
+}
@@ -0,0 +1,64 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.async.method.invocation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of async executor that multiplexes the tasks over a {@link ForkJoinPool} in FIFO
+ * (async) mode. Like virtual threads it makes a task cheap to start, since no thread is created per
+ * task, but the workers are platform threads: long blocking tasks occupy a worker for their whole
+ * duration, so it suits short, mostly non-blocking tasks best.
+ */
+public class ForkJoinAsyncExecutor extends AbstractAsyncExecutor {
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructor.
+   *
+   * @param parallelism number of worker threads
+   */
+  public ForkJoinAsyncExecutor(int parallelism) {
+    this.pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+  }
+
+  @Override
+  protected void dispatch(Runnable runnable) {
+    pool.execute(runnable);
+  }
+
+  /**
+   * Stops accepting tasks and waits for the submitted ones to finish.
+   *
+   * @param timeout maximum time to wait
+   * @param unit unit of the timeout
+   * @return true if all tasks finished in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+    pool.shutdown();
+    return pool.awaitTermination(timeout, unit);
+  }
+}
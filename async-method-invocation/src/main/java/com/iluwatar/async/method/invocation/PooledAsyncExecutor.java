@@ -0,0 +1,95 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.async.method.invocation;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of async executor that runs the tasks on a fixed number of threads. Waiting tasks
+ * are kept in a bounded queue; when it is full the caller blocks until there is room again, which
+ * pushes back on producers instead of letting the backlog grow without limit.
+ */
+public class PooledAsyncExecutor extends AbstractAsyncExecutor {
+
+  private final AtomicInteger idx = new AtomicInteger(0);
+  private final ThreadPoolExecutor pool;
+
+  /**
+   * Constructor.
+   *
+   * @param threads number of worker threads
+   * @param queueCapacity maximum number of tasks waiting for a thread
+   */
+  public PooledAsyncExecutor(int threads, int queueCapacity) {
+    this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), this::newThread, PooledAsyncExecutor::awaitQueueSpace);
+    this.pool.prestartAllCoreThreads();
+  }
+
+  private Thread newThread(Runnable runnable) {
+    Thread thread = new Thread(runnable, "pooled-executor-" + idx.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /**
+   * Rejection policy that blocks the submitting thread until the queue has room.
+   */
+  private static void awaitQueueSpace(Runnable runnable, ThreadPoolExecutor executor) {
+    if (executor.isShutdown()) {
+      throw new RejectedExecutionException("Executor has been shut down");
+    }
+    try {
+      executor.getQueue().put(runnable);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+    }
+    // shut down while waiting, unless a worker has already taken the task it must not be accepted
+    if (executor.isShutdown() && executor.remove(runnable)) {
+      throw new RejectedExecutionException("Executor has been shut down");
+    }
+  }
+
+  @Override
+  protected void dispatch(Runnable runnable) {
+    pool.execute(runnable);
+  }
+
+  /**
+   * Stops accepting tasks and waits for the submitted ones to finish.
+   *
+   * @param timeout maximum time to wait
+   * @param unit unit of the timeout
+   * @return true if all tasks finished in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+    pool.shutdown();
+    return pool.awaitTermination(timeout, unit);
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.async.method.invocation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the thread-per-call {@link ThreadAsyncExecutor} against
+ * {@link PooledAsyncExecutor} and {@link ForkJoinAsyncExecutor}, both with async results and in
+ * callback-only mode. Every invocation submits a batch of small tasks and waits for all of them.
+ * Run {@link #main(String[])} to execute it with 1, 4 and 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncExecutorBenchmark {
+
+  private static final int BATCH = 64;
+  private static final Callable<Integer> TASK = () -> Integer.bitCount((int) System.nanoTime());
+
+  private ThreadAsyncExecutor threadExecutor;
+  private PooledAsyncExecutor pooledExecutor;
+  private ForkJoinAsyncExecutor forkJoinExecutor;
+
+  /**
+   * Creates the executors.
+   */
+  @Setup
+  public void setUp() {
+    int threads = Runtime.getRuntime().availableProcessors();
+    threadExecutor = new ThreadAsyncExecutor();
+    pooledExecutor = new PooledAsyncExecutor(threads, 1024);
+    forkJoinExecutor = new ForkJoinAsyncExecutor(threads);
+  }
+
+  /**
+   * Stops the pools.
+   */
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    pooledExecutor.shutdown(1, TimeUnit.SECONDS);
+    forkJoinExecutor.shutdown(1, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public int threadPerCall() throws Exception {
+    return withResults(threadExecutor);
+  }
+
+  @Benchmark
+  public int pooled() throws Exception {
+    return withResults(pooledExecutor);
+  }
+
+  @Benchmark
+  public int pooledCallbackOnly() throws InterruptedException {
+    return callbackOnly(pooledExecutor);
+  }
+
+  @Benchmark
+  public int forkJoin() throws Exception {
+    return withResults(forkJoinExecutor);
+  }
+
+  @Benchmark
+  public int forkJoinCallbackOnly() throws InterruptedException {
+    return callbackOnly(forkJoinExecutor);
+  }
+
+  private static int withResults(AsyncExecutor executor) throws ExecutionException, InterruptedException {
+    @SuppressWarnings("unchecked")
+    AsyncResult<Integer>[] results = new AsyncResult[BATCH];
+    for (int i = 0; i < BATCH; i++) {
+      results[i] = executor.startProcess(TASK);
+    }
+    int sum = 0;
+    for (AsyncResult<Integer> result : results) {
+      sum += executor.endProcess(result);
+    }
+    return sum;
+  }
+
+  private static int callbackOnly(AsyncExecutor executor) throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(BATCH);
+    for (int i = 0; i < BATCH; i++) {
+      executor.execute(TASK, (value, ex) -> done.countDown());
+    }
+    done.await();
+    return BATCH;
+  }
+
+  /**
+   * Benchmark entry point
+   */
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : new int[] {1, 4, 16}) {
+      Options options = new OptionsBuilder()
+          .include(AsyncExecutorBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
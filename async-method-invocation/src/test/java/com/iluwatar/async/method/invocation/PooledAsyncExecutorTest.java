@@ -0,0 +1,209 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.async.method.invocation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link PooledAsyncExecutor}, {@link ForkJoinAsyncExecutor} and {@link ExecutorMetrics}
+ */
+public class PooledAsyncExecutorTest {
+
+  private PooledAsyncExecutor executor;
+
+  @BeforeEach
+  public void setUp() {
+    executor = new PooledAsyncExecutor(2, 4);
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    executor.shutdown(1, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testResultsAndMetrics() {
+    assertTimeout(ofMillis(5000), () -> {
+      @SuppressWarnings("unchecked")
+      AsyncResult<Integer>[] results = new AsyncResult[20];
+      for (int i = 0; i < results.length; i++) {
+        int value = i;
+        results[i] = executor.startProcess(() -> value * 2);
+      }
+      for (int i = 0; i < results.length; i++) {
+        assertEquals(i * 2, (int) executor.endProcess(results[i]));
+      }
+      ExecutorMetrics metrics = executor.getMetrics();
+      assertEquals(20, metrics.getSubmittedCount());
+      awaitCompleted(metrics, 20);
+      assertEquals(0, metrics.getQueueDepth());
+      assertEquals(20, metrics.getQueueLatency().getCount());
+      assertEquals(20, metrics.getExecutionLatency().getCount());
+    });
+  }
+
+  @Test
+  public void testQueueDepthIsBounded() {
+    assertTimeout(ofMillis(5000), () -> {
+      CountDownLatch release = new CountDownLatch(1);
+      for (int i = 0; i < 6; i++) {
+        executor.startProcess(() -> {
+          release.await();
+          return null;
+        });
+      }
+      assertEquals(4, executor.getMetrics().getQueueDepth());
+
+      CountDownLatch submitted = new CountDownLatch(1);
+      Thread producer = new Thread(() -> {
+        executor.startProcess(() -> null);
+        submitted.countDown();
+      });
+      producer.start();
+      assertFalse(submitted.await(100, TimeUnit.MILLISECONDS));
+
+      release.countDown();
+      assertTrue(submitted.await(1, TimeUnit.SECONDS));
+      awaitCompleted(executor.getMetrics(), 7);
+    });
+  }
+
+  @Test
+  public void testCallbackOnlyMode() {
+    assertTimeout(ofMillis(5000), () -> {
+      AtomicReference<Optional<Exception>> failure = new AtomicReference<>();
+      CountDownLatch done = new CountDownLatch(2);
+      executor.execute(() -> "ok", (value, ex) -> {
+        assertEquals("ok", value);
+        done.countDown();
+      });
+      Callable<String> failing = () -> {
+        throw new IllegalStateException("boom");
+      };
+      executor.execute(failing, (value, ex) -> {
+        failure.set(ex);
+        done.countDown();
+      });
+      assertTrue(done.await(1, TimeUnit.SECONDS));
+      assertTrue(failure.get().get() instanceof IllegalStateException);
+    });
+  }
+
+  @Test
+  public void testRejectedAfterShutdown() throws Exception {
+    executor.shutdown(1, TimeUnit.SECONDS);
+    AsyncResult<String> result = executor.startProcess(() -> "late");
+    assertTrue(result.isCompleted());
+    ExecutionException e = assertThrows(ExecutionException.class, result::getValue);
+    assertTrue(e.getCause() instanceof RejectedExecutionException);
+    assertEquals(1, executor.getMetrics().getRejectedCount());
+    assertEquals(0, executor.getMetrics().getQueueDepth());
+  }
+
+  @Test
+  public void testTaskWaitingForQueueSpaceIsRejectedOnShutdown() {
+    assertTimeout(ofMillis(5000), () -> {
+      PooledAsyncExecutor small = new PooledAsyncExecutor(1, 1);
+      CountDownLatch releaseRunning = new CountDownLatch(1);
+      CountDownLatch releaseQueued = new CountDownLatch(1);
+      small.startProcess(() -> {
+        releaseRunning.await();
+        return null;
+      });
+      small.startProcess(() -> {
+        releaseQueued.await();
+        return null;
+      });
+
+      AtomicReference<AsyncResult<String>> late = new AtomicReference<>();
+      CountDownLatch submitted = new CountDownLatch(1);
+      Thread producer = new Thread(() -> {
+        late.set(small.startProcess(() -> "late"));
+        submitted.countDown();
+      });
+      producer.start();
+      assertFalse(submitted.await(100, TimeUnit.MILLISECONDS));
+
+      assertFalse(small.shutdown(0, TimeUnit.MILLISECONDS));
+      releaseRunning.countDown();
+      assertTrue(submitted.await(1, TimeUnit.SECONDS));
+      assertTrue(late.get().isCompleted());
+      ExecutionException e = assertThrows(ExecutionException.class, late.get()::getValue);
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+
+      releaseQueued.countDown();
+      assertTrue(small.shutdown(1, TimeUnit.SECONDS));
+      assertEquals(1, small.getMetrics().getRejectedCount());
+    });
+  }
+
+  @Test
+  public void testForkJoinExecutor() {
+    assertTimeout(ofMillis(5000), () -> {
+      ForkJoinAsyncExecutor forkJoin = new ForkJoinAsyncExecutor(2);
+      AsyncResult<String> result = forkJoin.startProcess(() -> "forked");
+      assertEquals("forked", forkJoin.endProcess(result));
+      assertTrue(forkJoin.shutdown(1, TimeUnit.SECONDS));
+      assertEquals(1, forkJoin.getMetrics().getSubmittedCount());
+    });
+  }
+
+  @Test
+  public void testLatencyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getPercentileMicros(99));
+    for (int i = 0; i < 99; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(3));
+    }
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+    assertEquals(100, histogram.getCount());
+    assertEquals(4, histogram.getPercentileMicros(50));
+    assertEquals(4, histogram.getPercentileMicros(99));
+    assertEquals(16384, histogram.getPercentileMicros(100));
+  }
+
+  private static void awaitCompleted(ExecutorMetrics metrics, long count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 2000;
+    while (metrics.getCompletedCount() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(count, metrics.getCompletedCount());
+  }
+}
@@ -64,6 +64,7 @@ public final class AppManager {
   public static void initCachingPolicy(CachingPolicy policy) {
     cachingPolicy = policy;
     if (cachingPolicy == CachingPolicy.BEHIND) {
+      CacheStore.initWriteBehind();
       Runtime.getRuntime().addShutdownHook(new Thread(CacheStore::flushCache));
     }
     CacheStore.clearCache();
@@ -73,6 +74,13 @@ public final class AppManager {
     CacheStore.initCapacity(capacity);
   }
 
+  /**
+   * Initialize cache capacity with an off-heap tier for evicted user accounts
+   */
+  public static void initCacheCapacity(int capacity, int offHeapBytes) {
+    CacheStore.initCapacity(capacity, offHeapBytes);
+  }
+
   /**
    * Find user account
    */
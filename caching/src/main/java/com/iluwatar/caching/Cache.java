@@ -0,0 +1,239 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * Typed, self-contained cache. Unlike the static {@link CacheStore}, any number of instances can
+ * live in one JVM, each with its own capacity, {@link CacheLoader}/{@link CacheWriter} backends,
+ * {@link CachingStrategy} and {@link CacheStats}.
+ * <p>
+ * Entries are kept in access-ordered segments selected by key hash, each guarded by its own lock
+ * and evicting its own least-recently-used entry, in the same way as {@link SegmentedLruCache}.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class Cache<K, V> {
+
+  private final Segment<K, V>[] segments;
+  private final CacheLoader<K, V> loader;
+  private final CacheWriter<K, V> writer;
+  private final CachingStrategy<K, V> strategy;
+  private final CacheStats stats = new CacheStats();
+
+  public Cache(int capacity, CachingPolicy policy, CacheLoader<K, V> loader,
+      CacheWriter<K, V> writer) {
+    this(capacity, SegmentedLruCache.DEFAULT_CONCURRENCY_LEVEL, policy, loader, writer);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param capacity total number of entries held by the cache
+   * @param concurrencyLevel upper bound for the number of segments
+   * @param policy caching policy used by {@link #find(Object)} and {@link #save(Object, Object)}
+   * @param loader backend read on a miss
+   * @param writer backend written on a save
+   */
+  @SuppressWarnings("unchecked")
+  public Cache(int capacity, int concurrencyLevel, CachingPolicy policy, CacheLoader<K, V> loader,
+      CacheWriter<K, V> writer) {
+    int segmentCount = SegmentedLruCache.segmentCount(capacity, concurrencyLevel);
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      int share = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+      segments[i] = new Segment<>(share, stats);
+    }
+    this.loader = loader;
+    this.writer = writer;
+    this.strategy = policy.newStrategy(writer);
+  }
+
+  /**
+   * Finds the value for the key according to the caching policy.
+   */
+  public V find(K key) {
+    return strategy.find(this, key);
+  }
+
+  /**
+   * Saves the value for the key according to the caching policy.
+   */
+  public void save(K key, V value) {
+    strategy.save(this, key, value);
+  }
+
+  /**
+   * Writes values held back by the caching policy into the backing store.
+   */
+  public void flush() {
+    strategy.flush(this);
+  }
+
+  /**
+   * Flushes and releases resources held by the caching policy.
+   */
+  public void close() {
+    strategy.flush(this);
+    strategy.close(this);
+  }
+
+  /**
+   * Returns the cached value, or null on a miss. Hits and misses are counted.
+   */
+  public V getIfPresent(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    V value;
+    synchronized (segment) {
+      value = segment.get(key);
+    }
+    if (value != null) {
+      stats.recordHit();
+    } else {
+      stats.recordMiss();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the cached value, loading and caching it on a miss.
+   */
+  public V readThrough(K key) {
+    V value = getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    value = load(key);
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Caches the value, evicting the least-recently-used entry of its segment if needed.
+   */
+  public void put(K key, V value) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.put(key, value);
+    }
+  }
+
+  /**
+   * Removes the key from the cache.
+   */
+  public void invalidate(K key) {
+    Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.remove(key);
+    }
+  }
+
+  /**
+   * Loads the value from the backing store, bypassing the cache. Load time is recorded.
+   */
+  public V load(K key) {
+    long start = System.nanoTime();
+    try {
+      return loader.load(key);
+    } finally {
+      stats.recordLoad(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Writes the value to the backing store, bypassing the cache.
+   */
+  public void write(K key, V value) {
+    writer.write(key, value);
+  }
+
+  /**
+   * Returns the number of cached entries.
+   */
+  public int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Clear cache
+   */
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  public CacheStats getStats() {
+    return stats;
+  }
+
+  CachingStrategy<K, V> getStrategy() {
+    return strategy;
+  }
+
+  private Segment<K, V> segmentFor(K key) {
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return segments[hash & (segments.length - 1)];
+  }
+
+  /**
+   * Access-ordered map evicting its eldest entry once it exceeds its capacity.
+   */
+  private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int capacity;
+    private final transient CacheStats stats;
+
+    Segment(int capacity, CacheStats stats) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+      this.stats = stats;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      if (size() > capacity) {
+        stats.recordEviction();
+        return true;
+      }
+      return false;
+    }
+  }
+}
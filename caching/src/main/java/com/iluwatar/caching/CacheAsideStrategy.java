@@ -0,0 +1,53 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+/**
+ *
+ * Cache-aside: the application looks into the cache first and populates it itself after a miss,
+ * while saves update the backing store and invalidate the cached version.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class CacheAsideStrategy<K, V> implements CachingStrategy<K, V> {
+
+  @Override
+  public V find(Cache<K, V> cache, K key) {
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    value = cache.load(key);
+    if (value != null) {
+      cache.put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public void save(Cache<K, V> cache, K key, V value) {
+    cache.write(key, value);
+    cache.invalidate(key);
+  }
+}
@@ -29,14 +29,16 @@ import java.util.List;
 
 /**
  *
- * The caching strategies are implemented in this class.
+ * The caching strategies are implemented in this class. The backing {@link SegmentedLruCache} is
+ * safe to share between request threads, so no additional locking is needed around it.
  *
  */
 public class CacheStore {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CacheStore.class);
 
-  static LruCache cache;
+  static SegmentedLruCache cache;
+  private static volatile WriteBehindFlusher<String, UserAccount> flusher;
 
   private CacheStore() {
   }
@@ -46,19 +48,41 @@ public class CacheStore {
    */
   public static void initCapacity(int capacity) {
     if (cache == null) {
-      cache = new LruCache(capacity);
+      cache = new SegmentedLruCache(capacity);
     } else {
       cache.setCapacity(capacity);
     }
   }
 
+  /**
+   * Init cache capacity with an off-heap tier of the given size holding evicted entries. Any
+   * previously cached data is discarded.
+   */
+  public static void initCapacity(int capacity, int offHeapBytes) {
+    cache = new SegmentedLruCache(capacity, SegmentedLruCache.DEFAULT_CONCURRENCY_LEVEL, offHeapBytes);
+  }
+
+  /**
+   * Starts the background flusher used by the write-behind policy. It is otherwise started by the
+   * first {@link #writeBehind(UserAccount)}.
+   */
+  public static synchronized void initWriteBehind() {
+    if (flusher == null) {
+      WriteBehindFlusher<String, UserAccount> started =
+          new WriteBehindFlusher<>((userId, userAccount) -> DbManager.upsertDb(userAccount));
+      started.start();
+      flusher = started;
+    }
+  }
+
   /**
    * Get user account using read-through cache
    */
   public static UserAccount readThrough(String userId) {
-    if (cache.contains(userId)) {
+    UserAccount cached = cache.get(userId);
+    if (cached != null) {
       LOGGER.info("# Cache Hit!");
-      return cache.get(userId);
+      return cached;
     }
     LOGGER.info("# Cache Miss!");
     UserAccount userAccount = DbManager.readFromDb(userId);
@@ -95,29 +119,36 @@ public class CacheStore {
    * Get user account using read-through cache with write-back policy
    */
   public static UserAccount readThroughWithWriteBackPolicy(String userId) {
-    if (cache.contains(userId)) {
+    UserAccount cached = cache.get(userId);
+    if (cached != null) {
       LOGGER.info("# Cache Hit!");
-      return cache.get(userId);
+      return cached;
     }
     LOGGER.info("# Cache Miss!");
-    UserAccount userAccount = DbManager.readFromDb(userId);
-    if (cache.isFull()) {
-      LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
-      UserAccount toBeWrittenToDb = cache.getLruData();
-      DbManager.upsertDb(toBeWrittenToDb);
+    // evicted but not yet written to DB
+    WriteBehindFlusher<String, UserAccount> started = flusher;
+    UserAccount userAccount = started == null ? null : started.getPending(userId);
+    if (userAccount == null) {
+      userAccount = DbManager.readFromDb(userId);
     }
     cache.set(userId, userAccount);
     return userAccount;
   }
 
   /**
-   * Set user account
+   * Set user account. The account is handed to the background flusher, so no DB I/O happens on the
+   * caller's thread unless the flusher has fallen too far behind.
    */
   public static void writeBehind(UserAccount userAccount) {
-    if (cache.isFull() && !cache.contains(userAccount.getUserId())) {
-      LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
-      UserAccount toBeWrittenToDb = cache.getLruData();
-      DbManager.upsertDb(toBeWrittenToDb);
+    if (flusher == null) {
+      initWriteBehind();
+    }
+    try {
+      flusher.markDirty(userAccount.getUserId(), userAccount);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.info("# Interrupted while waiting for the flusher! Writing data to DB directly...");
+      DbManager.upsertDb(userAccount);
     }
     cache.set(userAccount.getUserId(), userAccount);
   }
@@ -132,17 +163,18 @@ public class CacheStore {
   }
 
   /**
-   * Writes remaining content in the cache into the DB.
+   * Writes all accounts still waiting for the write-behind flusher into the DB.
    */
   public static void flushCache() {
     LOGGER.info("# flushCache...");
-    if (null == cache) {
+    WriteBehindFlusher<String, UserAccount> started = flusher;
+    if (null == started) {
       return;
     }
-    List<UserAccount> listOfUserAccounts = cache.getCacheDataInListForm();
-    for (UserAccount userAccount : listOfUserAccounts) {
-      DbManager.upsertDb(userAccount);
-    }
+    started.flush();
+    LOGGER.info("# Write-behind stats: {} flushes, {} accounts, avg {} us, max {} us",
+        started.getFlushCount(), started.getFlushedEntries(),
+        started.getAverageFlushLatencyMicros(), started.getMaxFlushLatencyMicros());
   }
 
   /**
@@ -39,4 +39,24 @@ public enum CachingPolicy {
   public String getPolicy() {
     return policy;
   }
+
+  /**
+   * Creates the strategy object implementing this policy for a typed {@link Cache}.
+   *
+   * @param writer backing store used by policies that write asynchronously
+   */
+  public <K, V> CachingStrategy<K, V> newStrategy(CacheWriter<K, V> writer) {
+    switch (this) {
+      case THROUGH:
+        return new WriteThroughStrategy<>();
+      case AROUND:
+        return new WriteAroundStrategy<>();
+      case BEHIND:
+        return new WriteBehindStrategy<>(writer);
+      case ASIDE:
+        return new CacheAsideStrategy<>();
+      default:
+        throw new IllegalStateException("Unknown caching policy " + this);
+    }
+  }
 }
@@ -0,0 +1,57 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+/**
+ *
+ * Strategy object implementing one {@link CachingPolicy} on top of a typed {@link Cache}. The cache
+ * offers the primitive operations (lookup, put, invalidate, load, write) and the strategy decides
+ * how they are combined when the application finds or saves a value.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public interface CachingStrategy<K, V> {
+
+  /**
+   * Finds the value for the key, consulting the backing store as the policy requires.
+   */
+  V find(Cache<K, V> cache, K key);
+
+  /**
+   * Saves the value for the key, updating the cache and the backing store as the policy requires.
+   */
+  void save(Cache<K, V> cache, K key, V value);
+
+  /**
+   * Writes anything the strategy is still holding back into the backing store.
+   */
+  default void flush(Cache<K, V> cache) {
+  }
+
+  /**
+   * Releases resources held by the strategy, e.g. background threads.
+   */
+  default void close(Cache<K, V> cache) {
+  }
+}
@@ -23,8 +23,8 @@
 package com.iluwatar.caching;
 
 import java.text.ParseException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bson.Document;
 
@@ -60,7 +60,7 @@ public final class DbManager {
    */
   public static void createVirtualDb() {
     useMongoDB = false;
-    virtualDB = new HashMap<>();
+    virtualDB = new ConcurrentHashMap<>();
   }
 
   /**
@@ -37,6 +37,9 @@ import java.util.Map;
  * LRU data in the cache. When a data is queried (from the cache), added (to the cache), or updated,
  * the data is moved to the front of the list to depict itself as the most-recently-used data. The
  * LRU data is always at the end of the list.
+ * <p>
+ * Optionally, an {@link OffHeapStore} serves as a second tier: evicted data is moved there instead
+ * of being dropped, and is promoted back to the front of the list when it is queried again.
  *
  */
 public class LruCache {
@@ -59,9 +62,21 @@ public class LruCache {
   Map<String, Node> cache = new HashMap<>();
   Node head;
   Node end;
+  OffHeapStore offHeapStore;
 
   public LruCache(int capacity) {
+    this(capacity, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param capacity number of user accounts kept on the heap
+   * @param offHeapStore second tier for evicted user accounts, or null to drop them
+   */
+  public LruCache(int capacity, OffHeapStore offHeapStore) {
     this.capacity = capacity;
+    this.offHeapStore = offHeapStore;
   }
 
   /**
@@ -74,6 +89,13 @@ public class LruCache {
       setHead(node);
       return node.userAccount;
     }
+    if (offHeapStore != null) {
+      UserAccount userAccount = offHeapStore.remove(userId);
+      if (userAccount != null) {
+        set(userId, userAccount); // promote back to the heap
+        return userAccount;
+      }
+    }
     return null;
   }
 
@@ -119,8 +141,14 @@ public class LruCache {
       setHead(old);
     } else {
       Node newNode = new Node(userId, userAccount);
+      if (offHeapStore != null) {
+        offHeapStore.remove(userId); // the heap copy supersedes the off-heap one
+      }
       if (cache.size() >= capacity) {
         LOGGER.info("# Cache is FULL! Removing {} from cache...", end.userId);
+        if (offHeapStore != null && end.userAccount != null) {
+          offHeapStore.put(end.userAccount);
+        }
         cache.remove(end.userId); // remove LRU data from cache.
         remove(end);
         setHead(newNode);
@@ -132,13 +160,16 @@ public class LruCache {
   }
 
   public boolean contains(String userId) {
-    return cache.containsKey(userId);
+    return cache.containsKey(userId) || offHeapStore != null && offHeapStore.contains(userId);
   }
 
   /**
    * Invalidate cache for user
    */
   public void invalidate(String userId) {
+    if (offHeapStore != null) {
+      offHeapStore.remove(userId);
+    }
     Node toBeRemoved = cache.remove(userId);
     if (toBeRemoved != null) {
       LOGGER.info("# {} has been updated! Removing older version from cache...", userId);
@@ -161,10 +192,13 @@ public class LruCache {
     head = null;
     end = null;
     cache.clear();
+    if (offHeapStore != null) {
+      offHeapStore.clear();
+    }
   }
 
   /**
-   * Returns cache data in list form.
+   * Returns the on-heap cache data in list form.
    */
   public List<UserAccount> getCacheDataInListForm() {
     List<UserAccount> listOfCacheData = new ArrayList<>();
@@ -183,8 +217,7 @@ public class LruCache {
     if (capacity > newCapacity) {
       clear(); // Behavior can be modified to accommodate for decrease in cache size. For now, we'll
                // just clear the cache.
-    } else {
-      this.capacity = newCapacity;
     }
+    this.capacity = newCapacity;
   }
 }
@@ -0,0 +1,240 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * Second cache tier holding user accounts evicted from an {@link LruCache} outside of the Java heap.
+ * Accounts are serialized one after another into a fixed-size direct {@link ByteBuffer} (the arena)
+ * and located through an insertion-ordered index of offsets, so a cached account costs the garbage
+ * collector one small index entry instead of a graph of objects.
+ * <p>
+ * Removing an account only marks its bytes as dead. When the arena runs out of space the live
+ * records are compacted to its start; if that is still not enough, the oldest records are dropped.
+ * Dropping is safe because every account either is in the DB already or is still waiting in the
+ * write-behind flusher.
+ * <p>
+ * Instances are not thread-safe; they are guarded by the lock of the cache segment that owns them.
+ *
+ */
+public class OffHeapStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapStore.class);
+
+  private static final int NULL_LENGTH = -1;
+
+  /**
+   * Location of one serialized account in the arena.
+   */
+  private static class Slot {
+    final int offset;
+    final int length;
+
+    Slot(int offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private final ByteBuffer arena;
+  private final Map<String, Slot> index = new LinkedHashMap<>();
+  private int writePosition;
+  private int deadBytes;
+  private long compactionCount;
+  private long droppedCount;
+
+  public OffHeapStore(int capacityBytes) {
+    this.arena = ByteBuffer.allocateDirect(capacityBytes);
+  }
+
+  /**
+   * Stores the account, replacing any older version. Returns false if the account is larger than
+   * the whole arena and could not be stored.
+   */
+  public boolean put(UserAccount userAccount) {
+    byte[] record = serialize(userAccount);
+    discard(userAccount.getUserId());
+    if (record.length > arena.capacity()) {
+      droppedCount++;
+      return false;
+    }
+    if (writePosition + record.length > arena.capacity()) {
+      makeRoom(record.length);
+    }
+    arena.position(writePosition);
+    arena.put(record);
+    index.put(userAccount.getUserId(), new Slot(writePosition, record.length));
+    writePosition += record.length;
+    return true;
+  }
+
+  /**
+   * Returns the stored account, or null if there is none.
+   */
+  public UserAccount get(String userId) {
+    Slot slot = index.get(userId);
+    return slot == null ? null : deserialize(slot);
+  }
+
+  /**
+   * Removes and returns the stored account, or null if there is none.
+   */
+  public UserAccount remove(String userId) {
+    Slot slot = discard(userId);
+    return slot == null ? null : deserialize(slot);
+  }
+
+  public boolean contains(String userId) {
+    return index.containsKey(userId);
+  }
+
+  /**
+   * Drops all stored accounts.
+   */
+  public void clear() {
+    index.clear();
+    writePosition = 0;
+    deadBytes = 0;
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  public int getUsedBytes() {
+    return writePosition - deadBytes;
+  }
+
+  public int getCapacityBytes() {
+    return arena.capacity();
+  }
+
+  public long getCompactionCount() {
+    return compactionCount;
+  }
+
+  public long getDroppedCount() {
+    return droppedCount;
+  }
+
+  private Slot discard(String userId) {
+    Slot slot = index.remove(userId);
+    if (slot != null) {
+      deadBytes += slot.length;
+    }
+    return slot;
+  }
+
+  /**
+   * Drops the oldest records until the live data plus the new record fit, then compacts.
+   */
+  private void makeRoom(int recordLength) {
+    Iterator<Map.Entry<String, Slot>> iterator = index.entrySet().iterator();
+    while (getUsedBytes() + recordLength > arena.capacity() && iterator.hasNext()) {
+      Slot eldest = iterator.next().getValue();
+      iterator.remove();
+      deadBytes += eldest.length;
+      droppedCount++;
+    }
+    compact();
+  }
+
+  /**
+   * Moves all live records to the start of the arena, in index order.
+   */
+  private void compact() {
+    LOGGER.info("# Compacting off-heap store: {} live bytes, {} dead bytes", getUsedBytes(),
+        deadBytes);
+    int target = 0;
+    for (Map.Entry<String, Slot> entry : index.entrySet()) {
+      Slot slot = entry.getValue();
+      if (slot.offset != target) {
+        byte[] record = new byte[slot.length];
+        arena.position(slot.offset);
+        arena.get(record);
+        arena.position(target);
+        arena.put(record);
+        entry.setValue(new Slot(target, slot.length));
+      }
+      target += slot.length;
+    }
+    writePosition = target;
+    deadBytes = 0;
+    compactionCount++;
+  }
+
+  private static byte[] serialize(UserAccount userAccount) {
+    byte[] userId = encode(userAccount.getUserId());
+    byte[] userName = encode(userAccount.getUserName());
+    byte[] additionalInfo = encode(userAccount.getAdditionalInfo());
+    ByteBuffer buffer = ByteBuffer.allocate(3 * Integer.BYTES + length(userId) + length(userName)
+        + length(additionalInfo));
+    writeField(buffer, userId);
+    writeField(buffer, userName);
+    writeField(buffer, additionalInfo);
+    return buffer.array();
+  }
+
+  private UserAccount deserialize(Slot slot) {
+    ByteBuffer record = arena.duplicate();
+    record.position(slot.offset);
+    record.limit(slot.offset + slot.length);
+    return new UserAccount(readField(record), readField(record), readField(record));
+  }
+
+  private static byte[] encode(String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int length(byte[] bytes) {
+    return bytes == null ? 0 : bytes.length;
+  }
+
+  private static void writeField(ByteBuffer buffer, byte[] bytes) {
+    if (bytes == null) {
+      buffer.putInt(NULL_LENGTH);
+    } else {
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+    }
+  }
+
+  private static String readField(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
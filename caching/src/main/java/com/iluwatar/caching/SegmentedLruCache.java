@@ -0,0 +1,265 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * Thread-safe counterpart of {@link LruCache}. The key space is split over a fixed, power-of-two
+ * number of segments; each segment is a plain {@link LruCache} guarded by its own lock. Threads
+ * working on users that hash to different segments never contend with each other, so lookups scale
+ * with the number of cores instead of serializing on one global lock.
+ * <p>
+ * Eviction happens per segment: when the segment a user maps to is full, that segment's
+ * least-recently-used entry makes room for the new one. Caches too small to be split sensibly
+ * collapse into a single segment and then behave exactly like {@link LruCache}.
+ * <p>
+ * When created with an off-heap budget, every segment gets its own {@link OffHeapStore} holding
+ * the entries it evicted, guarded by the same segment lock.
+ *
+ */
+public class SegmentedLruCache {
+
+  static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+  static final int MIN_SEGMENT_CAPACITY = 16;
+
+  private final LruCache[] segments;
+  private volatile int capacity;
+
+  public SegmentedLruCache(int capacity) {
+    this(capacity, DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param capacity total number of entries held by all segments together
+   * @param concurrencyLevel upper bound for the number of segments
+   */
+  public SegmentedLruCache(int capacity, int concurrencyLevel) {
+    this(capacity, concurrencyLevel, 0);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param capacity total number of entries held on the heap by all segments together
+   * @param concurrencyLevel upper bound for the number of segments
+   * @param offHeapBytes total size of the off-heap tier, or 0 to drop evicted entries
+   */
+  public SegmentedLruCache(int capacity, int concurrencyLevel, int offHeapBytes) {
+    int segmentCount = segmentCount(capacity, concurrencyLevel);
+    this.segments = new LruCache[segmentCount];
+    this.capacity = capacity;
+    for (int i = 0; i < segmentCount; i++) {
+      OffHeapStore offHeapStore = offHeapBytes > 0 ? new OffHeapStore(offHeapBytes / segmentCount)
+          : null;
+      segments[i] = new LruCache(segmentCapacity(capacity, i), offHeapStore);
+    }
+  }
+
+  /**
+   * Get user account
+   */
+  public UserAccount get(String userId) {
+    LruCache segment = segmentFor(userId);
+    synchronized (segment) {
+      return segment.get(userId);
+    }
+  }
+
+  /**
+   * Set user account
+   */
+  public void set(String userId, UserAccount userAccount) {
+    LruCache segment = segmentFor(userId);
+    synchronized (segment) {
+      segment.set(userId, userAccount);
+    }
+  }
+
+  /**
+   * Check whether the user is cached
+   */
+  public boolean contains(String userId) {
+    LruCache segment = segmentFor(userId);
+    synchronized (segment) {
+      return segment.contains(userId);
+    }
+  }
+
+  /**
+   * Invalidate cache for user
+   */
+  public void invalidate(String userId) {
+    LruCache segment = segmentFor(userId);
+    synchronized (segment) {
+      segment.invalidate(userId);
+    }
+  }
+
+  /**
+   * Returns true if the cache as a whole holds as many entries as its capacity.
+   */
+  public boolean isFull() {
+    return size() >= capacity;
+  }
+
+  /**
+   * Returns true if adding a new user with the given id would evict an entry, i.e. the segment the
+   * user maps to is full.
+   */
+  public boolean isFull(String userId) {
+    LruCache segment = segmentFor(userId);
+    synchronized (segment) {
+      return segment.isFull();
+    }
+  }
+
+  /**
+   * Returns the least-recently-used entry of the fullest segment, or null if the cache is empty.
+   */
+  public UserAccount getLruData() {
+    LruCache fullest = null;
+    int fullestSize = 0;
+    for (LruCache segment : segments) {
+      synchronized (segment) {
+        if (segment.cache.size() > fullestSize) {
+          fullest = segment;
+          fullestSize = segment.cache.size();
+        }
+      }
+    }
+    if (fullest == null) {
+      return null;
+    }
+    synchronized (fullest) {
+      return fullest.end == null ? null : fullest.end.userAccount;
+    }
+  }
+
+  /**
+   * Returns the entry that would be evicted to make room for the given user, or null if the
+   * segment the user maps to is empty.
+   */
+  public UserAccount getLruData(String userId) {
+    LruCache segment = segmentFor(userId);
+    synchronized (segment) {
+      return segment.end == null ? null : segment.end.userAccount;
+    }
+  }
+
+  /**
+   * Clear cache
+   */
+  public void clear() {
+    for (LruCache segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  /**
+   * Returns cache data in list form. Entries are ordered from most to least recently used within
+   * each segment.
+   */
+  public List<UserAccount> getCacheDataInListForm() {
+    List<UserAccount> listOfCacheData = new ArrayList<>();
+    for (LruCache segment : segments) {
+      synchronized (segment) {
+        listOfCacheData.addAll(segment.getCacheDataInListForm());
+      }
+    }
+    return listOfCacheData;
+  }
+
+  /**
+   * Set cache capacity. The number of segments is fixed at construction, so the new capacity is
+   * spread over the existing segments. Every segment keeps room for at least one entry, so a
+   * capacity below the number of segments holds one entry per segment.
+   */
+  public synchronized void setCapacity(int newCapacity) {
+    for (int i = 0; i < segments.length; i++) {
+      synchronized (segments[i]) {
+        segments[i].setCapacity(segmentCapacity(newCapacity, i));
+      }
+    }
+    capacity = newCapacity;
+  }
+
+  /**
+   * Returns the total number of cached entries.
+   */
+  public int size() {
+    int size = 0;
+    for (LruCache segment : segments) {
+      synchronized (segment) {
+        size += segment.cache.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of entries held in the off-heap tier.
+   */
+  public int offHeapSize() {
+    int size = 0;
+    for (LruCache segment : segments) {
+      synchronized (segment) {
+        size += segment.offHeapStore == null ? 0 : segment.offHeapStore.size();
+      }
+    }
+    return size;
+  }
+
+  int getSegmentCount() {
+    return segments.length;
+  }
+
+  /**
+   * Returns the largest power of two not above the concurrency level that still leaves every
+   * segment with at least {@link #MIN_SEGMENT_CAPACITY} entries, or 1 for small caches.
+   */
+  static int segmentCount(int capacity, int concurrencyLevel) {
+    int segmentCount = 1;
+    while (segmentCount < concurrencyLevel && segmentCount * 2 * MIN_SEGMENT_CAPACITY <= capacity) {
+      segmentCount <<= 1;
+    }
+    return segmentCount;
+  }
+
+  private LruCache segmentFor(String userId) {
+    int hash = userId.hashCode();
+    hash ^= hash >>> 16;
+    return segments[hash & (segments.length - 1)];
+  }
+
+  private int segmentCapacity(int totalCapacity, int index) {
+    int share = totalCapacity / segments.length;
+    return Math.max(1, index < totalCapacity % segments.length ? share + 1 : share);
+  }
+}
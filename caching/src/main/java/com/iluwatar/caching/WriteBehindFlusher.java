@@ -0,0 +1,350 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ * Background pipeline for the write-behind policy. Dirty values are collected in an
+ * insertion-ordered map keyed by their cache key, so repeated writes of the same key coalesce into
+ * a single database update. A daemon thread flushes the dirty set to the {@link CacheWriter} in
+ * batches of at most {@code batchSize} entries, either as soon as a full batch is available or when
+ * {@code flushIntervalMillis} has elapsed, whichever comes first. After a batch with failed writes
+ * the thread waits before the next attempt, doubling the wait up to {@value #MAX_BACKOFF_SHIFT}
+ * times while the writes keep failing.
+ * <p>
+ * Writers are blocked once {@code maxDirty} distinct keys are waiting to be flushed. This bounds
+ * memory and makes a database that cannot keep up visible to the callers instead of hiding it in an
+ * ever growing queue.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class WriteBehindFlusher<K, V> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindFlusher.class);
+
+  static final int DEFAULT_BATCH_SIZE = 100;
+  static final int DEFAULT_MAX_DIRTY = 10_000;
+  static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+  static final int MAX_BACKOFF_SHIFT = 5;
+
+  private final CacheWriter<K, V> writer;
+  private final int batchSize;
+  private final int maxDirty;
+  private final long flushIntervalMillis;
+
+  private final Map<K, V> dirty = new LinkedHashMap<>();
+  private final Map<K, V> writing = new HashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition batchReady = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final Object writeMonitor = new Object();
+
+  private boolean running;
+  private Thread flusherThread;
+
+  private long flushCount;
+  private long flushedEntries;
+  private long totalFlushNanos;
+  private long maxFlushNanos;
+  private int failedBatchesInRow;
+
+  public WriteBehindFlusher(CacheWriter<K, V> writer) {
+    this(writer, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DIRTY, DEFAULT_FLUSH_INTERVAL_MILLIS);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param writer backing store the dirty values are written to
+   * @param batchSize maximum number of values written in one flush
+   * @param maxDirty maximum number of distinct dirty keys before writers are blocked
+   * @param flushIntervalMillis maximum time a dirty value waits before it is flushed
+   */
+  public WriteBehindFlusher(CacheWriter<K, V> writer, int batchSize, int maxDirty,
+      long flushIntervalMillis) {
+    if (batchSize <= 0 || maxDirty < batchSize || flushIntervalMillis <= 0) {
+      throw new IllegalArgumentException("Invalid write-behind configuration");
+    }
+    this.writer = writer;
+    this.batchSize = batchSize;
+    this.maxDirty = maxDirty;
+    this.flushIntervalMillis = flushIntervalMillis;
+  }
+
+  /**
+   * Starts the background flusher thread.
+   */
+  public void start() {
+    lock.lock();
+    try {
+      if (running) {
+        return;
+      }
+      running = true;
+      flusherThread = new Thread(this::run, "write-behind-flusher");
+      flusherThread.setDaemon(true);
+      flusherThread.start();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Flushes everything that is still dirty and stops the background thread.
+   */
+  public void stop() throws InterruptedException {
+    Thread thread;
+    lock.lock();
+    try {
+      if (!running) {
+        return;
+      }
+      running = false;
+      thread = flusherThread;
+      batchReady.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    thread.join();
+  }
+
+  /**
+   * Marks the value as dirty. Blocks while the dirty set is at its limit, unless the key is already
+   * dirty and the write can simply replace the pending value.
+   */
+  public void markDirty(K key, V value) throws InterruptedException {
+    lock.lock();
+    try {
+      while (dirty.size() >= maxDirty && !dirty.containsKey(key)) {
+        LOGGER.info("# Write-behind queue is FULL! Waiting for the flusher...");
+        notFull.await();
+      }
+      dirty.remove(key);
+      dirty.put(key, value);
+      if (dirty.size() >= batchSize) {
+        batchReady.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the value waiting to be written for the given key, or null if there is none. Reads must
+   * consult this before the DB so they never observe an older version.
+   */
+  public V getPending(K key) {
+    lock.lock();
+    try {
+      V pending = dirty.get(key);
+      return pending != null ? pending : writing.get(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes all dirty values to the DB on the calling thread, after any batch the background thread
+   * is currently writing.
+   */
+  public void flush() {
+    int written;
+    do {
+      written = writeBatch(Integer.MAX_VALUE);
+    } while (written > 0);
+  }
+
+  /**
+   * Returns the number of dirty values waiting to be written.
+   */
+  public int getQueueDepth() {
+    lock.lock();
+    try {
+      return dirty.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of batches written so far.
+   */
+  public long getFlushCount() {
+    lock.lock();
+    try {
+      return flushCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of values written so far.
+   */
+  public long getFlushedEntries() {
+    lock.lock();
+    try {
+      return flushedEntries;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the average time needed to write one batch, in microseconds.
+   */
+  public long getAverageFlushLatencyMicros() {
+    lock.lock();
+    try {
+      return flushCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalFlushNanos / flushCount);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the longest time needed to write one batch, in microseconds.
+   */
+  public long getMaxFlushLatencyMicros() {
+    lock.lock();
+    try {
+      return TimeUnit.NANOSECONDS.toMicros(maxFlushNanos);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        lock.lock();
+        try {
+          boolean backingOff = failedBatchesInRow > 0;
+          long remaining = TimeUnit.MILLISECONDS.toNanos(backingOff
+              ? flushIntervalMillis << Math.min(failedBatchesInRow - 1, MAX_BACKOFF_SHIFT)
+              : flushIntervalMillis);
+          // a failing writer must not be retried as fast as full batches are taken
+          while (running && (backingOff || dirty.size() < batchSize) && remaining > 0) {
+            remaining = batchReady.awaitNanos(remaining);
+          }
+          if (!running && dirty.isEmpty()) {
+            return;
+          }
+        } finally {
+          lock.unlock();
+        }
+        if (writeBatch(batchSize) == 0 && !running) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Takes up to maxSize dirty values and writes them. Batches are written one at a time so that two
+   * versions of the same key can never reach the DB out of order. Returns the number of values
+   * written.
+   */
+  private int writeBatch(int maxSize) {
+    synchronized (writeMonitor) {
+      List<Map.Entry<K, V>> batch = takeBatch(maxSize);
+      return batch.isEmpty() ? 0 : write(batch);
+    }
+  }
+
+  private List<Map.Entry<K, V>> takeBatch(int maxSize) {
+    lock.lock();
+    try {
+      List<Map.Entry<K, V>> batch = new ArrayList<>(Math.min(maxSize, dirty.size()));
+      Iterator<Map.Entry<K, V>> iterator = dirty.entrySet().iterator();
+      while (iterator.hasNext() && batch.size() < maxSize) {
+        Map.Entry<K, V> entry = iterator.next();
+        batch.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+        writing.put(entry.getKey(), entry.getValue());
+        iterator.remove();
+      }
+      if (!batch.isEmpty()) {
+        notFull.signalAll();
+      }
+      return batch;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes the batch and returns the number of values that made it to the DB. Failed values are put
+   * back into the dirty set unless a newer version is already waiting there.
+   */
+  private int write(List<Map.Entry<K, V>> batch) {
+    long start = System.nanoTime();
+    List<Map.Entry<K, V>> failed = new ArrayList<>();
+    for (Map.Entry<K, V> entry : batch) {
+      try {
+        writer.write(entry.getKey(), entry.getValue());
+      } catch (RuntimeException e) {
+        LOGGER.error("Write-behind of {} failed, will retry", entry.getKey(), e);
+        failed.add(entry);
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    lock.lock();
+    try {
+      for (Map.Entry<K, V> entry : batch) {
+        writing.remove(entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<K, V> entry : failed) {
+        if (!dirty.containsKey(entry.getKey())) {
+          dirty.put(entry.getKey(), entry.getValue());
+        }
+      }
+      failedBatchesInRow = failed.isEmpty() ? 0 : failedBatchesInRow + 1;
+      flushCount++;
+      flushedEntries += batch.size() - failed.size();
+      totalFlushNanos += elapsed;
+      maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+    } finally {
+      lock.unlock();
+    }
+    LOGGER.info("# Flushed {} value(s) to DB in {} us, {} still dirty", batch.size() - failed.size(),
+        TimeUnit.NANOSECONDS.toMicros(elapsed), getQueueDepth());
+    return batch.size() - failed.size();
+  }
+}
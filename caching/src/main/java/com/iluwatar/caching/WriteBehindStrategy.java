@@ -0,0 +1,91 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+/**
+ *
+ * Read-through and write-behind: saves only update the cache and hand the value to a
+ * {@link WriteBehindFlusher}, which writes it to the backing store in the background.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class WriteBehindStrategy<K, V> implements CachingStrategy<K, V> {
+
+  private final WriteBehindFlusher<K, V> flusher;
+
+  /**
+   * Constructor
+   *
+   * @param writer backing store the flusher writes to
+   */
+  public WriteBehindStrategy(CacheWriter<K, V> writer) {
+    this.flusher = new WriteBehindFlusher<>(writer);
+    flusher.start();
+  }
+
+  @Override
+  public V find(Cache<K, V> cache, K key) {
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    value = flusher.getPending(key); // evicted but not yet written
+    if (value == null) {
+      value = cache.load(key);
+    }
+    if (value != null) {
+      cache.put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public void save(Cache<K, V> cache, K key, V value) {
+    try {
+      flusher.markDirty(key, value);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cache.write(key, value);
+    }
+    cache.put(key, value);
+  }
+
+  @Override
+  public void flush(Cache<K, V> cache) {
+    flusher.flush();
+  }
+
+  @Override
+  public void close(Cache<K, V> cache) {
+    try {
+      flusher.stop();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  WriteBehindFlusher<K, V> getFlusher() {
+    return flusher;
+  }
+}
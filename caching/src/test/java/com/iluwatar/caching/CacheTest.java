@@ -0,0 +1,123 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for {@link Cache} and the strategy objects behind each {@link CachingPolicy}
+ */
+public class CacheTest {
+
+  private Map<Integer, String> store;
+  private CacheLoader<Integer, String> loader;
+  private CacheWriter<Integer, String> writer;
+
+  /**
+   * Backs every cache under test with a plain map.
+   */
+  @BeforeEach
+  public void setUp() {
+    store = new ConcurrentHashMap<>();
+    loader = store::get;
+    writer = store::put;
+  }
+
+  @Test
+  public void testWriteThrough() {
+    Cache<Integer, String> cache = new Cache<>(3, CachingPolicy.THROUGH, loader, writer);
+    cache.save(1, "one");
+    assertEquals("one", store.get(1));
+    assertEquals("one", cache.find(1));
+    assertEquals(1, cache.getStats().getHitCount());
+    assertEquals(0, cache.getStats().getLoadCount());
+  }
+
+  @Test
+  public void testWriteAround() {
+    Cache<Integer, String> cache = new Cache<>(3, CachingPolicy.AROUND, loader, writer);
+    cache.save(1, "one");
+    assertEquals(0, cache.size());
+    assertEquals("one", cache.find(1));
+    assertEquals("one", cache.find(1));
+    cache.save(1, "uno");
+    assertEquals("uno", cache.find(1));
+
+    CacheStats stats = cache.getStats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(2, stats.getMissCount());
+    assertEquals(2, stats.getLoadCount());
+  }
+
+  @Test
+  public void testWriteBehind() {
+    Cache<Integer, String> cache = new Cache<>(2, CachingPolicy.BEHIND, loader, writer);
+    cache.save(1, "one");
+    cache.save(2, "two");
+    cache.save(3, "three");
+    assertEquals(1, cache.getStats().getEvictionCount());
+    assertEquals("one", cache.find(1)); // evicted, served from the flusher or the store
+    cache.close();
+    assertEquals("one", store.get(1));
+    assertEquals("two", store.get(2));
+    assertEquals("three", store.get(3));
+  }
+
+  @Test
+  public void testCacheAside() {
+    Cache<Integer, String> cache = new Cache<>(3, CachingPolicy.ASIDE, loader, writer);
+    store.put(1, "one");
+    assertEquals("one", cache.find(1));
+    cache.save(1, "uno");
+    assertEquals(0, cache.size());
+    assertEquals("uno", cache.find(1));
+    assertNull(cache.find(2));
+  }
+
+  @Test
+  public void testInstancesAreIndependent() {
+    Cache<Integer, String> small = new Cache<>(1, CachingPolicy.THROUGH, loader, writer);
+    Cache<Integer, String> large = new Cache<>(1000, CachingPolicy.THROUGH, loader, writer);
+    for (int i = 0; i < 100; i++) {
+      small.save(i, "value" + i);
+      large.save(i, "value" + i);
+    }
+    assertEquals(1, small.size());
+    assertEquals(99, small.getStats().getEvictionCount());
+    assertEquals(100, large.size());
+    assertEquals(0, large.getStats().getEvictionCount());
+
+    for (int i = 0; i < 100; i++) {
+      large.find(i);
+    }
+    assertEquals(1.0, large.getStats().getHitRate());
+    assertEquals(0, small.getStats().getHitCount());
+  }
+}
@@ -25,6 +25,8 @@ package com.iluwatar.caching;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 /**
  *
  * Application test
@@ -65,4 +67,14 @@ public class CachingTest {
   public void testCacheAsideStrategy() {
     app.useCacheAsideStategy();
   }
+
+  @Test
+  public void testWriteBehindWithoutPolicySetup() {
+    UserAccount userAccount = new UserAccount("101", "Eve", "She started the flusher.");
+    CacheStore.writeBehind(userAccount);
+    assertEquals(userAccount, CacheStore.readThroughWithWriteBackPolicy("101"));
+
+    CacheStore.flushCache();
+    assertEquals("Eve", DbManager.readFromDb("101").getUserName());
+  }
 }
@@ -0,0 +1,122 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing read-through lookups on {@link LruCache} guarded by one global lock
+ * against {@link SegmentedLruCache}. The key space fits into the cache so the measurement is not
+ * dominated by eviction logging. Run {@link #main(String[])} to execute it with 1, 4 and 16
+ * threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LruCacheBenchmark {
+
+  private static final int CAPACITY = 10_000;
+  private static final int KEY_SPACE = 8_192;
+
+  private String[] userIds;
+  private UserAccount[] userAccounts;
+  private LruCache lruCache;
+  private SegmentedLruCache segmentedLruCache;
+
+  /**
+   * Fills both caches with the same accounts.
+   */
+  @Setup
+  public void setUp() {
+    userIds = new String[KEY_SPACE];
+    userAccounts = new UserAccount[KEY_SPACE];
+    lruCache = new LruCache(CAPACITY);
+    segmentedLruCache = new SegmentedLruCache(CAPACITY);
+    for (int i = 0; i < KEY_SPACE; i++) {
+      userIds[i] = "user" + i;
+      userAccounts[i] = new UserAccount(userIds[i], "name" + i, "info" + i);
+      lruCache.set(userIds[i], userAccounts[i]);
+      segmentedLruCache.set(userIds[i], userAccounts[i]);
+    }
+  }
+
+  /**
+   * Read-through lookup on the single-lock cache.
+   */
+  @Benchmark
+  public UserAccount globalLock() {
+    int i = ThreadLocalRandom.current().nextInt(KEY_SPACE);
+    synchronized (lruCache) {
+      UserAccount userAccount = lruCache.get(userIds[i]);
+      if (userAccount == null) {
+        lruCache.set(userIds[i], userAccounts[i]);
+      }
+      return userAccount;
+    }
+  }
+
+  /**
+   * Read-through lookup on the segmented cache.
+   */
+  @Benchmark
+  public UserAccount segmented() {
+    int i = ThreadLocalRandom.current().nextInt(KEY_SPACE);
+    UserAccount userAccount = segmentedLruCache.get(userIds[i]);
+    if (userAccount == null) {
+      segmentedLruCache.set(userIds[i], userAccounts[i]);
+    }
+    return userAccount;
+  }
+
+  /**
+   * Benchmark entry point
+   */
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : new int[] {1, 4, 16}) {
+      Options options = new OptionsBuilder()
+          .include(LruCacheBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
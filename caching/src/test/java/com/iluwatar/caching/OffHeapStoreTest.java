@@ -0,0 +1,96 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link OffHeapStore} and its use as second tier of {@link LruCache}
+ */
+public class OffHeapStoreTest {
+
+  @Test
+  public void testRoundTrip() {
+    OffHeapStore store = new OffHeapStore(1024);
+    store.put(new UserAccount("001", "Jöhn", null));
+    UserAccount userAccount = store.get("001");
+    assertEquals("001", userAccount.getUserId());
+    assertEquals("Jöhn", userAccount.getUserName());
+    assertNull(userAccount.getAdditionalInfo());
+
+    store.put(new UserAccount("001", "John G.", "He is a boy."));
+    assertEquals(1, store.size());
+    assertEquals("John G.", store.remove("001").getUserName());
+    assertFalse(store.contains("001"));
+    assertEquals(0, store.getUsedBytes());
+  }
+
+  @Test
+  public void testCompactionKeepsLiveRecords() {
+    OffHeapStore store = new OffHeapStore(256);
+    for (int i = 0; i < 100; i++) {
+      store.put(new UserAccount("00" + (i % 4), "name" + i, "info"));
+    }
+    assertTrue(store.getCompactionCount() > 0);
+    assertEquals(0, store.getDroppedCount());
+    assertEquals(4, store.size());
+    assertEquals("name99", store.get("003").getUserName());
+  }
+
+  @Test
+  public void testOldestRecordsAreDroppedWhenFull() {
+    OffHeapStore store = new OffHeapStore(128);
+    for (int i = 0; i < 20; i++) {
+      store.put(new UserAccount("user" + i, "name", "info"));
+    }
+    assertTrue(store.getDroppedCount() > 0);
+    assertFalse(store.contains("user0"));
+    assertTrue(store.contains("user19"));
+    assertTrue(store.getUsedBytes() <= store.getCapacityBytes());
+    assertFalse(store.put(new UserAccount("big", new String(new char[200]), "")));
+  }
+
+  @Test
+  public void testEvictedEntriesArePromotedBack() {
+    LruCache cache = new LruCache(2, new OffHeapStore(1024));
+    cache.set("001", new UserAccount("001", "John", "He is a boy."));
+    cache.set("002", new UserAccount("002", "Jane", "She is a girl."));
+    cache.set("003", new UserAccount("003", "Adam", "He likes food."));
+    assertEquals(2, cache.cache.size());
+    assertEquals(1, cache.offHeapStore.size());
+    assertTrue(cache.contains("001"));
+
+    assertEquals("John", cache.get("001").getUserName());
+    assertTrue(cache.cache.containsKey("001"));
+    assertTrue(cache.offHeapStore.contains("002"));
+    assertFalse(cache.offHeapStore.contains("001"));
+
+    cache.invalidate("002");
+    assertFalse(cache.contains("002"));
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link SegmentedLruCache}
+ */
+public class SegmentedLruCacheTest {
+
+  @Test
+  public void testSmallCacheBehavesLikeLruCache() {
+    SegmentedLruCache cache = new SegmentedLruCache(2);
+    assertEquals(1, cache.getSegmentCount());
+
+    UserAccount first = new UserAccount("001", "John", "He is a boy.");
+    UserAccount second = new UserAccount("002", "Jane", "She is a girl.");
+    cache.set("001", first);
+    cache.set("002", second);
+    assertTrue(cache.isFull());
+    assertSame(first, cache.getLruData());
+
+    cache.get("001");
+    assertSame(second, cache.getLruData("003"));
+
+    cache.set("003", new UserAccount("003", "Adam", "He likes food."));
+    assertFalse(cache.contains("002"));
+    assertTrue(cache.contains("001"));
+
+    cache.invalidate("001");
+    assertNull(cache.get("001"));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testLargeCacheIsSegmented() {
+    SegmentedLruCache cache = new SegmentedLruCache(1000, 8);
+    assertEquals(8, cache.getSegmentCount());
+    for (int i = 0; i < 2000; i++) {
+      cache.set("user" + i, new UserAccount("user" + i, "name", "info"));
+    }
+    assertEquals(1000, cache.size());
+    assertTrue(cache.isFull());
+    assertEquals(1000, cache.getCacheDataInListForm().size());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertNull(cache.getLruData());
+  }
+
+  @Test
+  public void testShrinkingCapacity() {
+    SegmentedLruCache cache = new SegmentedLruCache(4);
+    for (int i = 0; i < 4; i++) {
+      cache.set("user" + i, new UserAccount("user" + i, "name", "info"));
+    }
+    cache.setCapacity(2);
+    assertFalse(cache.isFull());
+
+    for (int i = 0; i < 4; i++) {
+      cache.set("user" + i, new UserAccount("user" + i, "name", "info"));
+    }
+    assertEquals(2, cache.size());
+    assertTrue(cache.isFull());
+  }
+
+  @Test
+  public void testShrinkingBelowSegmentCountKeepsAcceptingWrites() {
+    SegmentedLruCache cache = new SegmentedLruCache(512);
+    cache.setCapacity(3);
+    for (int i = 0; i < 1000; i++) {
+      cache.set("user" + i, new UserAccount("user" + i, "name", "info"));
+    }
+    assertEquals(cache.getSegmentCount(), cache.size());
+    assertTrue(cache.isFull());
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    SegmentedLruCache cache = new SegmentedLruCache(512);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      final int offset = t;
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          String userId = "user" + ((i * 8 + offset) % 1024);
+          if (cache.get(userId) == null) {
+            cache.set(userId, new UserAccount(userId, "name", "info"));
+          }
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    assertEquals(512, cache.size());
+    assertEquals(512, cache.getCacheDataInListForm().size());
+  }
+}
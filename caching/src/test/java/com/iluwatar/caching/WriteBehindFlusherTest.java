@@ -0,0 +1,145 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link WriteBehindFlusher}
+ */
+public class WriteBehindFlusherTest {
+
+  private static final CacheWriter<String, UserAccount> WRITER =
+      (userId, userAccount) -> DbManager.upsertDb(userAccount);
+
+  @BeforeEach
+  public void setUp() {
+    DbManager.createVirtualDb();
+  }
+
+  @Test
+  public void testInvalidConfiguration() {
+    assertThrows(IllegalArgumentException.class, () -> new WriteBehindFlusher<>(WRITER, 10, 5, 100));
+  }
+
+  @Test
+  public void testWritesAreCoalesced() throws Exception {
+    WriteBehindFlusher<String, UserAccount> flusher = new WriteBehindFlusher<>(WRITER, 10, 100, 60_000);
+    UserAccount first = new UserAccount("001", "John", "He is a boy.");
+    UserAccount second = new UserAccount("001", "John G.", "He is a boy.");
+    flusher.markDirty("001", first);
+    flusher.markDirty("001", second);
+    assertEquals(1, flusher.getQueueDepth());
+    assertSame(second, flusher.getPending("001"));
+    assertNull(DbManager.readFromDb("001"));
+
+    flusher.flush();
+    assertEquals(0, flusher.getQueueDepth());
+    assertNull(flusher.getPending("001"));
+    assertSame(second, DbManager.readFromDb("001"));
+    assertEquals(1, flusher.getFlushedEntries());
+  }
+
+  @Test
+  public void testFullBatchIsFlushedInBackground() throws Exception {
+    WriteBehindFlusher<String, UserAccount> flusher = new WriteBehindFlusher<>(WRITER, 2, 10, 60_000);
+    flusher.start();
+    flusher.markDirty("001", new UserAccount("001", "John", "He is a boy."));
+    flusher.markDirty("002", new UserAccount("002", "Jane", "She is a girl."));
+    awaitQueueDepth(flusher, 0);
+    flusher.stop();
+    assertEquals("Jane", DbManager.readFromDb("002").getUserName());
+    assertTrue(flusher.getFlushCount() >= 1);
+  }
+
+  @Test
+  public void testPartialBatchIsFlushedAfterInterval() throws Exception {
+    WriteBehindFlusher<String, UserAccount> flusher = new WriteBehindFlusher<>(WRITER, 100, 1000, 50);
+    flusher.start();
+    flusher.markDirty("001", new UserAccount("001", "John", "He is a boy."));
+    awaitQueueDepth(flusher, 0);
+    flusher.stop();
+    assertEquals("John", DbManager.readFromDb("001").getUserName());
+  }
+
+  @Test
+  public void testWritersAreBlockedWhenDirtySetIsFull() throws Exception {
+    WriteBehindFlusher<String, UserAccount> flusher = new WriteBehindFlusher<>(WRITER, 1, 1, 60_000);
+    flusher.markDirty("001", new UserAccount("001", "John", "He is a boy."));
+
+    CountDownLatch done = new CountDownLatch(1);
+    Thread writer = new Thread(() -> {
+      try {
+        flusher.markDirty("002", new UserAccount("002", "Jane", "She is a girl."));
+        done.countDown();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    writer.start();
+    assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+
+    flusher.flush();
+    assertTrue(done.await(1, TimeUnit.SECONDS));
+    assertEquals("John", DbManager.readFromDb("001").getUserName());
+  }
+
+  @Test
+  public void testFailingWriterIsRetriedWithBackoff() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    CacheWriter<String, UserAccount> failing = (userId, userAccount) -> {
+      attempts.incrementAndGet();
+      throw new IllegalStateException("DB is down");
+    };
+    WriteBehindFlusher<String, UserAccount> flusher = new WriteBehindFlusher<>(failing, 1, 10, 20);
+    flusher.start();
+    flusher.markDirty("001", new UserAccount("001", "John", "He is a boy."));
+    flusher.markDirty("002", new UserAccount("002", "Jane", "She is a girl."));
+    Thread.sleep(500);
+    flusher.stop();
+
+    // waits of 20, 40, 80, 160 and 320 ms leave room for at most six attempts, plus the final flush
+    assertTrue(attempts.get() <= 8, attempts.get() + " attempts");
+    assertEquals(2, flusher.getQueueDepth());
+  }
+
+  private static void awaitQueueDepth(WriteBehindFlusher<String, UserAccount> flusher, int depth) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (flusher.getQueueDepth() != depth && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(depth, flusher.getQueueDepth());
+  }
+}
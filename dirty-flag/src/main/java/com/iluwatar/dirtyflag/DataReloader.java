@@ -0,0 +1,232 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.dirtyflag;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Keeps the lines of a raw file up to date in the background.
+ * <p>
+ * A {@link WatchService} raises the dirty flag when the file changes, and a background thread
+ * clears it by reloading the file. If the file only grew, which is detected by comparing the
+ * checksum of the memory-mapped region parsed last time, only the appended bytes are parsed.
+ * Otherwise the whole file is parsed again. Each reload publishes an immutable {@link Snapshot},
+ * so {@link #fetch()} never blocks and never parses.
+ *
+ */
+public class DataReloader implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DataReloader.class);
+
+  private final Path file;
+  private final WatchService watchService;
+  private final Thread watcher;
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+  /**
+   * Loads the file and starts watching it.
+   *
+   * @param file file to keep loaded
+   * @throws IOException if the file cannot be read or watched
+   */
+  public DataReloader(Path file) throws IOException {
+    this.file = file.toAbsolutePath();
+    this.watchService = FileSystems.getDefault().newWatchService();
+    this.file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+    reload();
+    this.watcher = new Thread(this::watch, "data-reloader-" + file.getFileName());
+    this.watcher.setDaemon(true);
+    this.watcher.start();
+  }
+
+  /**
+   * @return the lines of the file as of the last reload, an unmodifiable list
+   */
+  public List<String> fetch() {
+    return snapshot.get().getLines();
+  }
+
+  public Snapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * Brings the snapshot up to date with the file, called by the watcher whenever the file is dirty.
+   *
+   * @throws IOException if the file cannot be read
+   */
+  public synchronized void reload() throws IOException {
+    Snapshot current = snapshot.get();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(file + " is too large to be mapped");
+      }
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      Snapshot next;
+      if (size >= current.parsedBytes && checksum(mapped, current.parsedBytes) == current.checksum) {
+        if (size == current.parsedBytes && current.pendingBytes == 0) {
+          return;
+        }
+        next = parse(mapped, current, current.parsedBytes);
+      } else {
+        next = parse(mapped, Snapshot.EMPTY, 0);
+      }
+      snapshot.set(next);
+    }
+  }
+
+  /**
+   * Stops watching the file, the last snapshot remains available.
+   */
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+  }
+
+  private void watch() {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        boolean dirty = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+          dirty |= file.getFileName().equals(event.context());
+        }
+        key.reset();
+        if (dirty) {
+          reloadQuietly();
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // stopped
+    }
+  }
+
+  private void reloadQuietly() {
+    try {
+      reload();
+    } catch (IOException e) {
+      // keep serving the previous snapshot, the next change triggers another attempt
+      LOGGER.error("Could not reload {}", file, e);
+    }
+  }
+
+  private static long checksum(ByteBuffer mapped, long length) {
+    CRC32 crc = new CRC32();
+    ByteBuffer region = mapped.duplicate();
+    region.position(0).limit((int) length);
+    crc.update(region);
+    return crc.getValue();
+  }
+
+  /**
+   * Parses the complete lines from {@code offset} and appends them to those of {@code base}. A last
+   * line without a line break is included, but parsed again by the next reload.
+   */
+  private static Snapshot parse(ByteBuffer mapped, Snapshot base, long offset) {
+    ByteBuffer region = mapped.duplicate();
+    int end = region.limit();
+    int lastBreak = end - 1;
+    while (lastBreak >= offset && region.get(lastBreak) != '\n') {
+      lastBreak--;
+    }
+    int parsedEnd = lastBreak + 1;
+
+    List<String> complete = new ArrayList<>(base.complete);
+    region.position((int) offset).limit(parsedEnd);
+    if (region.hasRemaining()) {
+      String text = StandardCharsets.UTF_8.decode(region).toString();
+      for (String line : text.substring(0, text.length() - 1).split("\n", -1)) {
+        complete.add(stripCarriageReturn(line));
+      }
+    }
+    region.limit(end).position(parsedEnd);
+    String pending = region.hasRemaining() ? StandardCharsets.UTF_8.decode(region).toString() : null;
+    return new Snapshot(complete, pending, parsedEnd, end - parsedEnd, checksum(mapped, parsedEnd));
+  }
+
+  private static String stripCarriageReturn(String line) {
+    return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+  }
+
+  /**
+   * Immutable content of the file at one reload.
+   */
+  public static final class Snapshot {
+
+    private static final Snapshot EMPTY = new Snapshot(Collections.emptyList(), null, 0, 0, new CRC32().getValue());
+
+    private final List<String> complete;
+    private final List<String> lines;
+    private final long parsedBytes;
+    private final long pendingBytes;
+    private final long checksum;
+
+    private Snapshot(List<String> complete, String pending, long parsedBytes, long pendingBytes, long checksum) {
+      this.complete = complete;
+      List<String> all = complete;
+      if (pending != null) {
+        all = new ArrayList<>(complete);
+        all.add(stripCarriageReturn(pending));
+      }
+      this.lines = Collections.unmodifiableList(all);
+      this.parsedBytes = parsedBytes;
+      this.pendingBytes = pendingBytes;
+      this.checksum = checksum;
+    }
+
+    public List<String> getLines() {
+      return lines;
+    }
+
+    /**
+     * @return size of the file at the reload
+     */
+    public long getSize() {
+      return parsedBytes + pendingBytes;
+    }
+  }
+}
@@ -36,12 +36,21 @@ public class World {
 
   private List<String> countries;
   private DataFetcher df;
+  private DataReloader reloader;
 
   public World() {
     this.countries = new ArrayList<String>();
     this.df = new DataFetcher();
   }
 
+  /**
+   * Serves the data kept up to date in the background by {@code reloader}.
+   */
+  public World(DataReloader reloader) {
+    this.countries = new ArrayList<String>();
+    this.reloader = reloader;
+  }
+
   /**
    * 
    * Calls {@link DataFetcher} to fetch data from back-end.
@@ -49,6 +58,9 @@ public class World {
    * @return List of strings
    */
   public List<String> fetch() {
+    if (reloader != null) {
+      return reloader.fetch();
+    }
     List<String> data = df.fetch();
 
     countries = data.isEmpty() ? countries : data;
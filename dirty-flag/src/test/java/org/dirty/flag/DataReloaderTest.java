@@ -0,0 +1,106 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.dirty.flag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.iluwatar.dirtyflag.DataReloader;
+import com.iluwatar.dirtyflag.World;
+
+/**
+ *
+ * Tests for {@link DataReloader}
+ *
+ */
+public class DataReloaderTest {
+
+  @Test
+  public void testAppendedLinesAreAdded() throws Exception {
+    Path file = createFile("Canada\r\nChina\nFra");
+    try (DataReloader reloader = new DataReloader(file)) {
+      assertEquals(Arrays.asList("Canada", "China", "Fra"), reloader.fetch());
+
+      append(file, "nce\nGermany\n");
+      reloader.reload();
+      assertEquals(Arrays.asList("Canada", "China", "France", "Germany"), reloader.fetch());
+
+      DataReloader.Snapshot snapshot = reloader.getSnapshot();
+      reloader.reload();
+      assertSame(snapshot, reloader.getSnapshot());
+      assertEquals(Files.size(file), snapshot.getSize());
+      assertThrows(UnsupportedOperationException.class, () -> reloader.fetch().add("Italy"));
+    }
+  }
+
+  @Test
+  public void testRewrittenFileIsParsedAgain() throws Exception {
+    Path file = createFile("Canada\nChina\n");
+    try (DataReloader reloader = new DataReloader(file)) {
+      Files.write(file, "Cuba\nChina\nItaly\n".getBytes(StandardCharsets.UTF_8));
+      reloader.reload();
+      assertEquals(Arrays.asList("Cuba", "China", "Italy"), reloader.fetch());
+
+      Files.write(file, new byte[0]);
+      reloader.reload();
+      assertEquals(Collections.emptyList(), reloader.fetch());
+    }
+  }
+
+  @Test
+  public void testChangesAreDetectedInBackground() throws Exception {
+    Path file = createFile("Canada\n");
+    try (DataReloader reloader = new DataReloader(file)) {
+      World world = new World(reloader);
+      append(file, "China\n");
+      List<String> expected = Arrays.asList("Canada", "China");
+      // the default watch service polls, which can take several seconds
+      long deadline = System.currentTimeMillis() + 30000;
+      while (!expected.equals(world.fetch()) && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50);
+      }
+      assertEquals(expected, world.fetch());
+    }
+  }
+
+  private static Path createFile(String content) throws Exception {
+    Path file = Files.createTempDirectory("dirty-flag").resolve("world.txt");
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static void append(Path file, String content) throws Exception {
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+  }
+}
@@ -37,8 +37,9 @@ import java.util.concurrent.TimeUnit;
  * locking logic proceed.
  * <p>
  * In {@link Inventory} we store the items with a given size. However, we do not store more items
- * than the inventory size. To address concurrent access problems we use double checked locking to
- * add item to inventory. In this method, the thread which gets the lock first adds the item.
+ * than the inventory size. To address concurrent access problems we check the number of reserved
+ * slots before reserving one with a compare-and-set, the lock-free counterpart of double checked
+ * locking. The thread whose compare-and-set succeeds first adds the item.
  * 
  */
 public class App {
@@ -26,57 +26,90 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 
  * Inventory
  *
- * ReentrantLock 实现双重锁定
+ * 先检查再 CAS 预留槽位，代替 ReentrantLock 双重锁定
+ * <p>
+ * Items are stored in a preallocated array. Adding an item first checks the number of reserved
+ * slots without any synchronization, the lock hint, and only then reserves a slot with a CAS, which
+ * fails and is retried if another thread reserved one in between. Nothing is ever locked.
  *
  */
-public class Inventory {
+public class Inventory implements Iterable<Item> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Inventory.class);
 
   private final int inventorySize;
-  private final List<Item> items;
-  private final Lock lock;
+  private final AtomicReferenceArray<Item> items;
+  private final AtomicInteger reserved = new AtomicInteger();
 
   /**
    * Constructor
    */
   public Inventory(int inventorySize) {
     this.inventorySize = inventorySize;
-    this.items = new ArrayList<>(inventorySize);
-    this.lock = new ReentrantLock();
+    this.items = new AtomicReferenceArray<>(inventorySize);
   }
 
   /**
    * Add item
-   * 判断size，满足条件之后，锁定对象，再次判断，满足条件才执行
-   * 第二次判断的原因是：
-   *  多线程环境可能在第一次size的判断成立到上锁执行完成的时间段，
-   *  出现了其他线程执行了改变size的操作，导致未知异常
+   * 判断size，满足条件之后，CAS 预留槽位，失败则重新判断
+   *
+   * @return false if the inventory is full
    */
   public boolean addItem(Item item) {
-    if (items.size() < inventorySize) {
-      lock.lock();
-      try {
-        if (items.size() < inventorySize) {
-          items.add(item);
-          System.out.println(Thread.currentThread()+": items.size()="+items.size()+", inventorySize="+inventorySize);
-          LOGGER.debug("{}: items.size()={}, inventorySize={}", Thread.currentThread(), items.size(), inventorySize);
-          return true;
-        }
-      } finally {
-        lock.unlock();
+    int slot;
+    do {
+      slot = reserved.get();
+      if (slot >= inventorySize) {
+        return false;
       }
+    } while (!reserved.compareAndSet(slot, slot + 1));
+    items.set(slot, item);
+    LOGGER.debug("{}: items.size()={}, inventorySize={}", Thread.currentThread(), slot + 1, inventorySize);
+    return true;
+  }
+
+  /**
+   * Adds as many of the items as there is room for, reserving their slots at once.
+   *
+   * @return number of items added, the first ones of the collection
+   */
+  public int addAll(Collection<Item> newItems) {
+    int requested = newItems.size();
+    int first;
+    int count;
+    do {
+      first = reserved.get();
+      if (first >= inventorySize || requested == 0) {
+        return 0;
+      }
+      count = Math.min(requested, inventorySize - first);
+    } while (!reserved.compareAndSet(first, first + count));
+
+    Iterator<Item> iterator = newItems.iterator();
+    for (int slot = first; slot < first + count; slot++) {
+      items.set(slot, iterator.next());
     }
-    return false;
+    LOGGER.debug("{}: items.size()={}, inventorySize={}", Thread.currentThread(), first + count, inventorySize);
+    return count;
+  }
+
+  /**
+   * @return number of reserved slots, which may include items still being added
+   */
+  public int size() {
+    return Math.min(reserved.get(), inventorySize);
   }
 
   /**
@@ -85,10 +118,49 @@ public class Inventory {
    * @return All the items of the inventory, as an unmodifiable list
    */
   public final List<Item> getItems() {
-    /**
-     * Collections.unmodifiableList() 1.8 新特性，返回一个不可修改的视图
-     */
-    return Collections.unmodifiableList(items);
+    List<Item> snapshot = new ArrayList<>(size());
+    for (Item item : this) {
+      snapshot.add(item);
+    }
+    return Collections.unmodifiableList(snapshot);
+  }
+
+  /**
+   * Iterates over the items added before the iterator was created, in slot order, without copying
+   * them. Slots reserved but not yet filled are skipped.
+   */
+  @Override
+  public Iterator<Item> iterator() {
+    int end = size();
+    return new Iterator<Item>() {
+      private int slot;
+      private Item next = advance();
+
+      private Item advance() {
+        while (slot < end) {
+          Item item = items.get(slot++);
+          if (item != null) {
+            return item;
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public Item next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        Item item = next;
+        next = advance();
+        return item;
+      }
+    };
   }
 
 }
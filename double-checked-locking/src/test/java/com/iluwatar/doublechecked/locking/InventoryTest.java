@@ -30,15 +30,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import static java.time.Duration.ofMillis;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -73,10 +80,9 @@ public class InventoryTest {
   private static final int INVENTORY_SIZE = 1000;
 
   /**
-   * Concurrently add multiple items to the inventory, and check if the items were added in order by
-   * checking the stdOut for continuous growth of the inventory. When 'items.size()=xx' shows up out
-   * of order, it means that the locking is not ok, increasing the risk of going over the inventory
-   * item limit.
+   * Concurrently add multiple items to the inventory, and check if every slot was reserved once by
+   * checking the log. When 'items.size()=xx' shows up twice, it means that the reservation is not
+   * ok, increasing the risk of going over the inventory item limit.
    */
   @Test
   public void testAddItem() throws Exception {
@@ -101,13 +107,43 @@ public class InventoryTest {
 
       assertEquals(INVENTORY_SIZE, appender.getLogSize());
 
-      // ... and check if the inventory size is increasing continuously
+      // ... and check if every slot was reserved exactly once
       for (int i = 0; i < items.size(); i++) {
-        assertTrue(appender.log.get(i).getFormattedMessage().contains("items.size()=" + (i + 1)));
+        final String size = "items.size()=" + (i + 1) + ",";
+        assertEquals(1, appender.log.stream().filter(e -> e.getFormattedMessage().contains(size)).count());
       }
     });
   }
 
+  @Test
+  public void testAddAllReservesOnlyRemainingSlots() {
+    final Inventory inventory = new Inventory(5);
+    assertTrue(inventory.addItem(new Item()));
+    assertEquals(3, inventory.addAll(Arrays.asList(new Item(), new Item(), new Item())));
+    final Item last = new Item();
+    assertEquals(1, inventory.addAll(Arrays.asList(last, new Item())));
+    assertEquals(0, inventory.addAll(Collections.singletonList(new Item())));
+    assertFalse(inventory.addItem(new Item()));
+    assertEquals(5, inventory.size());
+    assertSame(last, inventory.getItems().get(4));
+  }
+
+  @Test
+  public void testIteratorIsASnapshot() {
+    final Inventory inventory = new Inventory(10);
+    inventory.addAll(Arrays.asList(new Item(), new Item()));
+    final Iterator<Item> iterator = inventory.iterator();
+    inventory.addItem(new Item());
+    int count = 0;
+    while (iterator.hasNext()) {
+      assertNotNull(iterator.next());
+      count++;
+    }
+    assertEquals(2, count);
+    assertThrows(NoSuchElementException.class, iterator::next);
+    assertEquals(3, inventory.getItems().size());
+  }
+
 
 
   private class InMemoryAppender extends AppenderBase<ILoggingEvent> {
@@ -0,0 +1,290 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * This is the binary implementation of event journal.
+ * The events are encoded compactly by {@link EventCodec} and appended to fixed-size
+ * memory-mapped {@link JournalSegment}s in a journal directory. A new segment is started
+ * whenever the current one is full.
+ *
+ * <p>A write returns once its event is on disk. Writers that arrive while the disk is busy
+ * are committed together by the next fsync (group commit), so concurrent writers share the
+ * cost of syncing.
+ *
+ * <p>Recovery streams the events segment by segment; only the segment being read is mapped,
+ * so memory use does not grow with the length of the journal. Replay can also start at any
+ * position, which is looked up through the per-segment index by {@link #seek(long)}.
+ */
+public class BinaryFileJournal implements EventJournal {
+
+  public static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+
+  private final File directory;
+  private final int segmentSize;
+  private final NavigableSet<Long> segments = new TreeSet<>();
+  private final Object appendLock = new Object();
+  private final Object syncMonitor = new Object();
+
+  // guarded by appendLock
+  private JournalSegment tail;
+  private long recordCount;
+  private JournalSegment readSegment;
+  private int readOffset;
+  private long readPosition;
+
+  // guarded by syncMonitor
+  private long syncedRecords;
+  private long syncCount;
+
+  /**
+   * Instantiates a new binary file journal in the journal directory of the working directory.
+   */
+  public BinaryFileJournal() {
+    this(new File("journal"), DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * Instantiates a new binary file journal.
+   *
+   * @param directory the directory holding the segments
+   * @param segmentSize the size of a segment in bytes
+   */
+  public BinaryFileJournal(File directory, int segmentSize) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new RuntimeException("Cannot create journal directory " + directory);
+    }
+    File[] files = directory.listFiles((dir, name) -> name.endsWith(JournalSegment.DATA_SUFFIX));
+    for (File file : files) {
+      String name = file.getName();
+      segments.add(Long.parseLong(
+          name.substring(0, name.length() - JournalSegment.DATA_SUFFIX.length())));
+    }
+    if (!segments.isEmpty()) {
+      try {
+        tail = JournalSegment.open(directory, segments.last());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      recordCount = tail.getEndRecord();
+      syncedRecords = recordCount;
+    }
+  }
+
+  /**
+   * Write.
+   *
+   * @param domainEvent the domain event
+   */
+  @Override
+  public void write(DomainEvent domainEvent) {
+    long position;
+    synchronized (appendLock) {
+      try {
+        if (tail == null) {
+          tail = newSegment();
+        }
+        if (!tail.append(domainEvent)) {
+          tail.close();
+          tail = newSegment();
+          if (!tail.append(domainEvent)) {
+            throw new RuntimeException("Journal Event does not fit into a segment");
+          }
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      position = ++recordCount;
+    }
+    sync(position);
+  }
+
+  /**
+   * Reset.
+   */
+  @Override
+  public void reset() {
+    synchronized (syncMonitor) {
+      synchronized (appendLock) {
+        try {
+          if (tail != null) {
+            tail.close();
+          }
+          closeReadSegment();
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+        for (long segment : segments) {
+          JournalSegment.dataFile(directory, segment).delete();
+          JournalSegment.indexFile(directory, segment).delete();
+        }
+        segments.clear();
+        tail = null;
+        recordCount = 0;
+        readPosition = 0;
+        syncedRecords = 0;
+      }
+    }
+  }
+
+  /**
+   * Read next domain event.
+   *
+   * @return the domain event or null if all events have been read
+   */
+  @Override
+  public DomainEvent readNext() {
+    synchronized (appendLock) {
+      if (readPosition >= recordCount) {
+        return null;
+      }
+      try {
+        if (readSegment == null || readPosition >= readSegment.getEndRecord()) {
+          closeReadSegment();
+          readSegment = segmentOf(readPosition);
+          readOffset = readSegment.offsetOf(readPosition);
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      DomainEvent domainEvent = readSegment.read(readOffset);
+      readOffset = readSegment.nextOffset(readOffset);
+      readPosition++;
+      domainEvent.setRealTime(false);
+      return domainEvent;
+    }
+  }
+
+  /**
+   * Moves the reader to the given journal position, the next read returns the event at that
+   * position.
+   *
+   * @param position the number of events to skip from the start of the journal
+   */
+  @Override
+  public void seek(long position) {
+    synchronized (appendLock) {
+      if (position < 0 || position > recordCount) {
+        throw new IllegalArgumentException("Invalid journal position " + position);
+      }
+      try {
+        closeReadSegment();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      readPosition = position;
+    }
+  }
+
+  /**
+   * Gets the number of events in the journal.
+   *
+   * @return the size
+   */
+  @Override
+  public long size() {
+    synchronized (appendLock) {
+      return recordCount;
+    }
+  }
+
+  /**
+   * Gets the number of segments of the journal.
+   *
+   * @return the segment count
+   */
+  public int getSegmentCount() {
+    synchronized (appendLock) {
+      return segments.size();
+    }
+  }
+
+  /**
+   * Gets the number of fsyncs, which is lower than the number of writes when writers were
+   * committed together.
+   *
+   * @return the sync count
+   */
+  public long getSyncCount() {
+    synchronized (syncMonitor) {
+      return syncCount;
+    }
+  }
+
+  /*
+   * Group commit: whoever gets the monitor syncs everything appended so far, writers whose events
+   * were covered by that sync return without touching the disk again. Full segments have been
+   * forced when they were closed, so only the tail needs to be forced.
+   */
+  private void sync(long position) {
+    synchronized (syncMonitor) {
+      if (syncedRecords >= position) {
+        return;
+      }
+      JournalSegment segment;
+      long appended;
+      synchronized (appendLock) {
+        segment = tail;
+        appended = recordCount;
+      }
+      try {
+        if (segment != null) {
+          segment.force();
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      syncedRecords = appended;
+      syncCount++;
+    }
+  }
+
+  private JournalSegment newSegment() throws IOException {
+    JournalSegment segment = JournalSegment.create(directory, recordCount, segmentSize);
+    segments.add(recordCount);
+    return segment;
+  }
+
+  private JournalSegment segmentOf(long position) throws IOException {
+    long first = segments.floor(position);
+    if (tail != null && tail.getFirstRecord() == first) {
+      return tail;
+    }
+    return JournalSegment.open(directory, first);
+  }
+
+  private void closeReadSegment() throws IOException {
+    if (readSegment != null && readSegment != tail) {
+      readSegment.close();
+    }
+    readSegment = null;
+  }
+}
@@ -23,17 +23,59 @@
 package com.iluwatar.event.sourcing.processor;
 
 import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
 
 /**
  * This is the implementation of event processor.
  * All events are processed by this class.
- * This processor uses processorJournal to persist and recover events.
+ * This processor uses processorJournal to persist and recover events,
+ * by default a {@link BinaryFileJournal}.
+ * Every snapshotInterval events a {@link Snapshot} of the state is saved, so recovery
+ * starts from the latest snapshot and replays only the events written after it.
  *
  * Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class DomainEventProcessor {
 
-  private final JsonFileJournal processorJournal = new JsonFileJournal();
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+
+  private final EventJournal processorJournal;
+  private final SnapshotStore snapshotStore;
+  private final int snapshotInterval;
+  private int eventsSinceSnapshot;
+
+  /**
+   * Instantiates a new Domain event processor journaling to a {@link BinaryFileJournal}.
+   */
+  public DomainEventProcessor() {
+    this(new BinaryFileJournal(), new SnapshotStore(), DEFAULT_SNAPSHOT_INTERVAL);
+  }
+
+  /**
+   * Instantiates a new Domain event processor which does not take snapshots.
+   *
+   * @param processorJournal the journal events are persisted to and recovered from
+   */
+  public DomainEventProcessor(EventJournal processorJournal) {
+    this(processorJournal, null, 0);
+  }
+
+  /**
+   * Instantiates a new Domain event processor.
+   *
+   * @param processorJournal the journal events are persisted to and recovered from
+   * @param snapshotStore the store snapshots are saved to and loaded from
+   * @param snapshotInterval the number of events between two snapshots
+   */
+  public DomainEventProcessor(EventJournal processorJournal, SnapshotStore snapshotStore,
+      int snapshotInterval) {
+    if (snapshotStore != null && snapshotInterval <= 0) {
+      throw new IllegalArgumentException("Invalid snapshot interval " + snapshotInterval);
+    }
+    this.processorJournal = processorJournal;
+    this.snapshotStore = snapshotStore;
+    this.snapshotInterval = snapshotInterval;
+  }
 
   /**
    * Process.
@@ -43,6 +85,10 @@ public class DomainEventProcessor {
   public void process(DomainEvent domainEvent) {
     domainEvent.process();
     processorJournal.write(domainEvent);
+    if (snapshotStore != null && ++eventsSinceSnapshot >= snapshotInterval) {
+      eventsSinceSnapshot = 0;
+      snapshotStore.saveAsync(new Snapshot(processorJournal.size(), AccountAggregate.snapshot()));
+    }
   }
 
   /**
@@ -50,12 +96,23 @@ public class DomainEventProcessor {
    */
   public void reset() {
     processorJournal.reset();
+    if (snapshotStore != null) {
+      snapshotStore.reset();
+    }
+    eventsSinceSnapshot = 0;
   }
 
   /**
    * Recover.
    */
   public void recover() {
+    if (snapshotStore != null) {
+      Snapshot snapshot = snapshotStore.loadLatest(processorJournal.size());
+      if (snapshot != null) {
+        AccountAggregate.restoreState(snapshot.getAccounts());
+        processorJournal.seek(snapshot.getPosition());
+      }
+    }
     DomainEvent domainEvent;
     while (true) {
       domainEvent = processorJournal.readNext();
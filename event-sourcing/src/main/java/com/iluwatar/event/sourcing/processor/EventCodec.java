@@ -0,0 +1,165 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This is the binary encoding of the domain events.
+ * Every event type has a one byte tag which is looked up by the event class when writing
+ * and by the tag when reading, so neither direction needs an instanceof chain.
+ * The tag is followed by the sequence id, the created time and the fields of the event.
+ */
+enum EventCodec {
+
+  ACCOUNT_CREATE(AccountCreateEvent.class) {
+    @Override
+    void encodeFields(DomainEvent domainEvent, ByteBuffer buffer) {
+      AccountCreateEvent event = (AccountCreateEvent) domainEvent;
+      buffer.putInt(event.getAccountNo());
+      putString(buffer, event.getOwner());
+    }
+
+    @Override
+    DomainEvent decodeFields(long sequenceId, long createdTime, ByteBuffer buffer) {
+      return new AccountCreateEvent(sequenceId, createdTime, buffer.getInt(), getString(buffer));
+    }
+  },
+
+  MONEY_DEPOSIT(MoneyDepositEvent.class) {
+    @Override
+    void encodeFields(DomainEvent domainEvent, ByteBuffer buffer) {
+      MoneyDepositEvent event = (MoneyDepositEvent) domainEvent;
+      buffer.putInt(event.getAccountNo());
+      putDecimal(buffer, event.getMoney());
+    }
+
+    @Override
+    DomainEvent decodeFields(long sequenceId, long createdTime, ByteBuffer buffer) {
+      return new MoneyDepositEvent(sequenceId, createdTime, buffer.getInt(), getDecimal(buffer));
+    }
+  },
+
+  MONEY_TRANSFER(MoneyTransferEvent.class) {
+    @Override
+    void encodeFields(DomainEvent domainEvent, ByteBuffer buffer) {
+      MoneyTransferEvent event = (MoneyTransferEvent) domainEvent;
+      putDecimal(buffer, event.getMoney());
+      buffer.putInt(event.getAccountNoFrom());
+      buffer.putInt(event.getAccountNoTo());
+    }
+
+    @Override
+    DomainEvent decodeFields(long sequenceId, long createdTime, ByteBuffer buffer) {
+      return new MoneyTransferEvent(sequenceId, createdTime, getDecimal(buffer), buffer.getInt(),
+          buffer.getInt());
+    }
+  };
+
+  private static final Map<Class<? extends DomainEvent>, EventCodec> BY_CLASS = new HashMap<>();
+
+  static {
+    for (EventCodec codec : values()) {
+      BY_CLASS.put(codec.eventClass, codec);
+    }
+  }
+
+  private final Class<? extends DomainEvent> eventClass;
+
+  EventCodec(Class<? extends DomainEvent> eventClass) {
+    this.eventClass = eventClass;
+  }
+
+  /**
+   * Encodes the event at the position of the buffer.
+   *
+   * @param domainEvent the domain event
+   * @param buffer the buffer with enough space for the event
+   */
+  static void encode(DomainEvent domainEvent, ByteBuffer buffer) {
+    EventCodec codec = BY_CLASS.get(domainEvent.getClass());
+    if (codec == null) {
+      throw new RuntimeException("Journal Event not recegnized");
+    }
+    buffer.put((byte) codec.ordinal());
+    buffer.putLong(domainEvent.getSequenceId());
+    buffer.putLong(domainEvent.getCreatedTime());
+    codec.encodeFields(domainEvent, buffer);
+  }
+
+  /**
+   * Decodes the event at the position of the buffer.
+   *
+   * @param buffer the buffer
+   * @return the domain event
+   */
+  static DomainEvent decode(ByteBuffer buffer) {
+    int tag = buffer.get();
+    if (tag < 0 || tag >= values().length) {
+      throw new RuntimeException("Journal Event not recegnized");
+    }
+    return values()[tag].decodeFields(buffer.getLong(), buffer.getLong(), buffer);
+  }
+
+  abstract void encodeFields(DomainEvent domainEvent, ByteBuffer buffer);
+
+  abstract DomainEvent decodeFields(long sequenceId, long createdTime, ByteBuffer buffer);
+
+  private static void putString(ByteBuffer buffer, String value) {
+    putBytes(buffer, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    return new String(getBytes(buffer), StandardCharsets.UTF_8);
+  }
+
+  private static void putDecimal(ByteBuffer buffer, BigDecimal value) {
+    buffer.putInt(value.scale());
+    putBytes(buffer, value.unscaledValue().toByteArray());
+  }
+
+  private static BigDecimal getDecimal(ByteBuffer buffer) {
+    int scale = buffer.getInt();
+    return new BigDecimal(new BigInteger(getBytes(buffer)), scale);
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static byte[] getBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
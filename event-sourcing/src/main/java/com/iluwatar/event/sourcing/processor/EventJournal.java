@@ -0,0 +1,67 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+
+/**
+ * This is the interface of event journals.
+ * A journal appends the processed events and hands them back one by one,
+ * oldest first, when the state is recovered.
+ */
+public interface EventJournal {
+
+  /**
+   * Write.
+   *
+   * @param domainEvent the domain event
+   */
+  void write(DomainEvent domainEvent);
+
+  /**
+   * Reset.
+   */
+  void reset();
+
+  /**
+   * Read next domain event.
+   *
+   * @return the domain event or null if all events have been read
+   */
+  DomainEvent readNext();
+
+  /**
+   * Moves the reader to the given journal position, the next read returns the event at that
+   * position.
+   *
+   * @param position the number of events to skip from the start of the journal
+   */
+  void seek(long position);
+
+  /**
+   * Gets the number of events in the journal, which is the position after the last event.
+   *
+   * @return the size
+   */
+  long size();
+}
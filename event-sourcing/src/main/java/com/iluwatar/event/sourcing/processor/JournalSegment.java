@@ -0,0 +1,285 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * This is one fixed-size segment of the {@link BinaryFileJournal}.
+ * The events are appended to a memory-mapped data file as records of
+ * <pre>
+ *   int length | int crc32 | length bytes of encoded event
+ * </pre>
+ * The data file is preallocated and zero filled, so a zero length marks the end of the records.
+ * The offset of every {@value #INDEX_INTERVAL}th record is kept in a small index file next to the
+ * data file, which lets a reader find a record without scanning the segment from its start.
+ * Both files are named after the journal position of the first record of the segment.
+ */
+class JournalSegment {
+
+  static final String DATA_SUFFIX = ".seg";
+  static final String INDEX_SUFFIX = ".idx";
+  static final int INDEX_INTERVAL = 64;
+
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  private final long firstRecord;
+  private final MappedByteBuffer data;
+  private final FileChannel indexChannel;
+  private int[] index = new int[16];
+  private int indexSize;
+  private int recordCount;
+  private int writePosition;
+  private boolean closed;
+
+  private JournalSegment(long firstRecord, File dataFile, File indexFile, int size)
+      throws IOException {
+    this.firstRecord = firstRecord;
+    try (RandomAccessFile file = new RandomAccessFile(dataFile, "rw")) {
+      if (file.length() < size) {
+        file.setLength(size);
+      }
+      this.data = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+    }
+    this.indexChannel = new RandomAccessFile(indexFile, "rw").getChannel();
+  }
+
+  /**
+   * Creates a new empty segment.
+   *
+   * @param directory the journal directory
+   * @param firstRecord the journal position of the first record
+   * @param size the size of the data file in bytes
+   * @return the segment
+   * @throws IOException if any I/O error occurs
+   */
+  static JournalSegment create(File directory, long firstRecord, int size) throws IOException {
+    return new JournalSegment(firstRecord, dataFile(directory, firstRecord),
+        indexFile(directory, firstRecord), size);
+  }
+
+  /**
+   * Opens an existing segment. Records after the last valid one, e.g. a record that was only
+   * partially written when the process died, are ignored and will be overwritten.
+   *
+   * @param directory the journal directory
+   * @param firstRecord the journal position of the first record
+   * @return the segment
+   * @throws IOException if any I/O error occurs
+   */
+  static JournalSegment open(File directory, long firstRecord) throws IOException {
+    JournalSegment segment = new JournalSegment(firstRecord, dataFile(directory, firstRecord),
+        indexFile(directory, firstRecord), 0);
+    segment.recover();
+    return segment;
+  }
+
+  static File dataFile(File directory, long firstRecord) {
+    return new File(directory, String.format("%020d", firstRecord) + DATA_SUFFIX);
+  }
+
+  static File indexFile(File directory, long firstRecord) {
+    return new File(directory, String.format("%020d", firstRecord) + INDEX_SUFFIX);
+  }
+
+  long getFirstRecord() {
+    return firstRecord;
+  }
+
+  /**
+   * Gets the journal position after the last record of this segment.
+   *
+   * @return the end position
+   */
+  long getEndRecord() {
+    return firstRecord + recordCount;
+  }
+
+  /**
+   * Appends the event.
+   *
+   * @param domainEvent the domain event
+   * @return false if the segment has no space left for the event
+   * @throws IOException if the index could not be written
+   */
+  boolean append(DomainEvent domainEvent) throws IOException {
+    int start = writePosition;
+    ByteBuffer record = data.duplicate();
+    try {
+      record.position(start + HEADER_SIZE);
+      EventCodec.encode(domainEvent, record);
+    } catch (BufferOverflowException | IllegalArgumentException e) {
+      return false;
+    }
+    int length = record.position() - start - HEADER_SIZE;
+    data.putInt(start + Integer.BYTES, checksum(start, length));
+    // the length is written last, a record with a length is complete
+    data.putInt(start, length);
+    writePosition = record.position();
+    if (recordCount % INDEX_INTERVAL == 0) {
+      addIndexEntry(start);
+    }
+    recordCount++;
+    return true;
+  }
+
+  /**
+   * Finds the offset of the record at the given journal position.
+   *
+   * @param position the journal position, must be in this segment
+   * @return the offset of the record in the data file
+   */
+  int offsetOf(long position) {
+    int record = (int) (position - firstRecord);
+    int entry = Math.min(record / INDEX_INTERVAL, indexSize - 1);
+    int offset = index[entry];
+    for (int i = entry * INDEX_INTERVAL; i < record; i++) {
+      offset = nextOffset(offset);
+    }
+    return offset;
+  }
+
+  /**
+   * Reads the event of the record at the given offset.
+   *
+   * @param offset the offset of the record
+   * @return the domain event
+   */
+  DomainEvent read(int offset) {
+    ByteBuffer record = data.duplicate();
+    record.position(offset + HEADER_SIZE);
+    return EventCodec.decode(record);
+  }
+
+  /**
+   * Gets the offset of the record following the record at the given offset.
+   *
+   * @param offset the offset of a record
+   * @return the offset of the next record
+   */
+  int nextOffset(int offset) {
+    return offset + HEADER_SIZE + data.getInt(offset);
+  }
+
+  /**
+   * Writes the appended records and index entries through to the disk.
+   *
+   * @throws IOException if any I/O error occurs
+   */
+  synchronized void force() throws IOException {
+    if (closed) {
+      return;
+    }
+    data.force();
+    indexChannel.force(false);
+  }
+
+  /**
+   * Forces and closes the segment. The mapping is released by the garbage collector.
+   *
+   * @throws IOException if any I/O error occurs
+   */
+  synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    force();
+    closed = true;
+    indexChannel.close();
+  }
+
+  private void addIndexEntry(int offset) throws IOException {
+    if (indexSize == index.length) {
+      index = Arrays.copyOf(index, indexSize * 2);
+    }
+    ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES);
+    entry.putInt(0, offset);
+    indexChannel.write(entry, (long) indexSize * Integer.BYTES);
+    index[indexSize++] = offset;
+  }
+
+  /*
+   * Loads the index and scans the records after its last valid entry. The index may hold entries
+   * for records which never reached the disk, those are dropped.
+   */
+  private void recover() throws IOException {
+    ByteBuffer entries = ByteBuffer.allocate((int) indexChannel.size());
+    indexChannel.read(entries, 0);
+    entries.flip();
+    while (entries.remaining() >= Integer.BYTES) {
+      int offset = entries.getInt();
+      if (!isValid(offset)) {
+        break;
+      }
+      if (indexSize == index.length) {
+        index = Arrays.copyOf(index, indexSize * 2);
+      }
+      index[indexSize++] = offset;
+    }
+    if (indexSize == 0) {
+      if (isValid(0)) {
+        addIndexEntry(0);
+      } else {
+        return;
+      }
+    }
+    int offset = index[indexSize - 1];
+    int record = (indexSize - 1) * INDEX_INTERVAL;
+    while (isValid(offset)) {
+      if (record % INDEX_INTERVAL == 0 && record / INDEX_INTERVAL >= indexSize) {
+        addIndexEntry(offset);
+      }
+      offset = nextOffset(offset);
+      record++;
+    }
+    recordCount = record;
+    writePosition = offset;
+  }
+
+  private boolean isValid(int offset) {
+    if (offset < 0 || offset + HEADER_SIZE > data.capacity()) {
+      return false;
+    }
+    int length = data.getInt(offset);
+    return length > 0 && length <= data.capacity() - offset - HEADER_SIZE
+        && data.getInt(offset + Integer.BYTES) == checksum(offset, length);
+  }
+
+  private int checksum(int offset, int length) {
+    ByteBuffer body = data.duplicate();
+    body.position(offset + HEADER_SIZE);
+    body.limit(offset + HEADER_SIZE + length);
+    CRC32 crc = new CRC32();
+    crc.update(body);
+    return (int) crc.getValue();
+  }
+}
@@ -48,7 +48,7 @@ import java.util.List;
  *
  * Created by Serdar Hamzaogullari on 06.08.2017.
  */
-public class JsonFileJournal {
+public class JsonFileJournal implements EventJournal {
 
   private final File aFile;
   private final List<String> events = new ArrayList<>();
@@ -80,6 +80,7 @@ public class JsonFileJournal {
    *
    * @param domainEvent the domain event
    */
+  @Override
   public void write(DomainEvent domainEvent) {
     Gson gson = new Gson();
     JsonElement jsonElement;
@@ -97,6 +98,7 @@ public class JsonFileJournal {
         new OutputStreamWriter(new FileOutputStream(aFile, true), "UTF-8"))) {
       String eventString = jsonElement.toString();
       output.write(eventString + "\r\n");
+      events.add(eventString);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -106,8 +108,11 @@ public class JsonFileJournal {
   /**
    * Reset.
    */
+  @Override
   public void reset() {
     aFile.delete();
+    events.clear();
+    index = 0;
   }
 
 
@@ -116,6 +121,7 @@ public class JsonFileJournal {
    *
    * @return the domain event
    */
+  @Override
   public DomainEvent readNext() {
     if (index >= events.size()) {
       return null;
@@ -141,4 +147,29 @@ public class JsonFileJournal {
     domainEvent.setRealTime(false);
     return domainEvent;
   }
+
+
+  /**
+   * Seek.
+   *
+   * @param position the number of events to skip from the start of the journal
+   */
+  @Override
+  public void seek(long position) {
+    if (position < 0 || position > events.size()) {
+      throw new IllegalArgumentException("Invalid journal position " + position);
+    }
+    index = (int) position;
+  }
+
+
+  /**
+   * Size.
+   *
+   * @return the number of events in the journal
+   */
+  @Override
+  public long size() {
+    return events.size();
+  }
 }
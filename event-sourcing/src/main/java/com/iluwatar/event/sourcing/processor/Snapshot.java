@@ -0,0 +1,66 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import java.util.Map;
+
+/**
+ * This is a snapshot of the account state.
+ * It records the journal position it was taken at, which is the number of events
+ * the state contains, so a recovery only needs to replay the events after it.
+ */
+public class Snapshot {
+
+  private final long position;
+  private final Map<Integer, Account> accounts;
+
+  /**
+   * Instantiates a new Snapshot.
+   *
+   * @param position the journal position after the last event contained in the state
+   * @param accounts the accounts map
+   */
+  public Snapshot(long position, Map<Integer, Account> accounts) {
+    this.position = position;
+    this.accounts = accounts;
+  }
+
+  /**
+   * Gets the journal position.
+   *
+   * @return the position
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * Gets accounts.
+   *
+   * @return the accounts map
+   */
+  public Map<Integer, Account> getAccounts() {
+    return accounts;
+  }
+}
@@ -0,0 +1,206 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This is the store of state snapshots.
+ * Snapshots are written by a background thread so that taking one never waits for the disk.
+ * If snapshots are taken faster than they can be written, only the latest one is written.
+ *
+ * <p>A snapshot is written to a temporary file and renamed when complete, so a crash never
+ * leaves a partial snapshot behind. Older snapshots are deleted once a newer one is written.
+ */
+public class SnapshotStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotStore.class);
+
+  private static final String SNAPSHOT_SUFFIX = ".snap";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final File directory;
+  private final AtomicReference<Snapshot> pending = new AtomicReference<>();
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "snapshot-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Instantiates a new Snapshot store in the snapshots directory of the working directory.
+   */
+  public SnapshotStore() {
+    this(new File("snapshots"));
+  }
+
+  /**
+   * Instantiates a new Snapshot store.
+   *
+   * @param directory the directory holding the snapshots
+   */
+  public SnapshotStore(File directory) {
+    this.directory = directory;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new RuntimeException("Cannot create snapshot directory " + directory);
+    }
+  }
+
+  /**
+   * Save the snapshot in the background.
+   *
+   * @param snapshot the snapshot
+   */
+  public void saveAsync(Snapshot snapshot) {
+    if (pending.getAndSet(snapshot) == null) {
+      writer.execute(this::writePending);
+    }
+  }
+
+  /**
+   * Waits until the snapshots saved so far have been written.
+   */
+  public void awaitWrites() {
+    try {
+      writer.submit(() -> { }).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Load the latest snapshot that is not ahead of the journal.
+   *
+   * @param maxPosition the size of the journal
+   * @return the snapshot or null if there is none
+   */
+  public Snapshot loadLatest(long maxPosition) {
+    File[] files = directory.listFiles((dir, name) -> name.endsWith(SNAPSHOT_SUFFIX));
+    Arrays.sort(files, Comparator.comparing(File::getName).reversed());
+    for (File file : files) {
+      if (positionOf(file) > maxPosition) {
+        continue;
+      }
+      try {
+        return read(file);
+      } catch (IOException e) {
+        LOGGER.error("Skipping unreadable snapshot {}", file, e);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reset.
+   */
+  public void reset() {
+    pending.set(null);
+    awaitWrites();
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+  }
+
+  private void writePending() {
+    Snapshot snapshot = pending.getAndSet(null);
+    if (snapshot == null) {
+      return;
+    }
+    String name = String.format("%020d", snapshot.getPosition());
+    File temp = new File(directory, name + TEMP_SUFFIX);
+    File file = new File(directory, name + SNAPSHOT_SUFFIX);
+    try {
+      write(snapshot, temp);
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOGGER.error("Writing snapshot at position {} failed", snapshot.getPosition(), e);
+      temp.delete();
+      return;
+    }
+    for (File older : directory.listFiles((dir, n) -> n.endsWith(SNAPSHOT_SUFFIX))) {
+      if (positionOf(older) < snapshot.getPosition()) {
+        older.delete();
+      }
+    }
+    LOGGER.info("Snapshot of {} accounts written at position {}", snapshot.getAccounts().size(),
+        snapshot.getPosition());
+  }
+
+  private static void write(Snapshot snapshot, File file) throws IOException {
+    try (FileOutputStream stream = new FileOutputStream(file);
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream))) {
+      output.writeLong(snapshot.getPosition());
+      output.writeInt(snapshot.getAccounts().size());
+      for (Account account : snapshot.getAccounts().values()) {
+        output.writeInt(account.getAccountNo());
+        output.writeUTF(account.getOwner());
+        output.writeUTF(account.getMoney().toString());
+      }
+      output.flush();
+      stream.getFD().sync();
+    }
+  }
+
+  private static Snapshot read(File file) throws IOException {
+    try (DataInputStream input = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(file)))) {
+      long position = input.readLong();
+      int count = input.readInt();
+      Map<Integer, Account> accounts = new HashMap<>();
+      for (int i = 0; i < count; i++) {
+        Account account = new Account(input.readInt(), input.readUTF());
+        account.setMoney(new BigDecimal(input.readUTF()));
+        accounts.put(account.getAccountNo(), account);
+      }
+      return new Snapshot(position, accounts);
+    }
+  }
+
+  private static long positionOf(File file) {
+    String name = file.getName();
+    return Long.parseLong(name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()));
+  }
+}
@@ -29,6 +29,8 @@ import java.util.Map;
 /**
  * This is the static accounts map holder class.
  * This class holds the state of the accounts.
+ * Accounts are never changed after they are put, events put changed copies instead,
+ * so a snapshot of the state only needs to copy the map, not the accounts.
  *
  * Created by Serdar Hamzaogullari on 06.08.2017.
  */
@@ -62,6 +64,24 @@ public class AccountAggregate {
     return account.copy();
   }
 
+  /**
+   * Snapshot of the state.
+   *
+   * @return a copy of the accounts map
+   */
+  public static Map<Integer, Account> snapshot() {
+    return new HashMap<>(accounts);
+  }
+
+  /**
+   * Restore state from a snapshot.
+   *
+   * @param snapshot the accounts map of a snapshot
+   */
+  public static void restoreState(Map<Integer, Account> snapshot) {
+    accounts = new HashMap<>(snapshot);
+  }
+
   /**
    * Reset state.
    */
@@ -0,0 +1,182 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BinaryFileJournal}
+ */
+public class BinaryFileJournalTest {
+
+  private File directory;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("journal").toFile();
+  }
+
+  /**
+   * Removes the journal files.
+   */
+  @AfterEach
+  public void tearDown() {
+    for (File file : directory.listFiles()) {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void testRoundTrip() {
+    BinaryFileJournal journal = new BinaryFileJournal(directory, 4096);
+    journal.write(new AccountCreateEvent(0, 10, 1, "Daenerys Targaryen"));
+    journal.write(new MoneyDepositEvent(1, 11, 1, new BigDecimal("100000.50")));
+    journal.write(new MoneyTransferEvent(2, 12, new BigDecimal("-0.001"), 1, 2));
+
+    AccountCreateEvent create = (AccountCreateEvent) journal.readNext();
+    assertEquals(0, create.getSequenceId());
+    assertEquals(10, create.getCreatedTime());
+    assertEquals("Daenerys Targaryen", create.getOwner());
+    assertFalse(create.isRealTime());
+
+    MoneyDepositEvent deposit = (MoneyDepositEvent) journal.readNext();
+    assertEquals(new BigDecimal("100000.50"), deposit.getMoney());
+
+    MoneyTransferEvent transfer = (MoneyTransferEvent) journal.readNext();
+    assertEquals(new BigDecimal("-0.001"), transfer.getMoney());
+    assertEquals(1, transfer.getAccountNoFrom());
+    assertEquals(2, transfer.getAccountNoTo());
+    assertNull(journal.readNext());
+  }
+
+  @Test
+  public void testSegmentsAreReplayedAfterReopening() {
+    BinaryFileJournal journal = new BinaryFileJournal(directory, 512);
+    for (int i = 0; i < 500; i++) {
+      journal.write(new MoneyDepositEvent(i, i, 1, BigDecimal.valueOf(i)));
+    }
+    assertTrue(journal.getSegmentCount() > 1);
+
+    BinaryFileJournal reopened = new BinaryFileJournal(directory, 512);
+    assertEquals(500, reopened.size());
+    for (int i = 0; i < 500; i++) {
+      assertEquals(i, reopened.readNext().getSequenceId());
+    }
+    assertNull(reopened.readNext());
+
+    reopened.seek(321);
+    assertEquals(321, reopened.readNext().getSequenceId());
+    reopened.write(new MoneyDepositEvent(500, 500, 1, BigDecimal.ONE));
+    reopened.seek(499);
+    assertEquals(499, reopened.readNext().getSequenceId());
+    assertEquals(500, reopened.readNext().getSequenceId());
+  }
+
+  @Test
+  public void testTornRecordIsDiscarded() throws Exception {
+    BinaryFileJournal journal = new BinaryFileJournal(directory, 4096);
+    for (int i = 0; i < 10; i++) {
+      journal.write(new MoneyDepositEvent(i, i, 1, BigDecimal.TEN));
+    }
+    try (RandomAccessFile file = new RandomAccessFile(JournalSegment.dataFile(directory, 0), "rw")) {
+      int offset = 0;
+      for (int i = 0; i < 9; i++) {
+        file.seek(offset);
+        offset += 2 * Integer.BYTES + file.readInt();
+      }
+      file.seek(offset + 2 * Integer.BYTES + 1);
+      file.write(0xFF);
+    }
+
+    BinaryFileJournal reopened = new BinaryFileJournal(directory, 4096);
+    assertEquals(9, reopened.size());
+    reopened.write(new MoneyDepositEvent(42, 42, 1, BigDecimal.TEN));
+    reopened = new BinaryFileJournal(directory, 4096);
+    reopened.seek(9);
+    assertEquals(42, reopened.readNext().getSequenceId());
+  }
+
+  @Test
+  public void testConcurrentWritersAreCommittedTogether() throws Exception {
+    BinaryFileJournal journal = new BinaryFileJournal(directory, 64 * 1024);
+    List<Thread> writers = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      int account = t;
+      Thread writer = new Thread(() -> {
+        for (int i = 0; i < 100; i++) {
+          journal.write(new MoneyDepositEvent(i, i, account, BigDecimal.ONE));
+        }
+      });
+      writers.add(writer);
+      writer.start();
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    assertEquals(800, journal.size());
+    assertTrue(journal.getSyncCount() <= 800);
+
+    BinaryFileJournal reopened = new BinaryFileJournal(directory, 64 * 1024);
+    int count = 0;
+    DomainEvent domainEvent;
+    while ((domainEvent = reopened.readNext()) != null) {
+      assertTrue(domainEvent instanceof MoneyDepositEvent);
+      count++;
+    }
+    assertEquals(800, count);
+  }
+
+  @Test
+  public void testReset() {
+    BinaryFileJournal journal = new BinaryFileJournal(directory, 512);
+    for (int i = 0; i < 50; i++) {
+      journal.write(new AccountCreateEvent(i, i, i, "owner"));
+    }
+    journal.reset();
+    assertEquals(0, journal.size());
+    assertNull(journal.readNext());
+    assertEquals(0, directory.listFiles().length);
+
+    journal.write(new AccountCreateEvent(7, 7, 7, "owner"));
+    assertEquals(7, new BinaryFileJournal(directory, 512).readNext().getSequenceId());
+  }
+}
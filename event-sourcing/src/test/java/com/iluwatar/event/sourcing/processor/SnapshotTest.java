@@ -0,0 +1,154 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for recovering the state from a {@link Snapshot}
+ */
+public class SnapshotTest {
+
+  private File journalDirectory;
+  private File snapshotDirectory;
+
+  /**
+   * Starts every test with empty directories and an empty state.
+   */
+  @BeforeEach
+  public void setUp() throws Exception {
+    journalDirectory = Files.createTempDirectory("journal").toFile();
+    snapshotDirectory = Files.createTempDirectory("snapshots").toFile();
+    AccountAggregate.resetState();
+  }
+
+  /**
+   * Removes the journal and snapshot files and the state.
+   */
+  @AfterEach
+  public void tearDown() {
+    AccountAggregate.resetState();
+    for (File directory : new File[] {journalDirectory, snapshotDirectory}) {
+      for (File file : directory.listFiles()) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  @Test
+  public void testRecoveryReplaysOnlyTheTail() {
+    SnapshotStore snapshotStore = new SnapshotStore(snapshotDirectory);
+    DomainEventProcessor processor = new DomainEventProcessor(
+        new BinaryFileJournal(journalDirectory, 4096), snapshotStore, 10);
+    processor.process(new AccountCreateEvent(0, 0, 1, "Daenerys Targaryen"));
+    processor.process(new AccountCreateEvent(1, 0, 2, "Jon Snow"));
+    for (int i = 2; i < 100; i++) {
+      processor.process(new MoneyDepositEvent(i, 0, 1, BigDecimal.TEN));
+    }
+    processor.process(new MoneyTransferEvent(100, 0, new BigDecimal("5"), 1, 2));
+    processor.process(new MoneyDepositEvent(101, 0, 2, BigDecimal.ONE));
+    processor.process(new MoneyDepositEvent(102, 0, 2, BigDecimal.ONE));
+    snapshotStore.awaitWrites();
+    assertEquals(100, snapshotStore.loadLatest(Long.MAX_VALUE).getPosition());
+
+    AccountAggregate.resetState();
+    CountingJournal journal = new CountingJournal(new BinaryFileJournal(journalDirectory, 4096));
+    new DomainEventProcessor(journal, new SnapshotStore(snapshotDirectory), 10).recover();
+
+    assertEquals(3, journal.replayed);
+    assertEquals(new BigDecimal("975"), AccountAggregate.getAccount(1).getMoney());
+    assertEquals(new BigDecimal("7"), AccountAggregate.getAccount(2).getMoney());
+  }
+
+  @Test
+  public void testSnapshotAheadOfJournalIsIgnored() {
+    SnapshotStore snapshotStore = new SnapshotStore(snapshotDirectory);
+    snapshotStore.saveAsync(new Snapshot(50, Collections.singletonMap(1, new Account(1, "owner"))));
+    snapshotStore.awaitWrites();
+
+    BinaryFileJournal journal = new BinaryFileJournal(journalDirectory, 4096);
+    journal.write(new AccountCreateEvent(0, 0, 2, "Jon Snow"));
+    new DomainEventProcessor(journal, snapshotStore, 10).recover();
+
+    assertNull(AccountAggregate.getAccount(1));
+    assertEquals("Jon Snow", AccountAggregate.getAccount(2).getOwner());
+  }
+
+  /**
+   * Counts the events handed out for replay.
+   */
+  private static class CountingJournal implements EventJournal {
+    private final EventJournal journal;
+    private int replayed;
+
+    CountingJournal(EventJournal journal) {
+      this.journal = journal;
+    }
+
+    @Override
+    public void write(DomainEvent domainEvent) {
+      journal.write(domainEvent);
+    }
+
+    @Override
+    public void reset() {
+      journal.reset();
+    }
+
+    @Override
+    public DomainEvent readNext() {
+      DomainEvent domainEvent = journal.readNext();
+      if (domainEvent != null) {
+        replayed++;
+      }
+      return domainEvent;
+    }
+
+    @Override
+    public void seek(long position) {
+      journal.seek(position);
+    }
+
+    @Override
+    public long size() {
+      return journal.size();
+    }
+  }
+}
@@ -26,8 +26,8 @@
  * <p>
  * Implementation is based on GuardedQueue, which has two methods: get and put,
  * the condition is that we cannot get from empty queue so when thread attempt
- * to break the condition we invoke Object's wait method on him and when other thread put an element
- * to the queue he notify the waiting one that now he can get from queue.
+ * to break the condition we make him await the not-empty condition of the queue's lock and when other thread
+ * put an element to the queue he signals the waiting one that now he can get from queue.
  */
 package com.iluwatar.guarded.suspension;
 
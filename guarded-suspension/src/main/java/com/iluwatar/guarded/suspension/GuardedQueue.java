@@ -25,46 +25,265 @@ package com.iluwatar.guarded.suspension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Guarded Queue is an implementation for Guarded Suspension Pattern
  * Guarded suspension pattern is used to handle a situation when you want to execute a method
  * on an object which is not in a proper state.
+ * <p>
+ * Takers wait on a not-empty condition and putters on a not-full condition of one lock, so a put
+ * only ever wakes a taker and a take only ever wakes a putter. With a fair lock, waiting threads
+ * are served in arrival order and none of them starves. The queue counts how often threads waited,
+ * woke up, woke up without being able to proceed (spurious wakeups) and gave up after a timeout.
+ * </p>
  * @see <a href="http://java-design-patterns.com/patterns/guarded-suspension/">http://java-design-patterns.com/patterns/guarded-suspension/</a>
  */
 public class GuardedQueue {
   private static final Logger LOGGER = LoggerFactory.getLogger(GuardedQueue.class);
   private final Queue<Integer> sourceList;
+  private final int capacity;
+  private final ReentrantLock lock;
+  private final Condition notEmpty;
+  private final Condition notFull;
+
+  private final LongAdder waits = new LongAdder();
+  private final LongAdder wakeups = new LongAdder();
+  private final LongAdder spuriousWakeups = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
 
   public GuardedQueue() {
-    this.sourceList = new LinkedList<>();
+    this(Integer.MAX_VALUE, false);
   }
 
   /**
-   * @return last element of a queue if queue is not empty
+   * @param capacity maximum number of elements in the queue
+   * @param fair whether waiting threads are served in arrival order
    */
-  public synchronized Integer get() {
-    while (sourceList.isEmpty()) {
-      try {
-        LOGGER.info("waiting");
-        wait();
-      } catch (InterruptedException e) {
-        e.printStackTrace();
+  public GuardedQueue(int capacity, boolean fair) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.sourceList = new ArrayDeque<>();
+    this.capacity = capacity;
+    this.lock = new ReentrantLock(fair);
+    this.notEmpty = lock.newCondition();
+    this.notFull = lock.newCondition();
+  }
+
+  /**
+   * Removes the head of the queue, waiting until there is one. An interrupt does not end the wait,
+   * it is kept in the interrupt status of the thread.
+   * @return first element of the queue
+   */
+  public Integer get() {
+    boolean interrupted = false;
+    lock.lock();
+    try {
+      while (sourceList.isEmpty()) {
+        LOGGER.debug("waiting");
+        try {
+          await(notEmpty);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+        countWakeup(sourceList.isEmpty());
+      }
+      LOGGER.debug("getting");
+      return dequeue();
+    } finally {
+      lock.unlock();
+      if (interrupted) {
+        Thread.currentThread().interrupt();
       }
     }
-    LOGGER.info("getting");
-    return sourceList.peek();
   }
 
   /**
+   * Adds an element to the tail of the queue, waiting until there is room. An interrupt does not
+   * end the wait, it is kept in the interrupt status of the thread.
    * @param e number which we want to put to our queue
    */
-  public synchronized void put(Integer e) {
-    LOGGER.info("putting");
+  public void put(Integer e) {
+    boolean interrupted = false;
+    lock.lock();
+    try {
+      while (sourceList.size() >= capacity) {
+        try {
+          await(notFull);
+        } catch (InterruptedException ex) {
+          interrupted = true;
+        }
+        countWakeup(sourceList.size() >= capacity);
+      }
+      LOGGER.debug("putting");
+      enqueue(e);
+    } finally {
+      lock.unlock();
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Removes the head of the queue, waiting up to the given time for one to become available.
+   * @return first element of the queue, or null if the time elapsed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public Integer poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (sourceList.isEmpty()) {
+        if (nanos <= 0) {
+          timeouts.increment();
+          return null;
+        }
+        waits.increment();
+        nanos = notEmpty.awaitNanos(nanos);
+        if (nanos > 0) {
+          countWakeup(sourceList.isEmpty());
+        }
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds an element to the tail of the queue, waiting up to the given time for room.
+   * @return false if the time elapsed before the element could be added
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean offer(Integer e, long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (sourceList.size() >= capacity) {
+        if (nanos <= 0) {
+          timeouts.increment();
+          return false;
+        }
+        waits.increment();
+        nanos = notFull.awaitNanos(nanos);
+        if (nanos > 0) {
+          countWakeup(sourceList.size() >= capacity);
+        }
+      }
+      enqueue(e);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds all elements in order, waiting for room as needed. Elements are added in as few lock
+   * acquisitions as the capacity allows.
+   * @throws InterruptedException if interrupted while waiting, elements added so far stay queued
+   */
+  public void putAll(Collection<Integer> elements) throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      for (Integer e : elements) {
+        while (sourceList.size() >= capacity) {
+          await(notFull);
+          countWakeup(sourceList.size() >= capacity);
+        }
+        enqueue(e);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes up to <code>maxElements</code> elements without waiting.
+   * @return the number of elements moved to the given collection
+   */
+  public int drainTo(Collection<? super Integer> target, int maxElements) {
+    lock.lock();
+    try {
+      int drained = 0;
+      while (drained < maxElements && !sourceList.isEmpty()) {
+        target.add(dequeue());
+        drained++;
+      }
+      return drained;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return number of elements in the queue
+   */
+  public int size() {
+    lock.lock();
+    try {
+      return sourceList.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return number of times a thread started waiting
+   */
+  public long getWaitCount() {
+    return waits.sum();
+  }
+
+  /**
+   * @return number of times a waiting thread woke up, except for timeouts
+   */
+  public long getWakeupCount() {
+    return wakeups.sum();
+  }
+
+  /**
+   * @return number of wakeups after which the thread still could not proceed
+   */
+  public long getSpuriousWakeupCount() {
+    return spuriousWakeups.sum();
+  }
+
+  /**
+   * @return number of timed operations that gave up
+   */
+  public long getTimeoutCount() {
+    return timeouts.sum();
+  }
+
+  private void await(Condition condition) throws InterruptedException {
+    waits.increment();
+    condition.await();
+  }
+
+  private void countWakeup(boolean spurious) {
+    wakeups.increment();
+    if (spurious) {
+      spuriousWakeups.increment();
+    }
+  }
+
+  private void enqueue(Integer e) {
     sourceList.add(e);
-    LOGGER.info("notifying");
-    notify();
+    LOGGER.debug("notifying");
+    notEmpty.signal();
+  }
+
+  private Integer dequeue() {
+    Integer e = sourceList.remove();
+    notFull.signal();
+    return e;
   }
 }
@@ -24,11 +24,20 @@ package com.iluwatar.guarded.suspension;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test for Guarded Queue
@@ -58,4 +67,84 @@ public class GuardedQueueTest {
     assertEquals(Integer.valueOf(12), g.get());
   }
 
+  @Test
+  public void testGetRemovesTheHead() {
+    GuardedQueue g = new GuardedQueue();
+    g.put(1);
+    g.put(2);
+    assertEquals(Integer.valueOf(1), g.get());
+    assertEquals(Integer.valueOf(2), g.get());
+    assertEquals(0, g.size());
+  }
+
+  @Test
+  public void testTimedPollAndOffer() throws Exception {
+    GuardedQueue g = new GuardedQueue(1, true);
+    assertNull(g.poll(10, TimeUnit.MILLISECONDS));
+    assertTrue(g.offer(1, 10, TimeUnit.MILLISECONDS));
+    assertFalse(g.offer(2, 10, TimeUnit.MILLISECONDS));
+    assertEquals(Integer.valueOf(1), g.poll(10, TimeUnit.MILLISECONDS));
+    assertEquals(2, g.getTimeoutCount());
+    assertEquals(2, g.getWaitCount());
+  }
+
+  @Test
+  public void testBoundedPutWaitsForTake() throws Exception {
+    GuardedQueue g = new GuardedQueue(2, false);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    Future<?> putAll = executorService.submit(() -> {
+      g.putAll(Arrays.asList(1, 2, 3, 4));
+      return null;
+    });
+    List<Integer> taken = new ArrayList<>();
+    while (taken.size() < 4) {
+      Integer e = g.poll(1, TimeUnit.SECONDS);
+      assertNotNull(e);
+      taken.add(e);
+    }
+    putAll.get(1, TimeUnit.SECONDS);
+    executorService.shutdown();
+    assertEquals(Arrays.asList(1, 2, 3, 4), taken);
+    assertTrue(g.getWaitCount() > 0);
+    assertTrue(g.getWakeupCount() > 0);
+  }
+
+  @Test
+  public void testDrainTo() {
+    GuardedQueue g = new GuardedQueue();
+    for (int i = 0; i < 5; i++) {
+      g.put(i);
+    }
+    List<Integer> drained = new ArrayList<>();
+    assertEquals(3, g.drainTo(drained, 3));
+    assertEquals(2, g.drainTo(drained, 10));
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), drained);
+  }
+
+  @Test
+  public void testFairQueueServesEveryConsumer() throws Exception {
+    GuardedQueue g = new GuardedQueue(16, true);
+    int consumers = 4;
+    int perConsumer = 500;
+    AtomicInteger starved = new AtomicInteger();
+    ExecutorService executorService = Executors.newFixedThreadPool(consumers);
+    for (int i = 0; i < consumers; i++) {
+      executorService.submit(() -> {
+        for (int n = 0; n < perConsumer; n++) {
+          if (g.poll(5, TimeUnit.SECONDS) == null) {
+            starved.incrementAndGet();
+          }
+        }
+        return null;
+      });
+    }
+    for (int i = 0; i < consumers * perConsumer; i++) {
+      g.put(i);
+    }
+    executorService.shutdown();
+    assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+    assertEquals(0, starved.get());
+    assertEquals(0, g.size());
+    assertTrue(g.getSpuriousWakeupCount() <= g.getWakeupCount());
+  }
 }
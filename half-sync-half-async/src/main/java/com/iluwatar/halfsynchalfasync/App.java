@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 
@@ -75,8 +76,9 @@ public class App {
    * Program entry point
    * 
    * @param args command line args
+   * @throws InterruptedException if interrupted while waiting for the tasks to complete
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws InterruptedException {
     AsynchronousService service = new AsynchronousService(new LinkedBlockingQueue<>());
     /*
      * A new task to calculate sum is received but as this is main thread, it should not block. So
@@ -94,6 +96,13 @@ public class App {
     service.execute(new ArithmeticSumTask(500));
     service.execute(new ArithmeticSumTask(2000));
     service.execute(new ArithmeticSumTask(1));
+
+    /*
+     * No more requests, let the synchronous layer finish the queued ones.
+     */
+    service.shutdown(10, TimeUnit.SECONDS);
+    LOGGER.info("Average queue wait {} ms, average execution {} ms",
+        service.getAverageQueueWait(TimeUnit.MILLISECONDS), service.getAverageExecutionTime(TimeUnit.MILLISECONDS));
   }
 
   /**
@@ -22,12 +22,17 @@
  */
 package com.iluwatar.halfsynchalfasync;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This is the asynchronous layer which does not block when a new request arrives. It just passes
@@ -35,16 +40,33 @@ import java.util.concurrent.TimeUnit;
  * pool of threads i.e. {@link ThreadPoolExecutor}. Out of this pool of worker threads one of the
  * thread picks up the task and executes it synchronously in background and the result is posted
  * back to the caller via callback.
+ * <p>
+ * A request the synchronous layer cannot take, because the queue is full or the service is shut
+ * down, is reported to {@link AsyncTask#onError(Throwable)} with a
+ * {@link RejectedExecutionException} in the context of the caller thread. The time each task spends
+ * in the queue and executing is recorded separately.
  */
 public class AsynchronousService {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsynchronousService.class);
+
+  public static final int DEFAULT_POOL_SIZE = 10;
+
   /*
    * This represents the queuing layer as well as synchronous layer of the pattern. The thread pool
    * contains worker threads which execute the tasks in blocking/synchronous manner. Long running
    * tasks should be performed in the background which does not affect the performance of main
    * thread.
    */
-  private ExecutorService service;
+  private final ThreadPoolExecutor service;
+
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder queueWaitNanos = new LongAdder();
+  private final LongAdder executionNanos = new LongAdder();
+  private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+  private final LongAccumulator maxExecutionNanos = new LongAccumulator(Math::max, 0);
 
   /**
    * Creates an asynchronous service using {@code workQueue} as communication channel between
@@ -52,9 +74,25 @@ public class AsynchronousService {
    * be used to control the pattern of communication between the layers.
    */
   public AsynchronousService(BlockingQueue<Runnable> workQueue) {
-    service = new ThreadPoolExecutor(10, 10, 10, TimeUnit.SECONDS, workQueue);
+    this(DEFAULT_POOL_SIZE, DEFAULT_POOL_SIZE, 10, TimeUnit.SECONDS, workQueue);
   }
 
+  /**
+   * Creates an asynchronous service. Threads above the core size are only started while
+   * {@code workQueue} is full, so a bounded queue is needed for the pool to grow and for requests to
+   * be rejected under saturation.
+   *
+   * @param corePoolSize number of threads kept while idle
+   * @param maximumPoolSize maximum number of threads
+   * @param keepAliveTime idle time after which a thread above the core size terminates
+   * @param unit unit of {@code keepAliveTime}
+   * @param workQueue queue between the asynchronous and synchronous layer
+   */
+  public AsynchronousService(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+      BlockingQueue<Runnable> workQueue) {
+    service = new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue,
+        this::reject);
+  }
 
   /**
    * A non-blocking method which performs the task provided in background and returns immediately.
@@ -75,24 +113,130 @@ public class AsynchronousService {
       return;
     }
 
-    service.submit(new FutureTask<T>(task) {
-      @Override
-      protected void done() {
-        super.done();
-        try {
-          /*
-           * called in context of background thread. There is other variant possible where result is
-           * posted back and sits in the queue of caller thread which then picks it up for
-           * processing. An example of such a system is Android OS, where the UI elements can only
-           * be updated using UI thread. So result must be posted back in UI thread.
-           */
-          task.onPostCall(get());
-        } catch (InterruptedException e) {
-          // should not occur
-        } catch (ExecutionException e) {
-          task.onError(e.getCause());
+    service.execute(new TaskRunner<>(task));
+  }
+
+  /**
+   * Stops accepting tasks and waits for the queued and running ones to complete. Tasks still queued
+   * when the time elapses are removed and reported to {@link AsyncTask#onError(Throwable)} with a
+   * {@link CancellationException}, running ones are interrupted.
+   *
+   * @return true if all tasks completed in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+    service.shutdown();
+    if (service.awaitTermination(timeout, unit)) {
+      return true;
+    }
+    List<Runnable> dropped = service.shutdownNow();
+    for (Runnable runnable : dropped) {
+      ((TaskRunner<?>) runnable).task.onError(new CancellationException("Service shut down"));
+    }
+    return false;
+  }
+
+  public int getPoolSize() {
+    return service.getPoolSize();
+  }
+
+  public int getQueueSize() {
+    return service.getQueue().size();
+  }
+
+  public long getCompletedTaskCount() {
+    return completed.sum();
+  }
+
+  public long getFailedTaskCount() {
+    return failed.sum();
+  }
+
+  public long getRejectedTaskCount() {
+    return rejected.sum();
+  }
+
+  /**
+   * @return average time a task waited in the queue before a thread picked it up
+   */
+  public long getAverageQueueWait(TimeUnit unit) {
+    return average(queueWaitNanos, unit);
+  }
+
+  public long getMaxQueueWait(TimeUnit unit) {
+    return unit.convert(maxQueueWaitNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @return average time spent in {@link AsyncTask#call()}
+   */
+  public long getAverageExecutionTime(TimeUnit unit) {
+    return average(executionNanos, unit);
+  }
+
+  public long getMaxExecutionTime(TimeUnit unit) {
+    return unit.convert(maxExecutionNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  private long average(LongAdder totalNanos, TimeUnit unit) {
+    long tasks = completed.sum() + failed.sum();
+    return tasks == 0 ? 0 : unit.convert(totalNanos.sum() / tasks, TimeUnit.NANOSECONDS);
+  }
+
+  private void reject(Runnable runnable, ThreadPoolExecutor executor) {
+    rejected.increment();
+    String reason = executor.isShutdown() ? "Service shut down" : "Service saturated";
+    ((TaskRunner<?>) runnable).task.onError(new RejectedExecutionException(reason));
+  }
+
+  /**
+   * Runs a task and posts the result back, in place of a {@code FutureTask} that would block on its
+   * own result.
+   */
+  private final class TaskRunner<T> implements Runnable {
+
+    private final AsyncTask<T> task;
+    private final long enqueuedAt = System.nanoTime();
+
+    private TaskRunner(AsyncTask<T> task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      long startedAt = System.nanoTime();
+      record(queueWaitNanos, maxQueueWaitNanos, startedAt - enqueuedAt);
+      T result;
+      try {
+        result = task.call();
+      } catch (Throwable e) {
+        record(executionNanos, maxExecutionNanos, System.nanoTime() - startedAt);
+        failed.increment();
+        task.onError(e);
+        if (e instanceof Error) {
+          // reported like any failure, but the pool decides what happens to the thread
+          throw (Error) e;
         }
+        return;
+      }
+      record(executionNanos, maxExecutionNanos, System.nanoTime() - startedAt);
+      completed.increment();
+      /*
+       * called in context of background thread. There is other variant possible where result is
+       * posted back and sits in the queue of caller thread which then picks it up for
+       * processing. An example of such a system is Android OS, where the UI elements can only
+       * be updated using UI thread. So result must be posted back in UI thread.
+       */
+      try {
+        task.onPostCall(result);
+      } catch (RuntimeException e) {
+        LOGGER.error("Exception caught in onPostCall.", e);
       }
-    });
+    }
+
+    private void record(LongAdder total, LongAccumulator max, long nanos) {
+      total.add(nanos);
+      max.accumulate(nanos);
+    }
   }
 }
@@ -26,7 +26,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
 
 import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Matchers.any;
 
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
@@ -81,6 +91,24 @@ public class AsynchronousServiceTest {
     verifyNoMoreInteractions(task);
   }
 
+  @Test
+  public void testCallErrorIsReported() throws Exception {
+    final AsynchronousService service = new AsynchronousService(new LinkedBlockingQueue<>());
+    final AsyncTask<Object> task = mock(AsyncTask.class);
+    final AssertionError error = new AssertionError();
+    when(task.call()).thenThrow(error);
+    service.execute(task);
+
+    verify(task, timeout(2000)).onError(eq(error));
+    assertEquals(1, service.getFailedTaskCount());
+
+    final AsyncTask<Object> next = mock(AsyncTask.class);
+    final Object result = new Object();
+    when(next.call()).thenReturn(result);
+    service.execute(next);
+    verify(next, timeout(2000)).onPostCall(eq(result));
+  }
+
   @Test
   public void testPreCallException() throws Exception {
     final AsynchronousService service = new AsynchronousService(new LinkedBlockingQueue<>());
@@ -98,4 +126,75 @@ public class AsynchronousServiceTest {
     verifyNoMoreInteractions(task);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testSaturationIsReportedToOnError() throws Exception {
+    final AsynchronousService service =
+        new AsynchronousService(1, 2, 1, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+    final CountDownLatch release = new CountDownLatch(1);
+    final AsyncTask<Object> blocking = mock(AsyncTask.class);
+    when(blocking.call()).then(invocation -> {
+      release.await();
+      return null;
+    });
+    service.execute(blocking);
+    service.execute(blocking);
+    service.execute(blocking);
+    assertEquals(2, service.getPoolSize());
+
+    final AsyncTask<Object> task = mock(AsyncTask.class);
+    service.execute(task);
+    verify(task).onError(any(RejectedExecutionException.class));
+    verify(task, times(0)).call();
+    assertEquals(1, service.getRejectedTaskCount());
+
+    release.countDown();
+    assertTrue(service.shutdown(2, TimeUnit.SECONDS));
+    assertEquals(3, service.getCompletedTaskCount());
+    verify(blocking, times(3)).onPostCall(null);
+
+    service.execute(task);
+    verify(task, times(2)).onError(any(RejectedExecutionException.class));
+  }
+
+  @Test
+  public void testShutdownCancelsQueuedTasksAfterTimeout() throws Exception {
+    final AsynchronousService service =
+        new AsynchronousService(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    final CountDownLatch started = new CountDownLatch(1);
+    final AsyncTask<Object> blocking = mock(AsyncTask.class);
+    when(blocking.call()).then(invocation -> {
+      started.countDown();
+      Thread.sleep(10000);
+      return null;
+    });
+    final AsyncTask<Object> queued = mock(AsyncTask.class);
+    service.execute(blocking);
+    service.execute(queued);
+    started.await();
+
+    assertFalse(service.shutdown(50, TimeUnit.MILLISECONDS));
+    verify(queued).onError(any(CancellationException.class));
+    verify(queued, times(0)).call();
+    verify(blocking, timeout(2000)).onError(any(InterruptedException.class));
+  }
+
+  @Test
+  public void testQueueWaitAndExecutionTimeAreRecorded() throws Exception {
+    final AsynchronousService service =
+        new AsynchronousService(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    final AsyncTask<Object> task = mock(AsyncTask.class);
+    when(task.call()).then(invocation -> {
+      Thread.sleep(20);
+      return null;
+    });
+    service.execute(task);
+    service.execute(task);
+    assertTrue(service.shutdown(2, TimeUnit.SECONDS));
+
+    assertEquals(2, service.getCompletedTaskCount());
+    assertTrue(service.getAverageExecutionTime(TimeUnit.MILLISECONDS) >= 20);
+    assertTrue(service.getMaxQueueWait(TimeUnit.MILLISECONDS) >= 20);
+    assertTrue(service.getMaxExecutionTime(TimeUnit.NANOSECONDS)
+        >= service.getAverageExecutionTime(TimeUnit.NANOSECONDS));
+  }
+}
@@ -22,46 +22,303 @@
  */
 package com.iluwatar.mutex;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Mutex is an implementation of a mutual exclusion lock.
+ * <p>
+ * The owner is claimed with a compare-and-set. A thread finding the mutex taken first spins for
+ * about twice the average hold time of recent acquisitions, when that is short enough to be cheaper
+ * than parking and there is more than one processor, and then parks in a queue until the owner
+ * releases it.
+ * <p>
+ * In debug mode every contended acquisition is attributed to the code that called
+ * {@link #acquire()}, which is costly but shows where the mutex is fought over.
  */
 public class Mutex implements Lock {
 
+  /**
+   * Longest average hold time for which a waiting thread spins before parking.
+   */
+  static final long MAX_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+  private static final boolean MULTI_PROCESSOR = Runtime.getRuntime().availableProcessors() > 1;
+
   /**
    * The current owner of the lock.
    */
-  private Object owner;
+  private final AtomicReference<Thread> owner = new AtomicReference<>();
+  private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+  private final boolean reentrant;
+  private final boolean debug;
+  private final ConcurrentHashMap<String, HotSpot> hotSpots = new ConcurrentHashMap<>();
+  /**
+   * Written by the owner only.
+   */
+  private int holds;
+  private volatile long acquiredAt;
+  private volatile long averageHoldNanos;
+
+  public Mutex() {
+    this(false, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param reentrant whether the owner may acquire the mutex again, releasing it as many times
+   * @param debug whether contended acquisitions are recorded, see {@link #getHotSpots()}
+   */
+  public Mutex(boolean reentrant, boolean debug) {
+    this.reentrant = reentrant;
+    this.debug = debug;
+  }
 
   /**
    * Returns the current owner of the Mutex, or null if available
    */
   public Object getOwner() {
-    return owner;
+    return owner.get();
+  }
+
+  /**
+   * Returns how long the current owner has held the Mutex, or 0 if available
+   */
+  public long getHoldTime(TimeUnit unit) {
+    long since = acquiredAt;
+    return owner.get() == null ? 0 : unit.convert(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the average time recent owners held the Mutex
+   */
+  public long getAverageHoldTime(TimeUnit unit) {
+    return unit.convert(averageHoldNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the threads parked waiting for the Mutex
+   */
+  public List<Thread> getWaitingThreads() {
+    return new ArrayList<>(waiters);
+  }
+
+  /**
+   * Returns the contended call sites, most waited on first, empty unless in debug mode
+   */
+  public List<HotSpot> getHotSpots() {
+    List<HotSpot> spots = new ArrayList<>(hotSpots.values());
+    spots.sort(Comparator.comparingLong(HotSpot::getTotalWaitNanos).reversed());
+    return Collections.unmodifiableList(spots);
   }
   
   /**
    * Method called by a thread to acquire the lock. If the lock has already
    * been acquired this will wait until the lock has been released to 
    * re-attempt the acquire.
+   *
+   * @throws IllegalStateException if the current thread owns a non-reentrant Mutex
    */
   @Override
-  public synchronized void acquire() throws InterruptedException {
-    while (owner != null) {
-      wait();
-    }
+  public void acquire() throws InterruptedException {
+    acquireOrWait(0, false);
+  }
 
-    owner = Thread.currentThread();
+  /**
+   * Acquires the lock only if it is available, never waiting.
+   */
+  public boolean tryAcquire() {
+    Thread current = Thread.currentThread();
+    return tryReenter(current) || tryClaim(current);
+  }
+
+  /**
+   * Acquires the lock, waiting up to the given time for it.
+   *
+   * @return false if the time elapsed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+    return acquireOrWait(Math.max(1, unit.toNanos(timeout)), true);
   }
 
   /**
    * Method called by a thread to release the lock.
    */
   @Override
-  public synchronized void release() {
-    if (Thread.currentThread() == owner) {
-      owner = null;
-      notify();
+  public void release() {
+    Thread current = Thread.currentThread();
+    if (owner.get() != current) {
+      return;
+    }
+    if (--holds > 0) {
+      return;
+    }
+    long held = System.nanoTime() - acquiredAt;
+    averageHoldNanos += (held - averageHoldNanos) / 8;
+    owner.set(null);
+    Thread next = waiters.peek();
+    if (next != null) {
+      LockSupport.unpark(next);
     }
   }
 
+  private boolean acquireOrWait(long timeoutNanos, boolean timed) throws InterruptedException {
+    Thread current = Thread.currentThread();
+    if (tryReenter(current) || tryClaim(current)) {
+      return true;
+    }
+    Thread blocker = owner.get();
+    long start = System.nanoTime();
+    boolean acquired = spin(current, start) || park(current, start, timeoutNanos, timed);
+    if (debug) {
+      recordContention(System.nanoTime() - start, blocker);
+    }
+    return acquired;
+  }
+
+  private boolean tryReenter(Thread current) {
+    if (owner.get() != current) {
+      return false;
+    }
+    if (!reentrant) {
+      throw new IllegalStateException("Mutex is not reentrant and already owned by " + current.getName());
+    }
+    holds++;
+    return true;
+  }
+
+  private boolean tryClaim(Thread current) {
+    if (owner.get() == null && owner.compareAndSet(null, current)) {
+      holds = 1;
+      acquiredAt = System.nanoTime();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Spins while the recent hold times suggest the owner is about to release.
+   */
+  private boolean spin(Thread current, long start) {
+    long average = averageHoldNanos;
+    if (!MULTI_PROCESSOR || average > MAX_SPIN_NANOS) {
+      return false;
+    }
+    long deadline = start + 2 * average;
+    do {
+      if (tryClaim(current)) {
+        return true;
+      }
+    } while (System.nanoTime() < deadline);
+    return false;
+  }
+
+  private boolean park(Thread current, long start, long timeoutNanos, boolean timed)
+      throws InterruptedException {
+    waiters.add(current);
+    boolean acquired = false;
+    try {
+      while (true) {
+        if (tryClaim(current)) {
+          acquired = true;
+          return true;
+        }
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        if (!timed) {
+          LockSupport.park(this);
+        } else {
+          long remaining = timeoutNanos - (System.nanoTime() - start);
+          if (remaining <= 0) {
+            return false;
+          }
+          LockSupport.parkNanos(this, remaining);
+        }
+      }
+    } finally {
+      waiters.remove(current);
+      // pass on a wake-up this thread will not use
+      Thread next = waiters.peek();
+      if (!acquired && next != null && owner.get() == null) {
+        LockSupport.unpark(next);
+      }
+    }
+  }
+
+  private void recordContention(long waitNanos, Thread blocker) {
+    String site = "unknown";
+    for (StackTraceElement element : new Throwable().getStackTrace()) {
+      if (!element.getClassName().equals(Mutex.class.getName())) {
+        site = element.toString();
+        break;
+      }
+    }
+    hotSpots.computeIfAbsent(site, HotSpot::new).record(waitNanos, blocker);
+  }
+
+  /**
+   * Contention statistics of one call site of {@link #acquire()}
+   */
+  public static final class HotSpot {
+
+    private final String callSite;
+    private final LongAdder contentions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private volatile String lastOwner;
+
+    private HotSpot(String callSite) {
+      this.callSite = callSite;
+    }
+
+    private void record(long waitNanos, Thread blocker) {
+      if (blocker != null) {
+        lastOwner = blocker.getName();
+      }
+      contentions.increment();
+      totalWaitNanos.add(waitNanos);
+      maxWaitNanos.accumulate(waitNanos);
+    }
+
+    public String getCallSite() {
+      return callSite;
+    }
+
+    public long getContentions() {
+      return contentions.sum();
+    }
+
+    public long getTotalWaitNanos() {
+      return totalWaitNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+      return maxWaitNanos.get();
+    }
+
+    /**
+     * Returns the name of the thread that owned the Mutex at the latest contention
+     */
+    public String getLastOwner() {
+      return lastOwner;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s contentions=%d totalWaitNanos=%d maxWaitNanos=%d lastOwner=%s", callSite,
+          getContentions(), getTotalWaitNanos(), getMaxWaitNanos(), lastOwner);
+    }
+  }
 }
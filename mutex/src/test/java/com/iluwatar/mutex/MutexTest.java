@@ -24,8 +24,16 @@ package com.iluwatar.mutex;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -47,4 +55,124 @@ public class MutexTest {
     assertNull(mutex.getOwner());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void reentrancyTest() throws Exception {
+    Mutex mutex = new Mutex(true, false);
+    mutex.acquire();
+    assertTrue(mutex.tryAcquire());
+    mutex.release();
+    assertEquals(Thread.currentThread(), mutex.getOwner());
+    mutex.release();
+    assertNull(mutex.getOwner());
+
+    Mutex nonReentrant = new Mutex();
+    nonReentrant.acquire();
+    assertThrows(IllegalStateException.class, nonReentrant::acquire);
+    nonReentrant.release();
+    assertNull(nonReentrant.getOwner());
+  }
+
+  @Test
+  public void timedAcquireTest() throws Exception {
+    Mutex mutex = new Mutex();
+    CountDownLatch acquired = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder = new Thread(() -> {
+      try {
+        mutex.acquire();
+        acquired.countDown();
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        mutex.release();
+      }
+    });
+    holder.start();
+    acquired.await();
+
+    assertFalse(mutex.tryAcquire());
+    assertFalse(mutex.tryAcquire(20, TimeUnit.MILLISECONDS));
+    // releasing a mutex owned by another thread is ignored
+    mutex.release();
+    assertEquals(holder, mutex.getOwner());
+
+    release.countDown();
+    assertTrue(mutex.tryAcquire(5, TimeUnit.SECONDS));
+    mutex.release();
+    holder.join();
+  }
+
+  @Test
+  public void interruptedAcquireTest() throws Exception {
+    Mutex mutex = new Mutex();
+    mutex.acquire();
+    AtomicBoolean interrupted = new AtomicBoolean();
+    Thread waiter = new Thread(() -> {
+      try {
+        mutex.acquire();
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      }
+    });
+    waiter.start();
+    awaitWaiters(mutex, 1);
+    waiter.interrupt();
+    waiter.join(5000);
+    assertTrue(interrupted.get());
+    assertTrue(mutex.getWaitingThreads().isEmpty());
+    mutex.release();
+  }
+
+  @Test
+  public void debugHotSpotsTest() throws Exception {
+    Mutex mutex = new Mutex(false, true);
+    mutex.acquire();
+    Thread thief = new Thief("Bob", new Jar(1, mutex));
+    thief.start();
+    awaitWaiters(mutex, 1);
+    assertEquals(thief, mutex.getWaitingThreads().get(0));
+    assertTrue(mutex.getHoldTime(TimeUnit.NANOSECONDS) > 0);
+    mutex.release();
+    thief.join(5000);
+
+    List<Mutex.HotSpot> hotSpots = mutex.getHotSpots();
+    assertEquals(1, hotSpots.size());
+    assertTrue(hotSpots.get(0).getCallSite().startsWith(Jar.class.getName() + ".takeBean"));
+    assertEquals(1, hotSpots.get(0).getContentions());
+    assertEquals(Thread.currentThread().getName(), hotSpots.get(0).getLastOwner());
+    assertTrue(new Mutex().getHotSpots().isEmpty());
+  }
+
+  @Test
+  public void mutualExclusionTest() throws Exception {
+    Mutex mutex = new Mutex();
+    Jar jar = new Jar(10000, mutex);
+    int[] taken = new int[4];
+    Thread[] thieves = new Thread[taken.length];
+    for (int i = 0; i < thieves.length; i++) {
+      int index = i;
+      thieves[i] = new Thread(() -> {
+        while (jar.takeBean()) {
+          taken[index]++;
+        }
+      });
+      thieves[i].start();
+    }
+    int total = 0;
+    for (int i = 0; i < thieves.length; i++) {
+      thieves[i].join();
+      total += taken[i];
+    }
+    assertEquals(10000, total);
+    assertNull(mutex.getOwner());
+  }
+
+  private static void awaitWaiters(Mutex mutex, int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (mutex.getWaitingThreads().size() != count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(count, mutex.getWaitingThreads().size());
+  }
+}
@@ -42,7 +42,8 @@ import org.slf4j.LoggerFactory;
  * <p>
  * In this example we have created {@link OliphauntPool} inheriting from generic {@link ObjectPool}.
  * {@link Oliphaunt}s can be checked out from the pool and later returned to it. The pool tracks
- * created instances and their status (available, inUse).
+ * created instances and their status (available, inUse), and keeps {@link PoolStats} about how it
+ * is used.
  *
  */
 public class App {
@@ -75,5 +76,6 @@ public class App {
     Oliphaunt oliphaunt5 = pool.checkOut();
     LOGGER.info("Checked out {}", oliphaunt5);
     LOGGER.info(pool.toString());
+    LOGGER.info("Pool stats: {}", pool.getStats());
   }
 }
@@ -22,40 +22,271 @@
  */
 package com.iluwatar.object.pool;
 
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Generic object pool
+ * <p>
+ * Available objects are kept in a lock-free deque, most recently returned first, so a check out
+ * usually gets an object whose state is still in the CPU caches. The number of objects checked out
+ * at once is bounded by a {@link Semaphore}; when the pool is exhausted {@link #checkOut()} waits
+ * for an object to be checked in, and {@link #checkOut(long, TimeUnit)} gives up after a timeout.
+ * <p>
+ * Objects are validated when they are checked out and when they are checked in, and objects that
+ * fail the validation are destroyed. Objects that stayed available for longer than the maximum idle
+ * time are evicted, down to the minimum idle count, by the check outs and check ins that notice
+ * eviction is due. There is no background thread.
  * @param <T> Type T of Object in the Pool
  */
 public abstract class ObjectPool<T> {
 
-  private Set<T> available = new HashSet<>();
-  private Set<T> inUse = new HashSet<>();
+  private final int maxSize;
+  private final int minIdle;
+  private final long maxIdleNanos;
+
+  private final ConcurrentLinkedDeque<IdleObject<T>> available = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger availableCount = new AtomicInteger();
+  private final Set<T> inUse = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger liveCount = new AtomicInteger();
+  private final Semaphore permits;
+  private final AtomicLong lastEviction = new AtomicLong(System.nanoTime());
+  private final PoolStats stats = new PoolStats();
+
+  /**
+   * An available object and the time it was checked in.
+   */
+  private static class IdleObject<T> {
+    final T instance;
+    final long since;
+
+    IdleObject(T instance, long since) {
+      this.instance = instance;
+      this.since = since;
+    }
+  }
+
+  /**
+   * Creates an unbounded pool which never evicts objects.
+   */
+  public ObjectPool() {
+    this(Integer.MAX_VALUE, 0, 0);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param maxSize maximum number of objects checked out at once
+   * @param minIdle number of available objects kept by the idle eviction
+   * @param maxIdleMillis time after which an available object is evicted, or 0 to never evict
+   */
+  public ObjectPool(int maxSize, int minIdle, long maxIdleMillis) {
+    if (maxSize <= 0 || minIdle < 0 || minIdle > maxSize || maxIdleMillis < 0) {
+      throw new IllegalArgumentException("Invalid pool configuration");
+    }
+    this.maxSize = maxSize;
+    this.minIdle = minIdle;
+    this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+    this.permits = new Semaphore(maxSize);
+  }
 
   protected abstract T create();
 
   /**
-   * Checkout object from pool
+   * Checks whether the object can still be used. Called on check out and check in, objects failing
+   * it are destroyed.
+   */
+  protected boolean validate(T instance) {
+    return true;
+  }
+
+  /**
+   * Releases the resources of an object that leaves the pool.
+   */
+  protected void destroy(T instance) {
+    // nothing to release by default
+  }
+
+  /**
+   * Checkout object from pool, waiting while the pool is exhausted
+   */
+  public T checkOut() {
+    if (!permits.tryAcquire()) {
+      long start = System.nanoTime();
+      permits.acquireUninterruptibly();
+      stats.recordWait(System.nanoTime() - start);
+    }
+    return take();
+  }
+
+  /**
+   * Checkout object from pool, waiting at most the given time while the pool is exhausted
+   *
+   * @return the object, or null if none was checked in within the timeout
+   */
+  public T checkOut(long timeout, TimeUnit unit) throws InterruptedException {
+    if (!permits.tryAcquire()) {
+      long start = System.nanoTime();
+      boolean acquired = permits.tryAcquire(timeout, unit);
+      stats.recordWait(System.nanoTime() - start);
+      if (!acquired) {
+        stats.recordTimeout();
+        return null;
+      }
+    }
+    return take();
+  }
+
+  /**
+   * Returns an object to the pool
+   *
+   * @throws IllegalArgumentException if the object is not checked out from this pool
    */
-  public synchronized T checkOut() {
-    if (available.isEmpty()) {
-      available.add(create());
+  public void checkIn(T instance) {
+    if (!inUse.remove(instance)) {
+      throw new IllegalArgumentException("Object is not checked out from this pool: " + instance);
+    }
+    if (validate(instance)) {
+      available.offerFirst(new IdleObject<>(instance, System.nanoTime()));
+      availableCount.incrementAndGet();
+    } else {
+      stats.recordValidationFailure();
+      discard(instance);
     }
-    T instance = available.iterator().next();
-    available.remove(instance);
-    inUse.add(instance);
-    return instance;
+    // the object must be available before its permit, otherwise a waiting check out could miss it
+    permits.release();
+    evictIfDue();
+  }
+
+  /**
+   * Creates objects until the pool holds the given number of objects, checked out ones included,
+   * so that the first check outs do not pay for the creation. The pool never grows beyond its
+   * maximum size.
+   */
+  public void prewarm(int count) {
+    int target = Math.min(count, maxSize);
+    int live;
+    while ((live = liveCount.get()) < target) {
+      if (!liveCount.compareAndSet(live, live + 1)) {
+        continue;
+      }
+      T instance;
+      try {
+        instance = create();
+      } catch (RuntimeException | Error e) {
+        liveCount.decrementAndGet();
+        throw e;
+      }
+      stats.recordCreate();
+      available.offerLast(new IdleObject<>(instance, System.nanoTime()));
+      availableCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Destroys the objects that have been available for longer than the maximum idle time, keeping
+   * at least the minimum idle count.
+   */
+  public void evictIdle() {
+    if (maxIdleNanos == 0) {
+      return;
+    }
+    long now = System.nanoTime();
+    lastEviction.set(now);
+    Iterator<IdleObject<T>> oldestFirst = available.descendingIterator();
+    while (oldestFirst.hasNext() && availableCount.get() > minIdle) {
+      IdleObject<T> idle = oldestFirst.next();
+      if (now - idle.since < maxIdleNanos) {
+        break;
+      }
+      if (available.removeLastOccurrence(idle)) {
+        availableCount.decrementAndGet();
+        stats.recordEviction();
+        discard(idle.instance);
+      }
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int getAvailableCount() {
+    return availableCount.get();
   }
 
-  public synchronized void checkIn(T instance) {
-    inUse.remove(instance);
-    available.add(instance);
+  public int getInUseCount() {
+    return inUse.size();
+  }
+
+  /**
+   * Returns the share of the live objects that are checked out.
+   */
+  public double getUtilization() {
+    int live = liveCount.get();
+    return live == 0 ? 0 : (double) getInUseCount() / live;
+  }
+
+  public PoolStats getStats() {
+    return stats;
+  }
+
+  /*
+   * Called with a permit. Reuses the most recently returned valid object or creates a new one.
+   */
+  private T take() {
+    try {
+      T instance = null;
+      IdleObject<T> idle;
+      while (instance == null && (idle = available.pollFirst()) != null) {
+        availableCount.decrementAndGet();
+        if (validate(idle.instance)) {
+          instance = idle.instance;
+        } else {
+          stats.recordValidationFailure();
+          discard(idle.instance);
+        }
+      }
+      if (instance == null) {
+        instance = create();
+        stats.recordCreate();
+        liveCount.incrementAndGet();
+      }
+      inUse.add(instance);
+      stats.recordCheckOut();
+      evictIfDue();
+      return instance;
+    } catch (RuntimeException | Error e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void discard(T instance) {
+    liveCount.decrementAndGet();
+    stats.recordDestroy();
+    destroy(instance);
+  }
+
+  private void evictIfDue() {
+    if (maxIdleNanos == 0) {
+      return;
+    }
+    long last = lastEviction.get();
+    if (System.nanoTime() - last >= maxIdleNanos / 2 && lastEviction.compareAndSet(last,
+        System.nanoTime())) {
+      evictIdle();
+    }
   }
 
   @Override
-  public synchronized String toString() {
-    return String.format("Pool available=%d inUse=%d", available.size(), inUse.size());
+  public String toString() {
+    return String.format("Pool available=%d inUse=%d", getAvailableCount(), getInUseCount());
   }
 }
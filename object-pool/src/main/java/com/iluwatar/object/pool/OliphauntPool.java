@@ -29,6 +29,14 @@ package com.iluwatar.object.pool;
  */
 public class OliphauntPool extends ObjectPool<Oliphaunt> {
 
+  public OliphauntPool() {
+    super();
+  }
+
+  public OliphauntPool(int maxSize, int minIdle, long maxIdleMillis) {
+    super(maxSize, minIdle, maxIdleMillis);
+  }
+
   @Override
   protected Oliphaunt create() {
     return new Oliphaunt();
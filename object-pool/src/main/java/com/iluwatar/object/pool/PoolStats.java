@@ -0,0 +1,136 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.object.pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 
+ * Counters of a single {@link ObjectPool}. They are updated without locking and can be read at any
+ * time, e.g. to size the pool from the observed wait times.
+ *
+ */
+public class PoolStats {
+
+  private final long startNanos = System.nanoTime();
+  private final LongAdder checkOuts = new LongAdder();
+  private final LongAdder waits = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder timeouts = new LongAdder();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder destroyed = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+  private final LongAdder validationFailures = new LongAdder();
+
+  void recordCheckOut() {
+    checkOuts.increment();
+  }
+
+  void recordWait(long nanos) {
+    waits.increment();
+    totalWaitNanos.add(nanos);
+    maxWaitNanos.accumulate(nanos);
+  }
+
+  void recordTimeout() {
+    timeouts.increment();
+  }
+
+  void recordCreate() {
+    created.increment();
+  }
+
+  void recordDestroy() {
+    destroyed.increment();
+  }
+
+  void recordEviction() {
+    evicted.increment();
+  }
+
+  void recordValidationFailure() {
+    validationFailures.increment();
+  }
+
+  public long getCheckOutCount() {
+    return checkOuts.sum();
+  }
+
+  /**
+   * Returns the number of check outs that found the pool exhausted and had to wait.
+   */
+  public long getWaitCount() {
+    return waits.sum();
+  }
+
+  /**
+   * Returns the average time a waiting check out waited, in microseconds.
+   */
+  public long getAverageWaitMicros() {
+    long waitCount = getWaitCount();
+    return waitCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum() / waitCount);
+  }
+
+  public long getMaxWaitMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get());
+  }
+
+  public long getTimeoutCount() {
+    return timeouts.sum();
+  }
+
+  public long getCreatedCount() {
+    return created.sum();
+  }
+
+  public long getDestroyedCount() {
+    return destroyed.sum();
+  }
+
+  public long getEvictedCount() {
+    return evicted.sum();
+  }
+
+  public long getValidationFailureCount() {
+    return validationFailures.sum();
+  }
+
+  /**
+   * Returns the number of objects created per second since the pool was created.
+   */
+  public double getCreationRate() {
+    long elapsed = System.nanoTime() - startNanos;
+    return elapsed == 0 ? 0 : getCreatedCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+  }
+
+  @Override
+  public String toString() {
+    return "checkOuts=" + getCheckOutCount() + ", waits=" + getWaitCount() + ", avgWaitMicros="
+        + getAverageWaitMicros() + ", timeouts=" + getTimeoutCount() + ", created="
+        + getCreatedCount() + ", destroyed=" + getDestroyedCount() + ", evicted="
+        + getEvictedCount();
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.object.pool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the bounds, validation, eviction and statistics of {@link ObjectPool}
+ */
+public class ObjectPoolTest {
+
+  /**
+   * Pool of cheap objects whose validity can be switched off.
+   */
+  private static class TestPool extends ObjectPool<AtomicBoolean> {
+    private final AtomicInteger destroyed = new AtomicInteger();
+
+    TestPool(int maxSize, int minIdle, long maxIdleMillis) {
+      super(maxSize, minIdle, maxIdleMillis);
+    }
+
+    @Override
+    protected AtomicBoolean create() {
+      return new AtomicBoolean(true);
+    }
+
+    @Override
+    protected boolean validate(AtomicBoolean instance) {
+      return instance.get();
+    }
+
+    @Override
+    protected void destroy(AtomicBoolean instance) {
+      destroyed.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void testTimedCheckOutOfExhaustedPool() throws Exception {
+    TestPool pool = new TestPool(1, 0, 0);
+    AtomicBoolean instance = pool.checkOut();
+    assertNull(pool.checkOut(50, TimeUnit.MILLISECONDS));
+    assertEquals(1, pool.getStats().getTimeoutCount());
+
+    new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      pool.checkIn(instance);
+    }).start();
+    assertSame(instance, pool.checkOut());
+    assertEquals(2, pool.getStats().getWaitCount());
+    assertEquals(1, pool.getStats().getCreatedCount());
+  }
+
+  @Test
+  public void testInvalidObjectsAreDestroyed() {
+    TestPool pool = new TestPool(2, 0, 0);
+    AtomicBoolean first = pool.checkOut();
+    first.set(false);
+    pool.checkIn(first);
+    assertEquals(0, pool.getAvailableCount());
+
+    AtomicBoolean second = pool.checkOut();
+    pool.checkIn(second);
+    second.set(false);
+    assertNotSame(second, pool.checkOut());
+    assertEquals(2, pool.destroyed.get());
+    assertEquals(2, pool.getStats().getValidationFailureCount());
+    assertThrows(IllegalArgumentException.class, () -> pool.checkIn(new AtomicBoolean()));
+  }
+
+  @Test
+  public void testPrewarmAndIdleEviction() throws Exception {
+    TestPool pool = new TestPool(10, 2, 20);
+    pool.prewarm(5);
+    assertEquals(5, pool.getAvailableCount());
+    assertEquals(5, pool.getStats().getCreatedCount());
+
+    Thread.sleep(50);
+    pool.checkIn(pool.checkOut()); // notices that eviction is due
+    assertEquals(3, pool.getAvailableCount());
+    assertEquals(2, pool.getStats().getEvictedCount());
+
+    Thread.sleep(50);
+    pool.evictIdle();
+    assertEquals(2, pool.getAvailableCount());
+    assertEquals(3, pool.getStats().getEvictedCount());
+  }
+
+  @Test
+  public void testPrewarmCountsCheckedOutObjects() {
+    TestPool pool = new TestPool(4, 0, 0);
+    AtomicBoolean first = pool.checkOut();
+    AtomicBoolean second = pool.checkOut();
+    AtomicBoolean third = pool.checkOut();
+
+    pool.prewarm(10);
+    assertEquals(1, pool.getAvailableCount());
+    assertEquals(4, pool.getStats().getCreatedCount());
+
+    pool.checkIn(first);
+    pool.checkIn(second);
+    pool.checkIn(third);
+    pool.prewarm(10);
+    assertEquals(4, pool.getAvailableCount());
+    assertEquals(4, pool.getStats().getCreatedCount());
+  }
+
+  @Test
+  public void testConcurrentCheckOutsStayWithinMaxSize() throws Exception {
+    TestPool pool = new TestPool(4, 0, 0);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 1000; i++) {
+          AtomicBoolean instance = pool.checkOut();
+          assertTrue(pool.getInUseCount() <= 4);
+          pool.checkIn(instance);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(8000, pool.getStats().getCheckOutCount());
+    assertTrue(pool.getStats().getCreatedCount() <= 4);
+    assertEquals(0, pool.getInUseCount());
+    assertEquals(0, pool.getUtilization());
+  }
+}
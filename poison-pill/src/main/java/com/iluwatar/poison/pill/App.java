@@ -32,6 +32,9 @@ package com.iluwatar.poison.pill;
  * <p>
  * In simple cases the Poison Pill can be just a null-reference, but holding a unique separate
  * shared object-marker (with name "Poison" or "Poison Pill") is more clear and self describing.
+ * <p>
+ * With a {@link Topic} every consumer has its own subscription, so the single Poison Pill sent by the
+ * producer reaches all of them, after the messages sent before it.
  * 
  */
 public class App {
@@ -42,10 +45,11 @@ public class App {
    * @param args command line args
    */
   public static void main(String[] args) {
-    MessageQueue queue = new SimpleMessageQueue(10000);
+    Topic topic = new Topic(2, 10000);
 
-    final Producer producer = new Producer("PRODUCER_1", queue);
-    final Consumer consumer = new Consumer("CONSUMER_1", queue);
+    final Producer producer = new Producer("PRODUCER_1", topic);
+    final Consumer consumer = new Consumer("CONSUMER_1", topic.subscribe());
+    final Consumer auditor = new Consumer("CONSUMER_2", topic.subscribe());
 
     new Thread() {
       @Override
@@ -54,6 +58,13 @@ public class App {
       }
     }.start();
 
+    new Thread() {
+      @Override
+      public void run() {
+        auditor.consume();
+      }
+    }.start();
+
     new Thread() {
       @Override
       public void run() {
@@ -57,6 +57,16 @@ public interface Message {
       throw poison();
     }
 
+    @Override
+    public void setTimestamp(long timestamp) {
+      throw poison();
+    }
+
+    @Override
+    public long getTimestamp() {
+      throw poison();
+    }
+
     private RuntimeException poison() {
       return new UnsupportedOperationException("Poison");
     }
@@ -79,4 +89,11 @@ public interface Message {
   void setBody(String body);
 
   String getBody();
+
+  /**
+   * @param timestamp creation time in milliseconds since the epoch
+   */
+  void setTimestamp(long timestamp);
+
+  long getTimestamp();
 }
@@ -22,8 +22,6 @@
  */
 package com.iluwatar.poison.pill;
 
-import java.util.Date;
-
 import com.iluwatar.poison.pill.Message.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,7 +56,7 @@ public class Producer {
           "Producer %s was stopped and fail to deliver requested message [%s].", body, name));
     }
     Message msg = new SimpleMessage();
-    msg.addHeader(Headers.DATE, new Date().toString());
+    msg.setTimestamp(System.currentTimeMillis());
     msg.addHeader(Headers.SENDER, name);
     msg.setBody(body);
 
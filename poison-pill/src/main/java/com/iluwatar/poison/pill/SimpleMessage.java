@@ -22,31 +22,50 @@
  */
 package com.iluwatar.poison.pill;
 
+import java.time.Instant;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 /**
- * {@link Message} basic implementation
+ * {@link Message} basic implementation.
+ * <p>
+ * Headers are kept in an array indexed by {@link Headers#ordinal()} and the creation time as a long, so a message
+ * costs two small allocations and can be reused after {@link #clear()}. The {@link Headers#DATE} header is
+ * formatted from the timestamp when it is read, unless it was set explicitly.
  */
 public class SimpleMessage implements Message {
 
-  private Map<Headers, String> headers = new HashMap<>();
+  private static final Headers[] HEADERS = Headers.values();
+
+  private final String[] headers = new String[HEADERS.length];
   private String body;
+  private long timestamp;
 
   @Override
   public void addHeader(Headers header, String value) {
-    headers.put(header, value);
+    headers[header.ordinal()] = value;
   }
 
   @Override
   public String getHeader(Headers header) {
-    return headers.get(header);
+    String value = headers[header.ordinal()];
+    if (value == null && header == Headers.DATE && timestamp != 0) {
+      return Instant.ofEpochMilli(timestamp).toString();
+    }
+    return value;
   }
 
   @Override
   public Map<Headers, String> getHeaders() {
-    return Collections.unmodifiableMap(headers);
+    Map<Headers, String> map = new EnumMap<>(Headers.class);
+    for (Headers header : HEADERS) {
+      String value = getHeader(header);
+      if (value != null) {
+        map.put(header, value);
+      }
+    }
+    return Collections.unmodifiableMap(map);
   }
 
   @Override
@@ -58,4 +77,25 @@ public class SimpleMessage implements Message {
   public String getBody() {
     return body;
   }
+
+  @Override
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  @Override
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Resets the message so that it can be reused.
+   */
+  public void clear() {
+    for (int i = 0; i < headers.length; i++) {
+      headers[i] = null;
+    }
+    body = null;
+    timestamp = 0;
+  }
 }
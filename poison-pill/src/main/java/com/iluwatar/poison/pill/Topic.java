@@ -0,0 +1,295 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.poison.pill;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded fan-out channel: every {@link Subscription} receives every message published after it subscribed.
+ * <p>
+ * Messages are appended to one of several partitions, chosen by the {@link Message.Headers#SENDER} header, so
+ * the messages of one sender keep their order. Each partition is a ring of messages shared by all subscriptions,
+ * each of which only holds a cursor per partition. A publisher blocks while the slowest subscription of a
+ * partition is a whole ring behind.
+ * <p>
+ * Shutdown is coordinated: the {@link Message#POISON_PILL} is only appended, to every partition, once each of the
+ * expected publishers has put one, later pills are ignored. A subscription returns the pill after it has drained
+ * everything published before it on all of its partitions.
+ */
+public class Topic implements MqPublishPoint {
+
+  private final Partition[] partitions;
+  private final int capacity;
+  private final List<Subscription> subscriptions = new ArrayList<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private int pillsPending;
+  private int waitingPublishers;
+
+  /**
+   * Creates a topic with a single publisher.
+   */
+  public Topic(int partitions, int capacity) {
+    this(partitions, capacity, 1);
+  }
+
+  /**
+   * Creates a topic.
+   *
+   * @param partitions number of partitions
+   * @param capacity number of messages each partition holds
+   * @param publishers number of publishers that must put the poison pill before it is delivered
+   */
+  public Topic(int partitions, int capacity, int publishers) {
+    if (partitions < 1 || capacity < 1 || publishers < 1) {
+      throw new IllegalArgumentException("Partitions, capacity and publishers must be positive");
+    }
+    this.partitions = new Partition[partitions];
+    for (int i = 0; i < partitions; i++) {
+      this.partitions[i] = new Partition(capacity);
+    }
+    this.capacity = capacity;
+    this.pillsPending = publishers;
+  }
+
+  /**
+   * @return a subscription reading all partitions
+   */
+  public Subscription subscribe() {
+    int[] all = new int[partitions.length];
+    for (int i = 0; i < all.length; i++) {
+      all[i] = i;
+    }
+    return subscribe(all);
+  }
+
+  /**
+   * @return a subscription reading the given partitions, starting with the next message published to them
+   */
+  public Subscription subscribe(int... partitionIndexes) {
+    lock.lock();
+    try {
+      Subscription subscription = new Subscription(partitionIndexes);
+      subscriptions.add(subscription);
+      return subscription;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getPartitionCount() {
+    return partitions.length;
+  }
+
+  @Override
+  public void put(Message msg) throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      if (Message.POISON_PILL.equals(msg)) {
+        if (pillsPending == 0) {
+          // delivered already
+          return;
+        }
+        if (pillsPending > 1) {
+          pillsPending--;
+          return;
+        }
+        appendPill();
+        pillsPending = 0;
+      } else {
+        String sender = msg.getHeader(Message.Headers.SENDER);
+        int index = sender == null ? 0 : (sender.hashCode() & Integer.MAX_VALUE) % partitions.length;
+        append(partitions[index], msg);
+      }
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Appends the pill to every partition. Once started this cannot be interrupted, otherwise the pill would only reach
+   * some partitions and a retried put would append it twice to the others. An interrupt stays pending.
+   */
+  private void appendPill() {
+    for (Partition partition : partitions) {
+      while (isFull(partition)) {
+        awaitNotFullUninterruptibly();
+      }
+      partition.add(Message.POISON_PILL);
+    }
+  }
+
+  private void append(Partition partition, Message msg) throws InterruptedException {
+    while (isFull(partition)) {
+      awaitNotFull();
+    }
+    partition.add(msg);
+  }
+
+  private boolean isFull(Partition partition) {
+    return partition.tail - slowestCursor(partition) >= capacity;
+  }
+
+  private void awaitNotFull() throws InterruptedException {
+    waitingPublishers++;
+    try {
+      notFull.await();
+    } finally {
+      waitingPublishers--;
+    }
+  }
+
+  private void awaitNotFullUninterruptibly() {
+    waitingPublishers++;
+    try {
+      notFull.awaitUninterruptibly();
+    } finally {
+      waitingPublishers--;
+    }
+  }
+
+  private long slowestCursor(Partition partition) {
+    long slowest = partition.tail;
+    for (Subscription subscription : subscriptions) {
+      int slot = subscription.slotOf(partition);
+      if (slot >= 0 && !subscription.pillSeen[slot]) {
+        slowest = Math.min(slowest, subscription.cursors[slot]);
+      }
+    }
+    return slowest;
+  }
+
+  private static final class Partition {
+    private final Message[] slots;
+    private long tail;
+
+    private Partition(int capacity) {
+      this.slots = new Message[capacity];
+    }
+
+    private void add(Message msg) {
+      slots[(int) (tail % slots.length)] = msg;
+      tail++;
+    }
+  }
+
+  /**
+   * Per-consumer view of a {@link Topic}.
+   */
+  public final class Subscription implements MqSubscribePoint, AutoCloseable {
+
+    private final Partition[] subscribed;
+    private final long[] cursors;
+    private final boolean[] pillSeen;
+    private int pills;
+    private int next;
+
+    private Subscription(int[] partitionIndexes) {
+      if (partitionIndexes.length == 0) {
+        throw new IllegalArgumentException("At least one partition must be subscribed");
+      }
+      subscribed = new Partition[partitionIndexes.length];
+      cursors = new long[partitionIndexes.length];
+      pillSeen = new boolean[partitionIndexes.length];
+      for (int i = 0; i < partitionIndexes.length; i++) {
+        subscribed[i] = partitions[partitionIndexes[i]];
+        cursors[i] = subscribed[i].tail;
+      }
+    }
+
+    @Override
+    public Message take() throws InterruptedException {
+      lock.lockInterruptibly();
+      try {
+        while (true) {
+          for (int i = 0; i < subscribed.length; i++) {
+            int slot = next;
+            next = (next + 1) % subscribed.length;
+            if (pillSeen[slot] || cursors[slot] == subscribed[slot].tail) {
+              continue;
+            }
+            Message msg = subscribed[slot].slots[(int) (cursors[slot] % capacity)];
+            cursors[slot]++;
+            if (waitingPublishers > 0) {
+              notFull.signalAll();
+            }
+            if (!Message.POISON_PILL.equals(msg)) {
+              return msg;
+            }
+            pillSeen[slot] = true;
+            if (++pills == subscribed.length) {
+              return msg;
+            }
+          }
+          notEmpty.await();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * @return number of messages published to the subscribed partitions and not taken yet
+     */
+    public long getLag() {
+      lock.lock();
+      try {
+        long lag = 0;
+        for (int i = 0; i < subscribed.length; i++) {
+          lag += subscribed[i].tail - cursors[i];
+        }
+        return lag;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Stops holding back publishers, the subscription must not be used afterwards.
+     */
+    @Override
+    public void close() {
+      lock.lock();
+      try {
+        subscriptions.remove(this);
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private int slotOf(Partition partition) {
+      for (int i = 0; i < subscribed.length; i++) {
+        if (subscribed[i] == partition) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+}
@@ -70,4 +70,10 @@ public class PoisonMessageTest {
     });
   }
 
+  @Test
+  public void testGetTimestamp() throws Exception {
+    assertThrows(UnsupportedOperationException.class, () -> {
+      POISON_PILL.getTimestamp();
+    });
+  }
 }
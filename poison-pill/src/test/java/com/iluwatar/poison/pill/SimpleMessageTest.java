@@ -29,6 +29,7 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -61,5 +62,18 @@ public class SimpleMessageTest {
     });
   }
 
+  @Test
+  public void testDateIsDerivedFromTimestamp() {
+    final SimpleMessage message = new SimpleMessage();
+    message.setTimestamp(0L);
+    assertNull(message.getHeader(Message.Headers.DATE));
+    message.setTimestamp(1000L);
+    assertEquals("1970-01-01T00:00:01Z", message.getHeader(Message.Headers.DATE));
+    message.addHeader(Message.Headers.DATE, "today");
+    assertEquals("today", message.getHeaders().get(Message.Headers.DATE));
 
-}
\ No newline at end of file
+    message.clear();
+    assertTrue(message.getHeaders().isEmpty());
+    assertEquals(0L, message.getTimestamp());
+  }
+}
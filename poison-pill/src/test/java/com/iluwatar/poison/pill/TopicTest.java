@@ -0,0 +1,156 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.poison.pill;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link Topic}
+ */
+public class TopicTest {
+
+  @Test
+  public void testInvalidConfiguration() {
+    assertThrows(IllegalArgumentException.class, () -> new Topic(0, 10));
+    assertThrows(IllegalArgumentException.class, () -> new Topic(1, 10).subscribe(new int[0]));
+  }
+
+  @Test
+  public void testPoisonPillReachesEverySubscription() throws Exception {
+    Topic topic = new Topic(4, 16);
+    Topic.Subscription first = topic.subscribe();
+    Topic.Subscription second = topic.subscribe();
+    topic.put(createMessage("alice", "1"));
+    topic.put(createMessage("bob", "2"));
+    topic.put(createMessage("alice", "3"));
+    topic.put(Message.POISON_PILL);
+
+    for (Topic.Subscription subscription : Arrays.asList(first, second)) {
+      List<String> alice = new ArrayList<>();
+      List<String> bodies = new ArrayList<>();
+      Message msg;
+      while (!Message.POISON_PILL.equals(msg = subscription.take())) {
+        bodies.add(msg.getBody());
+        if ("alice".equals(msg.getHeader(Message.Headers.SENDER))) {
+          alice.add(msg.getBody());
+        }
+      }
+      assertEquals(3, bodies.size());
+      assertEquals(Arrays.asList("1", "3"), alice);
+      assertEquals(0, subscription.getLag());
+    }
+  }
+
+  @Test
+  public void testPillIsDeliveredAfterAllPublishersStopped() throws Exception {
+    Topic topic = new Topic(1, 16, 2);
+    Topic.Subscription subscription = topic.subscribe();
+    Producer first = new Producer("first", topic);
+    Producer second = new Producer("second", topic);
+    first.send("a");
+    first.stop();
+    second.send("b");
+    second.stop();
+    assertEquals("a", subscription.take().getBody());
+    assertEquals("b", subscription.take().getBody());
+    assertSame(Message.POISON_PILL, subscription.take());
+    assertEquals(0, subscription.getLag());
+  }
+
+  @Test
+  public void testInterruptedPillIsStillDeliveredOnce() throws Exception {
+    Topic topic = new Topic(2, 1);
+    Topic.Subscription subscription = topic.subscribe();
+    topic.put(createMessage("a", "full")); // fills the second partition
+    AtomicBoolean interrupted = new AtomicBoolean();
+    Thread publisher = new Thread(() -> {
+      try {
+        topic.put(Message.POISON_PILL);
+        interrupted.set(Thread.currentThread().isInterrupted());
+      } catch (InterruptedException e) {
+        // the pill has reached the first partition only
+      }
+    });
+    publisher.start();
+    while (publisher.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+    publisher.interrupt();
+    Thread.sleep(50);
+    assertTrue(publisher.isAlive());
+
+    assertEquals("full", subscription.take().getBody());
+    publisher.join(1000);
+    assertTrue(interrupted.get());
+    topic.put(Message.POISON_PILL);
+    assertSame(Message.POISON_PILL, subscription.take());
+    assertEquals(0, subscription.getLag());
+  }
+
+  @Test
+  public void testSlowestSubscriptionHoldsBackPublisher() throws Exception {
+    Topic topic = new Topic(1, 2);
+    Topic.Subscription fast = topic.subscribe();
+    Topic.Subscription slow = topic.subscribe();
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    Future<?> publisher = executorService.submit(() -> {
+      for (int i = 0; i < 3; i++) {
+        topic.put(createMessage("sender", String.valueOf(i)));
+      }
+      return null;
+    });
+    assertEquals("0", fast.take().getBody());
+    assertEquals("1", fast.take().getBody());
+    Thread.sleep(100);
+    assertFalse(publisher.isDone());
+
+    assertEquals("0", slow.take().getBody());
+    publisher.get(1, TimeUnit.SECONDS);
+    assertEquals("2", fast.take().getBody());
+    assertEquals(2, slow.getLag());
+    slow.close();
+    executorService.shutdown();
+  }
+
+  private static Message createMessage(String sender, String body) {
+    SimpleMessage msg = new SimpleMessage();
+    msg.addHeader(Message.Headers.SENDER, sender);
+    msg.setBody(body);
+    return msg;
+  }
+}
@@ -50,7 +50,7 @@ public class App {
    */
   public static void main(String[] args) {
 
-    ItemQueue queue = new ItemQueue();
+    ItemQueue queue = new BlockingItemQueue();
 
     ExecutorService executorService = Executors.newFixedThreadPool(5);
     for (int i = 0; i < 2; i++) {
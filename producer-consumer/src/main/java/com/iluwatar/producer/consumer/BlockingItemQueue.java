@@ -0,0 +1,85 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ItemQueue} moving items through a {@link LinkedBlockingQueue}, one lock acquisition per
+ * item.
+ */
+public class BlockingItemQueue implements ItemQueue {
+
+  public static final int DEFAULT_CAPACITY = 5;
+
+  private final BlockingQueue<Item> queue;
+
+  public BlockingItemQueue() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public BlockingItemQueue(int capacity) {
+    this.queue = new LinkedBlockingQueue<>(capacity);
+  }
+
+  @Override
+  public void put(Item item) throws InterruptedException {
+
+    queue.put(item);
+  }
+
+  @Override
+  public Item take() throws InterruptedException {
+
+    return queue.take();
+  }
+
+  @Override
+  public boolean offer(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+    return queue.offer(item, timeout, unit);
+  }
+
+  @Override
+  public Item poll(long timeout, TimeUnit unit) throws InterruptedException {
+    return queue.poll(timeout, unit);
+  }
+
+  @Override
+  public void putAll(Collection<Item> items) throws InterruptedException {
+    for (Item item : items) {
+      queue.put(item);
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super Item> items, int maxItems) throws InterruptedException {
+    if (maxItems < 1) {
+      throw new IllegalArgumentException("At least one item must be drained");
+    }
+    items.add(queue.take());
+    return 1 + queue.drainTo(items, maxItems - 1);
+  }
+}
@@ -25,6 +25,9 @@ package com.iluwatar.producer.consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Class responsible for consume the {@link Item} produced by {@link Producer}
  */
@@ -50,4 +53,18 @@ public class Consumer {
     LOGGER.info("Consumer [{}] consume item [{}] produced by [{}]", name, item.getId(), item.getProducer());
 
   }
+
+  /**
+   * Consume a chunk of up to <code>maxItems</code> items from the queue, waiting for at least one
+   *
+   * @return the number of items consumed
+   */
+  public int consumeBatch(int maxItems) throws InterruptedException {
+    List<Item> items = new ArrayList<>(maxItems);
+    queue.drainTo(items, maxItems);
+    for (Item item : items) {
+      LOGGER.info("Consumer [{}] consume item [{}] produced by [{}]", name, item.getId(), item.getProducer());
+    }
+    return items.size();
+  }
 }
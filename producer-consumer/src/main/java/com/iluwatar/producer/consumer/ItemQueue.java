@@ -22,29 +22,53 @@
  */
 package com.iluwatar.producer.consumer;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Class as a channel for {@link Producer}-{@link Consumer} exchange.
+ * Channel for {@link Producer}-{@link Consumer} exchange.
+ * <p>
+ * {@link BlockingItemQueue} moves items through a lock-based queue, {@link RingBufferItemQueue} is a
+ * lock-free alternative for high throughput.
+ * </p>
  */
-public class ItemQueue {
+public interface ItemQueue {
 
-  private BlockingQueue<Item> queue;
+  /**
+   * Puts the item, waiting for space as needed.
+   */
+  void put(Item item) throws InterruptedException;
 
-  public ItemQueue() {
+  /**
+   * Takes an item, waiting for one as needed.
+   */
+  Item take() throws InterruptedException;
 
-    queue = new LinkedBlockingQueue<>(5);
-  }
+  /**
+   * Puts the item, waiting up to the given time for space to become available.
+   *
+   * @return false if the time elapsed before the item could be put
+   */
+  boolean offer(Item item, long timeout, TimeUnit unit) throws InterruptedException;
 
-  public void put(Item item) throws InterruptedException {
+  /**
+   * Takes an item, waiting up to the given time for one to become available.
+   *
+   * @return the item, or null if the time elapsed
+   */
+  Item poll(long timeout, TimeUnit unit) throws InterruptedException;
 
-    queue.put(item);
-  }
-
-  public Item take() throws InterruptedException {
-
-    return queue.take();
-  }
+  /**
+   * Puts all items in order, waiting for space as needed.
+   */
+  void putAll(Collection<Item> items) throws InterruptedException;
 
+  /**
+   * Waits for at least one item, then moves up to <code>maxItems</code> available items to the
+   * given collection.
+   *
+   * @return the number of items moved
+   * @throws IllegalArgumentException if <code>maxItems</code> is less than one
+   */
+  int drainTo(Collection<? super Item> items, int maxItems) throws InterruptedException;
 }
@@ -0,0 +1,264 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free {@link ItemQueue} on a preallocated ring buffer, after the bounded queue of Dmitry
+ * Vyukov. Every slot carries a sequence number that tells producers and consumers whether the slot
+ * is free or holds an item of the current lap, so neither side takes a lock and no node is
+ * allocated per item.
+ * <p>
+ * Batches are claimed with a single compare-and-set: {@link #putAll(Collection)} and
+ * {@link #drainTo(Collection, int)} move as many items as there are free or filled slots in a row.
+ * With {@link ProducerType#SINGLE} the producer side does not need compare-and-set at all. Threads
+ * that find the ring full or empty wait according to the {@link WaitStrategy}.
+ * </p>
+ */
+public class RingBufferItemQueue implements ItemQueue {
+
+  /**
+   * Counter padded to its own cache line, so that producers and consumers do not invalidate each
+   * other's cache lines when they advance.
+   */
+  @SuppressWarnings("unused")
+  private static final class PaddedSequence extends AtomicLong {
+    private static final long serialVersionUID = 1L;
+    private long p1;
+    private long p2;
+    private long p3;
+    private long p4;
+    private long p5;
+    private long p6;
+    private long p7;
+  }
+
+  private final Item[] items;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final ProducerType producerType;
+  private final WaitStrategy waitStrategy;
+  private final PaddedSequence tail = new PaddedSequence();
+  private final PaddedSequence head = new PaddedSequence();
+
+  /**
+   * Constructor.
+   *
+   * @param capacity minimum number of items the queue holds, rounded up to a power of two
+   * @param producerType whether one or many threads put items
+   * @param waitStrategy how threads wait while the queue is full or empty
+   */
+  public RingBufferItemQueue(int capacity, ProducerType producerType, WaitStrategy waitStrategy) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+    }
+    int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+    this.items = new Item[size];
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.mask = size - 1;
+    this.producerType = producerType;
+    this.waitStrategy = waitStrategy;
+  }
+
+  @Override
+  public void put(Item item) throws InterruptedException {
+    for (int attempt = 1; !tryPut(item); attempt++) {
+      idle(attempt);
+    }
+  }
+
+  @Override
+  public Item take() throws InterruptedException {
+    Item item;
+    for (int attempt = 1; (item = tryTake()) == null; attempt++) {
+      idle(attempt);
+    }
+    return item;
+  }
+
+  @Override
+  public boolean offer(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int attempt = 1; !tryPut(item); attempt++) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      idle(attempt);
+    }
+    return true;
+  }
+
+  @Override
+  public Item poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    Item item;
+    for (int attempt = 1; (item = tryTake()) == null; attempt++) {
+      if (System.nanoTime() - deadline >= 0) {
+        return null;
+      }
+      idle(attempt);
+    }
+    return item;
+  }
+
+  @Override
+  public void putAll(Collection<Item> batch) throws InterruptedException {
+    Item[] source = batch.toArray(new Item[0]);
+    int attempt = 1;
+    for (int from = 0; from < source.length;) {
+      int put = tryPutAll(source, from);
+      if (put == 0) {
+        idle(attempt++);
+      } else {
+        from += put;
+        attempt = 1;
+      }
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super Item> target, int maxItems) throws InterruptedException {
+    if (maxItems < 1) {
+      throw new IllegalArgumentException("At least one item must be drained");
+    }
+    int taken;
+    for (int attempt = 1; (taken = tryDrainTo(target, maxItems)) == 0; attempt++) {
+      idle(attempt);
+    }
+    return taken;
+  }
+
+  public int getCapacity() {
+    return items.length;
+  }
+
+  /**
+   * @return number of items in the queue, only an estimate while other threads use the queue
+   */
+  public int size() {
+    return (int) Math.max(0, Math.min(items.length, tail.get() - head.get()));
+  }
+
+  private boolean tryPut(Item item) {
+    while (true) {
+      long position = tail.get();
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference < 0) {
+        return false;
+      }
+      if (difference == 0 && claim(tail, position, 1)) {
+        items[index] = item;
+        sequences.lazySet(index, position + 1);
+        return true;
+      }
+    }
+  }
+
+  private int tryPutAll(Item[] source, int from) {
+    int wanted = Math.min(source.length - from, items.length);
+    while (true) {
+      long position = tail.get();
+      int free = 0;
+      while (free < wanted && sequences.get((int) (position + free) & mask) == position + free) {
+        free++;
+      }
+      if (free == 0 && sequences.get((int) position & mask) < position) {
+        return 0;
+      }
+      if (free > 0 && claim(tail, position, free)) {
+        for (int i = 0; i < free; i++) {
+          int index = (int) (position + i) & mask;
+          items[index] = source[from + i];
+          sequences.lazySet(index, position + i + 1);
+        }
+        return free;
+      }
+    }
+  }
+
+  private Item tryTake() {
+    while (true) {
+      long position = head.get();
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - (position + 1);
+      if (difference < 0) {
+        return null;
+      }
+      if (difference == 0 && head.compareAndSet(position, position + 1)) {
+        Item item = items[index];
+        items[index] = null;
+        sequences.lazySet(index, position + items.length);
+        return item;
+      }
+    }
+  }
+
+  private int tryDrainTo(Collection<? super Item> target, int maxItems) {
+    int wanted = Math.min(maxItems, items.length);
+    while (true) {
+      long position = head.get();
+      int ready = 0;
+      while (ready < wanted && sequences.get((int) (position + ready) & mask) == position + ready + 1) {
+        ready++;
+      }
+      if (ready == 0 && sequences.get((int) position & mask) < position + 1) {
+        return 0;
+      }
+      if (ready > 0 && head.compareAndSet(position, position + ready)) {
+        for (int i = 0; i < ready; i++) {
+          int index = (int) (position + i) & mask;
+          target.add(items[index]);
+          items[index] = null;
+          sequences.lazySet(index, position + i + items.length);
+        }
+        return ready;
+      }
+    }
+  }
+
+  /**
+   * Claims slots for producing. A single producer owns the tail and simply advances it.
+   */
+  private boolean claim(AtomicLong sequence, long position, int count) {
+    if (producerType == ProducerType.SINGLE) {
+      sequence.lazySet(position + count);
+      return true;
+    }
+    return sequence.compareAndSet(position, position + count);
+  }
+
+  private void idle(int attempt) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    waitStrategy.idle(attempt);
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits for a {@link RingBufferItemQueue} to become non-full or non-empty. None of the
+ * strategies needs the other side to signal: the waiting thread polls the ring buffer, trading CPU
+ * for latency.
+ */
+public enum WaitStrategy {
+
+  /**
+   * Spins on the CPU. Lowest latency, but burns a core per waiting thread.
+   */
+  BUSY_SPIN {
+    @Override
+    void idle(int attempt) {
+      // spin
+    }
+  },
+
+  /**
+   * Spins for a while, then yields the CPU to other threads between polls.
+   */
+  YIELD {
+    @Override
+    void idle(int attempt) {
+      if (attempt > SPIN_TRIES) {
+        Thread.yield();
+      }
+    }
+  },
+
+  /**
+   * Spins and yields for a while, then parks with a growing timeout. Frees the CPU when the queue
+   * stays full or empty, at the cost of up to a millisecond of latency.
+   */
+  PARK {
+    @Override
+    void idle(int attempt) {
+      if (attempt > 2 * SPIN_TRIES) {
+        int shift = Math.min(attempt - 2 * SPIN_TRIES, 10);
+        LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << shift));
+      } else if (attempt > SPIN_TRIES) {
+        Thread.yield();
+      }
+    }
+  };
+
+  private static final int SPIN_TRIES = 100;
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /**
+   * Waits before the next poll.
+   * @param attempt number of unsuccessful polls so far, starting at 1
+   */
+  abstract void idle(int attempt);
+}
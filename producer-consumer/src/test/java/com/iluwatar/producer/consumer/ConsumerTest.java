@@ -24,6 +24,7 @@ package com.iluwatar.producer.consumer;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -40,7 +41,7 @@ public class ConsumerTest {
 
   @Test
   public void testConsume() throws Exception {
-    final ItemQueue queue = spy(new ItemQueue());
+    final ItemQueue queue = spy(new BlockingItemQueue());
     for (int id = 0; id < ITEM_COUNT; id++) {
       queue.put(new Item("producer", id));
     }
@@ -55,4 +56,16 @@ public class ConsumerTest {
     verify(queue, times(ITEM_COUNT)).take();
   }
 
+  @Test
+  public void testConsumeBatch() throws Exception {
+    final ItemQueue queue = new RingBufferItemQueue(8, ProducerType.SINGLE, WaitStrategy.YIELD);
+    for (int id = 0; id < ITEM_COUNT; id++) {
+      queue.put(new Item("producer", id));
+    }
+    final Consumer consumer = new Consumer("consumer", queue);
+
+    assertEquals(3, consumer.consumeBatch(3));
+    assertEquals(ITEM_COUNT - 3, consumer.consumeBatch(ITEM_COUNT));
+  }
+
 }
@@ -0,0 +1,182 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing {@link BlockingItemQueue} against {@link RingBufferItemQueue} with every
+ * {@link WaitStrategy}, for one producer and one consumer, four producers and one consumer, and four
+ * producers and four consumers. The one producer case runs with both {@link ProducerType}s, the
+ * others with {@link ProducerType#MULTI} only. Throughput mode reports operations per second, sample
+ * time mode the latency percentiles including p99 of a put or take.
+ * <p>
+ * Puts and takes time out after a millisecond and retry, so that no thread is left blocked when
+ * JMH ends an iteration.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemQueueBenchmark {
+
+  private static final Item ITEM = new Item("benchmark", 0);
+
+  @Param({"blocking", "ring-busy-spin", "ring-yield", "ring-park"})
+  private String engine;
+
+  @Param({"1024"})
+  private int capacity;
+
+  /**
+   * Queue shared by the threads of a group with a single producer.
+   */
+  @State(Scope.Group)
+  public static class SingleProducerQueue {
+
+    @Param({"SINGLE", "MULTI"})
+    private ProducerType producerType;
+
+    private ItemQueue queue;
+
+    @Setup
+    public void setUp(ItemQueueBenchmark benchmark) {
+      queue = benchmark.createQueue(producerType);
+    }
+  }
+
+  /**
+   * Queue shared by the threads of a group with several producers.
+   */
+  @State(Scope.Group)
+  public static class MultiProducerQueue {
+
+    private ItemQueue queue;
+
+    @Setup
+    public void setUp(ItemQueueBenchmark benchmark) {
+      queue = benchmark.createQueue(ProducerType.MULTI);
+    }
+  }
+
+  private ItemQueue createQueue(ProducerType producerType) {
+    switch (engine) {
+      case "ring-busy-spin":
+        return new RingBufferItemQueue(capacity, producerType, WaitStrategy.BUSY_SPIN);
+      case "ring-yield":
+        return new RingBufferItemQueue(capacity, producerType, WaitStrategy.YIELD);
+      case "ring-park":
+        return new RingBufferItemQueue(capacity, producerType, WaitStrategy.PARK);
+      default:
+        return new BlockingItemQueue(capacity);
+    }
+  }
+
+  @Benchmark
+  @Group("oneToOne")
+  @GroupThreads(1)
+  public void oneToOnePut(SingleProducerQueue state, Control control) throws InterruptedException {
+    put(state.queue, control);
+  }
+
+  @Benchmark
+  @Group("oneToOne")
+  @GroupThreads(1)
+  public Item oneToOneTake(SingleProducerQueue state, Control control) throws InterruptedException {
+    return take(state.queue, control);
+  }
+
+  @Benchmark
+  @Group("manyToOne")
+  @GroupThreads(4)
+  public void manyToOnePut(MultiProducerQueue state, Control control) throws InterruptedException {
+    put(state.queue, control);
+  }
+
+  @Benchmark
+  @Group("manyToOne")
+  @GroupThreads(1)
+  public Item manyToOneTake(MultiProducerQueue state, Control control) throws InterruptedException {
+    return take(state.queue, control);
+  }
+
+  @Benchmark
+  @Group("manyToMany")
+  @GroupThreads(4)
+  public void manyToManyPut(MultiProducerQueue state, Control control) throws InterruptedException {
+    put(state.queue, control);
+  }
+
+  @Benchmark
+  @Group("manyToMany")
+  @GroupThreads(4)
+  public Item manyToManyTake(MultiProducerQueue state, Control control) throws InterruptedException {
+    return take(state.queue, control);
+  }
+
+  private static void put(ItemQueue queue, Control control) throws InterruptedException {
+    while (!queue.offer(ITEM, 1, TimeUnit.MILLISECONDS) && !control.stopMeasurement) {
+      // retry until the iteration ends
+    }
+  }
+
+  private static Item take(ItemQueue queue, Control control) throws InterruptedException {
+    Item item = null;
+    while (item == null && !control.stopMeasurement) {
+      item = queue.poll(1, TimeUnit.MILLISECONDS);
+    }
+    return item;
+  }
+
+  /**
+   * Benchmark entry point
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(ItemQueueBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,201 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link RingBufferItemQueue}
+ */
+public class RingBufferItemQueueTest {
+
+  private static final int ITEMS_PER_PRODUCER = 20_000;
+
+  @Test
+  public void testFifoAndCapacity() throws Exception {
+    RingBufferItemQueue queue = new RingBufferItemQueue(5, ProducerType.SINGLE, WaitStrategy.BUSY_SPIN);
+    assertEquals(8, queue.getCapacity());
+    Item[] items = new Item[8];
+    for (int i = 0; i < items.length; i++) {
+      items[i] = new Item("producer", i);
+      queue.put(items[i]);
+    }
+    assertEquals(8, queue.size());
+    assertFalse(queue.offer(new Item("producer", 8), 10, TimeUnit.MILLISECONDS));
+    for (Item item : items) {
+      assertSame(item, queue.take());
+    }
+    assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    assertThrows(IllegalArgumentException.class, () -> new RingBufferItemQueue(0, ProducerType.MULTI,
+        WaitStrategy.PARK));
+  }
+
+  @Test
+  public void testBatches() throws Exception {
+    RingBufferItemQueue queue = new RingBufferItemQueue(4, ProducerType.MULTI, WaitStrategy.YIELD);
+    queue.putAll(Arrays.asList(new Item("p", 0), new Item("p", 1), new Item("p", 2)));
+    List<Item> drained = new ArrayList<>();
+    assertEquals(2, queue.drainTo(drained, 2));
+    assertEquals(1, queue.drainTo(drained, 10));
+    for (int i = 0; i < 3; i++) {
+      assertEquals(i, drained.get(i).getId());
+    }
+    assertThrows(IllegalArgumentException.class, () -> queue.drainTo(drained, 0));
+  }
+
+  @Test
+  public void testBatchLargerThanCapacity() {
+    assertTimeout(ofMillis(5000), () -> {
+      RingBufferItemQueue queue = new RingBufferItemQueue(4, ProducerType.SINGLE, WaitStrategy.PARK);
+      List<Item> batch = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        batch.add(new Item("p", i));
+      }
+      Thread producer = new Thread(() -> {
+        try {
+          queue.putAll(batch);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      producer.start();
+      List<Item> drained = new ArrayList<>();
+      while (drained.size() < 100) {
+        queue.drainTo(drained, 16);
+      }
+      producer.join();
+      for (int i = 0; i < 100; i++) {
+        assertEquals(i, drained.get(i).getId());
+      }
+    });
+  }
+
+  @Test
+  public void testManyProducersOneConsumerKeepsProducerOrder() {
+    assertTimeout(ofMillis(10000), () -> {
+      RingBufferItemQueue queue = new RingBufferItemQueue(64, ProducerType.MULTI, WaitStrategy.YIELD);
+      Thread[] producers = startProducers(queue, 4);
+      int[] lastIds = new int[4];
+      Arrays.fill(lastIds, -1);
+      List<Item> chunk = new ArrayList<>();
+      for (int consumed = 0; consumed < 4 * ITEMS_PER_PRODUCER;) {
+        chunk.clear();
+        consumed += queue.drainTo(chunk, 32);
+        for (Item item : chunk) {
+          int producer = Integer.parseInt(item.getProducer());
+          assertEquals(lastIds[producer] + 1, item.getId());
+          lastIds[producer] = item.getId();
+        }
+      }
+      join(producers);
+    });
+  }
+
+  @Test
+  public void testManyProducersManyConsumers() {
+    assertTimeout(ofMillis(10000), () -> {
+      // busy spinning needs a core per waiting thread, which the build machine may not have
+      for (WaitStrategy waitStrategy : new WaitStrategy[] {WaitStrategy.YIELD, WaitStrategy.PARK}) {
+        RingBufferItemQueue queue = new RingBufferItemQueue(64, ProducerType.MULTI, waitStrategy);
+        AtomicIntegerArray seen = new AtomicIntegerArray(4 * ITEMS_PER_PRODUCER);
+        Thread[] producers = startProducers(queue, 4);
+        Thread[] consumers = new Thread[4];
+        for (int i = 0; i < consumers.length; i++) {
+          consumers[i] = new Thread(() -> {
+            try {
+              for (int consumed = 0; consumed < ITEMS_PER_PRODUCER; consumed++) {
+                Item item = queue.take();
+                seen.incrementAndGet(Integer.parseInt(item.getProducer()) * ITEMS_PER_PRODUCER + item.getId());
+              }
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+          consumers[i].start();
+        }
+        join(producers);
+        join(consumers);
+        for (int i = 0; i < seen.length(); i++) {
+          assertEquals(1, seen.get(i), "Every item must be consumed exactly once");
+        }
+        assertEquals(0, queue.size());
+      }
+    });
+  }
+
+  @Test
+  public void testWaitingTakeIsInterruptible() throws Exception {
+    RingBufferItemQueue queue = new RingBufferItemQueue(4, ProducerType.SINGLE, WaitStrategy.PARK);
+    boolean[] interrupted = new boolean[1];
+    Thread consumer = new Thread(() -> {
+      try {
+        queue.take();
+      } catch (InterruptedException e) {
+        interrupted[0] = true;
+      }
+    });
+    consumer.start();
+    consumer.interrupt();
+    consumer.join(1000);
+    assertTrue(interrupted[0]);
+  }
+
+  private static Thread[] startProducers(ItemQueue queue, int count) {
+    Thread[] producers = new Thread[count];
+    for (int i = 0; i < count; i++) {
+      String name = String.valueOf(i);
+      producers[i] = new Thread(() -> {
+        try {
+          for (int id = 0; id < ITEMS_PER_PRODUCER; id++) {
+            queue.put(new Item(name, id));
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      producers[i].start();
+    }
+    return producers;
+  }
+
+  private static void join(Thread[] threads) throws InterruptedException {
+    for (Thread thread : threads) {
+      thread.join();
+    }
+  }
+}
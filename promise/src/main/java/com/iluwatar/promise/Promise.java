@@ -25,6 +25,8 @@ package com.iluwatar.promise;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -35,13 +37,14 @@ import java.util.function.Function;
  * of the final value, the asynchronous method returns a promise of having a value at some point 
  * in the future.
  * 
+ * <p>Any number of dependent promises and error handlers can be attached to a promise. They are
+ * run, in no particular order, by the thread fulfilling the promise, or by the executor passed
+ * when attaching them. No thread waits for a promise unless it calls {@link #get()}.
+ * 
  * @param <T> type of result.
  */
 public class Promise<T> extends PromiseSupport<T> {
 
-  private Runnable fulfillmentAction;
-  private Consumer<? super Throwable> exceptionHandler;
-
   /**
    * Creates a promise that will be fulfilled in future.
    */
@@ -49,39 +52,23 @@ public class Promise<T> extends PromiseSupport<T> {
   }
 
   /**
-   * Fulfills the promise with the provided value.
+   * Fulfills the promise with the provided value. Has no effect if the promise is fulfilled already.
    * @param value the fulfilled value that can be accessed using {@link #get()}.
    */
   @Override
   public void fulfill(T value) {
     super.fulfill(value);
-    postFulfillment();
   }
 
   /**
-   * Fulfills the promise with exception due to error in execution.
+   * Fulfills the promise with exception due to error in execution. Has no effect if the promise is
+   * fulfilled already.
    * @param exception the exception will be wrapped in {@link ExecutionException}
    *        when accessing the value using {@link #get()}.
    */
   @Override
   public void fulfillExceptionally(Exception exception) {
     super.fulfillExceptionally(exception);
-    handleException(exception);
-    postFulfillment();
-  }
-
-  private void handleException(Exception exception) {
-    if (exceptionHandler == null) {
-      return;
-    }
-    exceptionHandler.accept(exception);
-  }
-
-  private void postFulfillment() {
-    if (fulfillmentAction == null) {
-      return;
-    }
-    fulfillmentAction.run();
   }
 
   /**
@@ -110,19 +97,40 @@ public class Promise<T> extends PromiseSupport<T> {
    * @return a new promise.
    */
   public Promise<Void> thenAccept(Consumer<? super T> action) {
+    return thenAccept(action, null);
+  }
+
+  /**
+   * Returns a new promise that, when this promise is fulfilled normally, is fulfilled with 
+   * result of this promise as argument to the action provided.
+   * @param action action to be executed.
+   * @param executor the executor in which the action is run, or null to run it in the thread
+   *            fulfilling this promise.
+   * @return a new promise.
+   */
+  public Promise<Void> thenAccept(Consumer<? super T> action, Executor executor) {
     Promise<Void> dest = new Promise<>();
-    fulfillmentAction = new ConsumeAction(this, dest, action);
+    then(dest, executor, value -> {
+      action.accept(value);
+      dest.fulfill(null);
+    });
     return dest;
   }
   
   /**
-   * Set the exception handler on this promise.
+   * Adds an exception handler to this promise. It is called right away if the promise is fulfilled
+   * exceptionally already.
    * @param exceptionHandler a consumer that will handle the exception occurred while fulfilling
    *            the promise.
    * @return this
    */
   public Promise<T> onError(Consumer<? super Throwable> exceptionHandler) {
-    this.exceptionHandler = exceptionHandler;
+    whenComplete(() -> {
+      Object rawResult = rawResult();
+      if (isFailure(rawResult)) {
+        exceptionHandler.accept(exceptionOf(rawResult));
+      }
+    });
     return this;
   }
 
@@ -133,61 +141,118 @@ public class Promise<T> extends PromiseSupport<T> {
    * @return a new promise.
    */
   public <V> Promise<V> thenApply(Function<? super T, V> func) {
+    return thenApply(func, null);
+  }
+
+  /**
+   * Returns a new promise that, when this promise is fulfilled normally, is fulfilled with 
+   * result of this promise as argument to the function provided.
+   * @param func function to be executed.
+   * @param executor the executor in which the function is run, or null to run it in the thread
+   *            fulfilling this promise.
+   * @return a new promise.
+   */
+  public <V> Promise<V> thenApply(Function<? super T, V> func, Executor executor) {
     Promise<V> dest = new Promise<>();
-    fulfillmentAction = new TransformAction<V>(this, dest, func);
+    then(dest, executor, value -> dest.fulfill(func.apply(value)));
     return dest;
   }
 
   /**
-   * Accesses the value from source promise and calls the consumer, then fulfills the
-   * destination promise.
+   * Returns a new promise that, when this promise is fulfilled normally, is fulfilled like the
+   * promise returned by the function provided for the result of this promise.
+   * @param func function returning the next promise.
+   * @return a new promise.
    */
-  private class ConsumeAction implements Runnable {
+  public <V> Promise<V> thenCompose(Function<? super T, Promise<V>> func) {
+    return thenCompose(func, null);
+  }
 
-    private final Promise<T> src;
-    private final Promise<Void> dest;
-    private final Consumer<? super T> action;
+  /**
+   * Returns a new promise that, when this promise is fulfilled normally, is fulfilled like the
+   * promise returned by the function provided for the result of this promise.
+   * @param func function returning the next promise.
+   * @param executor the executor in which the function is run, or null to run it in the thread
+   *            fulfilling this promise.
+   * @return a new promise.
+   */
+  public <V> Promise<V> thenCompose(Function<? super T, Promise<V>> func, Executor executor) {
+    Promise<V> dest = new Promise<>();
+    then(dest, executor, value -> {
+      Promise<V> next = func.apply(value);
+      next.whenComplete(() -> dest.complete(next.rawResult()));
+    });
+    return dest;
+  }
 
-    private ConsumeAction(Promise<T> src, Promise<Void> dest, Consumer<? super T> action) {
-      this.src = src;
-      this.dest = dest;
-      this.action = action;
+  /**
+   * Returns a new promise that is fulfilled once all promises provided are fulfilled normally, or
+   * exceptionally as soon as one of them is fulfilled exceptionally.
+   * @param promises the promises to wait for.
+   * @return a new promise.
+   */
+  public static Promise<Void> allOf(Promise<?>... promises) {
+    Promise<Void> all = new Promise<>();
+    AtomicInteger remaining = new AtomicInteger(promises.length);
+    for (Promise<?> promise : promises) {
+      promise.whenComplete(() -> {
+        Object rawResult = promise.rawResult();
+        if (isFailure(rawResult)) {
+          all.complete(rawResult);
+        } else if (remaining.decrementAndGet() == 0) {
+          all.fulfill(null);
+        }
+      });
     }
-
-    @Override
-    public void run() {
-      try {
-        action.accept(src.get());
-        dest.fulfill(null);
-      } catch (Throwable throwable) {
-        dest.fulfillExceptionally((Exception) throwable.getCause());
-      }
+    if (promises.length == 0) {
+      all.fulfill(null);
     }
+    return all;
   }
 
   /**
-   * Accesses the value from source promise, then fulfills the destination promise using the
-   * transformed value. The source value is transformed using the transformation function.
+   * Returns a new promise that is fulfilled like the first of the promises provided that is
+   * fulfilled.
+   * @param promises the promises to wait for.
+   * @return a new promise.
    */
-  private class TransformAction<V> implements Runnable {
-
-    private final Promise<T> src;
-    private final Promise<V> dest;
-    private final Function<? super T, V> func;
-
-    private TransformAction(Promise<T> src, Promise<V> dest, Function<? super T, V> func) {
-      this.src = src;
-      this.dest = dest;
-      this.func = func;
+  public static Promise<Object> anyOf(Promise<?>... promises) {
+    Promise<Object> any = new Promise<>();
+    for (Promise<?> promise : promises) {
+      promise.whenComplete(() -> any.complete(promise.rawResult()));
     }
+    return any;
+  }
 
-    @Override
-    public void run() {
-      try {
-        dest.fulfill(func.apply(src.get()));
-      } catch (Throwable throwable) {
-        dest.fulfillExceptionally((Exception) throwable.getCause());
+  /*
+   * Once this promise is fulfilled normally the step is run with its value, in the executor if one
+   * is given. If this promise is fulfilled exceptionally, or the step throws, the destination is
+   * fulfilled with the exception instead.
+   */
+  private void then(Promise<?> dest, Executor executor, Consumer<? super T> step) {
+    whenComplete(() -> {
+      Object rawResult = rawResult();
+      if (isFailure(rawResult)) {
+        dest.complete(rawResult);
+        return;
       }
-    }
+      Runnable continuation = () -> {
+        try {
+          step.accept(valueOf(rawResult));
+        } catch (Throwable throwable) {
+          dest.fulfillExceptionally(throwable instanceof Exception ? (Exception) throwable
+              : new ExecutionException(throwable));
+        }
+      };
+      if (executor == null) {
+        continuation.run();
+      } else {
+        try {
+          executor.execute(continuation);
+        } catch (RejectedExecutionException e) {
+          dest.fulfillExceptionally(e);
+        }
+      }
+    });
   }
-}
\ No newline at end of file
+}
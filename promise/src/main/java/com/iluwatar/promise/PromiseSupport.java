@@ -26,6 +26,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,39 +35,182 @@ import org.slf4j.LoggerFactory;
 /**
  * A really simplified implementation of future that allows completing it successfully with a value 
  * or exceptionally with an exception.
+ * 
+ * <p>The future is a lock-free state machine: the result moves from null to its final value with a
+ * single compare-and-set, and actions waiting for the result are pushed on a lock-free stack of
+ * dependents. Whoever completes the future pops and runs the dependents; an action added after
+ * completion runs right away. Only {@link #get()} blocks, and it does so by parking the calling
+ * thread until its waiter dependent unparks it. A waiter that gives up, on timeout or interrupt,
+ * unlinks its dependent again.
  */
 class PromiseSupport<T> implements Future<T> {
   
   private static final Logger LOGGER = LoggerFactory.getLogger(PromiseSupport.class);
 
-  private static final int RUNNING = 1;
-  private static final int FAILED = 2;
-  private static final int COMPLETED = 3;
+  /**
+   * Result of a promise fulfilled with null, so that null can mean "not fulfilled yet".
+   */
+  private static final Object NULL = new Object();
 
-  private final Object lock;
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<PromiseSupport, Object> RESULT =
+      AtomicReferenceFieldUpdater.newUpdater(PromiseSupport.class, Object.class, "result");
 
-  private volatile int state = RUNNING;
-  private T value;
-  private Exception exception;
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<PromiseSupport, Dependent> STACK =
+      AtomicReferenceFieldUpdater.newUpdater(PromiseSupport.class, Dependent.class, "stack");
+
+  /**
+   * Result of a promise fulfilled exceptionally.
+   */
+  private static final class Failure {
+    final Exception exception;
+
+    Failure(Exception exception) {
+      this.exception = exception;
+    }
+  }
+
+  /**
+   * An action or a blocked thread waiting for the result, linked to the dependent pushed before it.
+   */
+  private static final class Dependent {
+    final Runnable action;
+    volatile Thread waiter;
+    volatile Dependent next;
+
+    Dependent(Runnable action) {
+      this.action = action;
+    }
+
+    Dependent(Thread waiter) {
+      this.action = null;
+      this.waiter = waiter;
+    }
+
+    void run() {
+      if (action != null) {
+        action.run();
+      } else {
+        Thread thread = waiter;
+        if (thread != null) {
+          LockSupport.unpark(thread);
+        }
+      }
+    }
+
+    boolean isRemoved() {
+      return action == null && waiter == null;
+    }
+  }
+
+  private volatile Object result;
+  private volatile Dependent stack;
 
   PromiseSupport() {
-    this.lock = new Object();
   }
 
   void fulfill(T value) {
-    this.value = value;
-    this.state = COMPLETED;
-    synchronized (lock) {
-      lock.notifyAll();
-    }
+    complete(value == null ? NULL : value);
   }
 
   void fulfillExceptionally(Exception exception) {
-    this.exception = exception;
-    this.state = FAILED;
-    synchronized (lock) {
-      lock.notifyAll();
+    complete(new Failure(exception));
+  }
+
+  /**
+   * Sets the raw result unless the promise is fulfilled already, and runs the dependents.
+   * 
+   * @return true if this call fulfilled the promise.
+   */
+  boolean complete(Object rawResult) {
+    if (!RESULT.compareAndSet(this, null, rawResult)) {
+      return false;
+    }
+    runDependents();
+    return true;
+  }
+
+  /**
+   * Runs the action once the promise is fulfilled, in the thread fulfilling it. If the promise is
+   * fulfilled already the action runs right away in the calling thread.
+   */
+  void whenComplete(Runnable action) {
+    if (result != null) {
+      action.run();
+      return;
     }
+    push(new Dependent(action));
+  }
+
+  private void push(Dependent dependent) {
+    do {
+      dependent.next = stack;
+    } while (!STACK.compareAndSet(this, dependent.next, dependent));
+    if (result != null) {
+      // fulfilled while pushing, the fulfilling thread may have missed the dependent. A waiter
+      // sees the result itself and must not be unparked.
+      dependent.waiter = null;
+      runDependents();
+    }
+  }
+
+  /**
+   * Unlinks the waiter and any other waiter that gave up from the stack of dependents.
+   */
+  private void removeWaiter(Dependent node) {
+    node.waiter = null;
+    retry:
+    while (true) {
+      Dependent pred = null;
+      Dependent current = stack;
+      while (current != null) {
+        Dependent next = current.next;
+        if (!current.isRemoved()) {
+          pred = current;
+        } else if (pred != null) {
+          pred.next = next;
+          if (pred.isRemoved()) {
+            // the predecessor was removed concurrently, start over
+            continue retry;
+          }
+        } else if (!STACK.compareAndSet(this, current, next)) {
+          continue retry;
+        }
+        current = next;
+      }
+      return;
+    }
+  }
+
+  private void runDependents() {
+    Dependent dependent;
+    while ((dependent = stack) != null) {
+      if (STACK.compareAndSet(this, dependent, dependent.next)) {
+        dependent.next = null;
+        dependent.run();
+      }
+    }
+  }
+
+  /**
+   * @return the raw result, or null if the promise is not fulfilled yet.
+   */
+  Object rawResult() {
+    return result;
+  }
+
+  static boolean isFailure(Object rawResult) {
+    return rawResult instanceof Failure;
+  }
+
+  static Exception exceptionOf(Object rawResult) {
+    return ((Failure) rawResult).exception;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> T valueOf(Object rawResult) {
+    return rawResult == NULL ? null : (T) rawResult;
   }
 
   @Override
@@ -80,39 +225,67 @@ class PromiseSupport<T> implements Future<T> {
 
   @Override
   public boolean isDone() {
-    return state > RUNNING;
+    return result != null;
   }
 
   @Override
   public T get() throws InterruptedException, ExecutionException {
-    synchronized (lock) {
-      while (state == RUNNING) {
-        lock.wait();
+    Object rawResult = result;
+    if (rawResult == null) {
+      Dependent waiter = new Dependent(Thread.currentThread());
+      push(waiter);
+      try {
+        while ((rawResult = result) == null) {
+          LockSupport.park(this);
+          if (Thread.interrupted()) {
+            throw new InterruptedException();
+          }
+        }
+      } finally {
+        removeWaiter(waiter);
       }
     }
-    if (state == COMPLETED) {
-      return value;
-    } 
-    throw new ExecutionException(exception);
+    return report(rawResult);
   }
 
   @Override
   public T get(long timeout, TimeUnit unit)
       throws  ExecutionException, TimeoutException {
-    synchronized (lock) {
-      while (state == RUNNING) {
-        try {
-          lock.wait(unit.toMillis(timeout));
-        } catch (InterruptedException e) {
-          LOGGER.warn("Interrupted!", e);
-          Thread.currentThread().interrupt();
+    Object rawResult = result;
+    if (rawResult == null) {
+      Dependent waiter = new Dependent(Thread.currentThread());
+      push(waiter);
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      boolean interrupted = false;
+      try {
+        while ((rawResult = result) == null) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            break;
+          }
+          LockSupport.parkNanos(this, remaining);
+          if (Thread.interrupted()) {
+            LOGGER.warn("Interrupted!");
+            interrupted = true;
+          }
         }
+      } finally {
+        removeWaiter(waiter);
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      if (rawResult == null) {
+        throw new TimeoutException();
       }
     }
-    
-    if (state == COMPLETED) {
-      return value;
-    } 
-    throw new ExecutionException(exception);
+    return report(rawResult);
+  }
+
+  private T report(Object rawResult) throws ExecutionException {
+    if (isFailure(rawResult)) {
+      throw new ExecutionException(exceptionOf(rawResult));
+    }
+    return valueOf(rawResult);
   }
-}
\ No newline at end of file
+}
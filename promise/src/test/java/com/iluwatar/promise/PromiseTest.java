@@ -31,11 +31,18 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Matchers.eq;
@@ -234,6 +241,21 @@ public class PromiseTest {
     promise.get(1000, TimeUnit.SECONDS);
   }
   
+  @Test
+  public void waitersThatGaveUpDoNotUnparkTheirThreadLater() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      assertThrows(TimeoutException.class, () -> promise.get(1, TimeUnit.MILLISECONDS));
+    }
+    Thread.currentThread().interrupt();
+    assertThrows(InterruptedException.class, () -> promise.get());
+
+    // runs the dependents left behind, if any, in this thread
+    promise.fulfill(NumberCrunchingTask.CRUNCHED_NUMBER);
+    long start = System.nanoTime();
+    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void exceptionHandlerIsCalledWhenPromiseIsFulfilledExceptionally() {
@@ -247,6 +269,73 @@ public class PromiseTest {
     verify(exceptionHandler).accept(eq(exception));
   }
 
+  @Test
+  public void allDependentPromisesAreFulfilled() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    Promise<Void> first = promise.thenAccept(value -> calls.incrementAndGet());
+    Promise<String> second = promise.thenApply(String::valueOf);
+    promise.onError(exception -> calls.addAndGet(100));
+    promise.fulfill(42);
+    Promise<Void> third = promise.thenAccept(value -> calls.incrementAndGet());
+
+    first.get();
+    third.get();
+    assertEquals("42", second.get());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void dependentPromiseIsRunInTheExecutorProvided() throws Exception {
+    AtomicReference<Thread> thread = new AtomicReference<>();
+    Promise<Void> dependentPromise = promise.thenAccept(value -> thread.set(Thread.currentThread()),
+        executor);
+    promise.fulfill(1);
+
+    dependentPromise.get();
+    assertNotSame(Thread.currentThread(), thread.get());
+  }
+
+  @Test
+  public void composedPromiseIsFulfilledWithTheResultOfTheNextPromise() throws Exception {
+    Promise<String> composed = promise
+        .fulfillInAsync(new NumberCrunchingTask(), executor)
+        .thenCompose(value -> new Promise<String>().fulfillInAsync(() -> "crunched " + value,
+            executor));
+
+    assertEquals("crunched " + NumberCrunchingTask.CRUNCHED_NUMBER, composed.get());
+  }
+
+  @Test
+  public void allOfIsFulfilledWhenAllPromisesAreFulfilled() throws Exception {
+    Promise<String> other = new Promise<>();
+    Promise<Void> all = Promise.allOf(promise, other);
+    promise.fulfill(1);
+    assertFalse(all.isDone());
+    other.fulfill(null);
+    assertNull(all.get());
+
+    Promise<Integer> failing = new Promise<>();
+    Promise<Void> failed = Promise.allOf(failing, new Promise<String>());
+    Exception exception = new Exception("barf!");
+    failing.fulfillExceptionally(exception);
+    ExecutionException thrown = assertThrows(ExecutionException.class, failed::get);
+    assertSame(exception, thrown.getCause());
+  }
+
+  @Test
+  public void anyOfIsFulfilledWithTheFirstResult() throws Exception {
+    Promise<String> other = new Promise<>();
+    Promise<Object> any = Promise.anyOf(promise, other);
+    other.fulfill("first");
+    promise.fulfill(2);
+    assertEquals("first", any.get());
+  }
+
+  @Test
+  public void waitingForAPromiseTimesOut() {
+    assertThrows(TimeoutException.class, () -> promise.get(10, TimeUnit.MILLISECONDS));
+  }
+
   private static class NumberCrunchingTask implements Callable<Integer> {
 
     private static final Integer CRUNCHED_NUMBER = Integer.MAX_VALUE;
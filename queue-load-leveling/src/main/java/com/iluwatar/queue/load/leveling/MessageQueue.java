@@ -22,8 +22,14 @@
  */
 package com.iluwatar.queue.load.leveling;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,30 +39,81 @@ import org.slf4j.LoggerFactory;
  * MessageQueue class.
  * In this class we will create a Blocking Queue and 
  * submit/retrieve all the messages from it.
+ * What happens to a message submitted while the queue is full is decided by the {@link OverflowPolicy}.
  */
-public class MessageQueue {
+public class MessageQueue implements Closeable {
   
   private static final Logger LOGGER = LoggerFactory.getLogger(App.class);
+
+  public static final int DEFAULT_CAPACITY = 1024;
   
   private final BlockingQueue<Message> blkQueue;
+  private final OverflowPolicy overflowPolicy;
+  private final SpillFile spillFile;
+  private final RateMeter arrivals = new RateMeter();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder spilled = new LongAdder();
   
-  // Default constructor when called creates Blocking Queue object. 
+  /**
+   * Default constructor when called creates Blocking Queue object, rejecting messages while it is full.
+   */
   public MessageQueue() {
-    this.blkQueue = new ArrayBlockingQueue<Message>(1024);
+    this.blkQueue = new ArrayBlockingQueue<>(DEFAULT_CAPACITY);
+    this.overflowPolicy = OverflowPolicy.REJECT;
+    this.spillFile = null;
   }
-  
+
+  /**
+   * Creates a queue, spilling to a temporary file if the policy is {@link OverflowPolicy#SPILL_TO_DISK}.
+   */
+  public MessageQueue(int capacity, OverflowPolicy overflowPolicy) throws IOException {
+    this(capacity, overflowPolicy,
+        overflowPolicy == OverflowPolicy.SPILL_TO_DISK ? Files.createTempFile("message-queue", ".spill") : null);
+  }
+
+  /**
+   * Creates a queue.
+   *
+   * @param capacity number of messages held in memory
+   * @param overflowPolicy what to do with messages submitted while the queue is full
+   * @param spillPath file for messages that do not fit in memory, only used to spill to disk
+   * @throws IOException if the spill file cannot be created
+   */
+  public MessageQueue(int capacity, OverflowPolicy overflowPolicy, Path spillPath) throws IOException {
+    this.blkQueue = new ArrayBlockingQueue<>(capacity);
+    this.overflowPolicy = overflowPolicy;
+    this.spillFile = overflowPolicy == OverflowPolicy.SPILL_TO_DISK ? new SpillFile(spillPath) : null;
+  }
+
   /**
    * All the TaskGenerator threads will call this method to insert the
    * Messages in to the Blocking Queue. 
+   *
+   * @return false if the message has not been accepted
    */
-  public void submitMsg(Message msg) {
-    try {
-      if (null != msg) {
-        blkQueue.add(msg);
-      }
-    } catch (Exception e) {
-      LOGGER.error(e.getMessage());
+  public boolean submitMsg(Message msg) {
+    if (null == msg) {
+      return false;
     }
+    boolean accepted;
+    switch (overflowPolicy) {
+      case BLOCK:
+        accepted = put(msg);
+        break;
+      case SPILL_TO_DISK:
+        accepted = offerOrSpill(msg);
+        break;
+      default:
+        accepted = blkQueue.offer(msg);
+        break;
+    }
+    if (accepted) {
+      arrivals.mark();
+    } else {
+      rejected.increment();
+      LOGGER.error("Queue full, rejected " + msg);
+    }
+    return accepted;
   }
   
   /**
@@ -65,13 +122,107 @@ public class MessageQueue {
    * Retrieves and removes the head of this queue, or returns null if this queue is empty.
    */
   public Message retrieveMsg() {
-    Message retrievedMsg = null;
+    refillFromSpill();
+    Message retrievedMsg = blkQueue.poll();
+    refillFromSpill();
+    return retrievedMsg;
+  }
+
+  /**
+   * Retrieves and removes the head of this queue, waiting up to the given time for a message.
+   *
+   * @return the message, or null if the time elapsed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public Message retrieveMsg(long timeout, TimeUnit unit) throws InterruptedException {
+    refillFromSpill();
+    Message retrievedMsg = blkQueue.poll(timeout, unit);
+    refillFromSpill();
+    return retrievedMsg;
+  }
+
+  /**
+   * @return number of messages waiting, in memory and spilled to disk
+   */
+  public long size() {
+    return blkQueue.size() + (spillFile == null ? 0 : spillFile.getPending());
+  }
+
+  /**
+   * @return accepted messages per second
+   */
+  public double getArrivalRate() {
+    return arrivals.getRate();
+  }
+
+  public long getArrivedCount() {
+    return arrivals.getCount();
+  }
+
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  public long getSpilledCount() {
+    return spilled.sum();
+  }
+
+  /**
+   * Deletes the spill file, messages still spilled are lost.
+   */
+  @Override
+  public void close() throws IOException {
+    if (spillFile != null) {
+      spillFile.close();
+    }
+  }
+
+  private boolean put(Message msg) {
     try {
-      retrievedMsg = blkQueue.poll();
-    } catch (Exception e) {
-      LOGGER.error(e.getMessage());
+      blkQueue.put(msg);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Once a message has been spilled, later messages are spilled as well until the spilled ones are back in memory,
+   * which keeps the messages in order.
+   */
+  private boolean offerOrSpill(Message msg) {
+    if (spillFile.getPending() == 0 && blkQueue.offer(msg)) {
+      return true;
+    }
+    synchronized (spillFile) {
+      if (spillFile.getPending() == 0 && blkQueue.offer(msg)) {
+        return true;
+      }
+      try {
+        spillFile.append(msg);
+        spilled.increment();
+        return true;
+      } catch (IOException e) {
+        LOGGER.error("Could not spill message: " + e.getMessage());
+        return false;
+      }
+    }
+  }
+
+  private void refillFromSpill() {
+    if (spillFile == null || spillFile.getPending() == 0) {
+      return;
+    }
+    synchronized (spillFile) {
+      try {
+        Message msg;
+        while ((msg = spillFile.peek()) != null && blkQueue.offer(msg)) {
+          spillFile.remove();
+        }
+      } catch (IOException e) {
+        LOGGER.error("Could not read spilled message: " + e.getMessage());
+      }
     }
-    
-    return retrievedMsg;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.queue.load.leveling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts events and estimates their rate per second as an exponentially weighted moving average
+ * over roughly the last ten seconds. The average is brought up to date lazily, whenever an event
+ * is counted or the rate is read, so the meter needs no timer thread.
+ */
+public class RateMeter {
+
+  private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final double ALPHA = 1 - Math.exp(-1.0 / 10);
+
+  private final LongSupplier clock;
+  private final LongAdder count = new LongAdder();
+  private final LongAdder uncounted = new LongAdder();
+  private final AtomicLong lastTick;
+  private volatile double rate;
+  private volatile boolean initialized;
+
+  public RateMeter() {
+    this(System::nanoTime);
+  }
+
+  RateMeter(LongSupplier clock) {
+    this.clock = clock;
+    this.lastTick = new AtomicLong(clock.getAsLong());
+  }
+
+  /**
+   * Counts one event.
+   */
+  public void mark() {
+    tickIfNecessary();
+    count.increment();
+    uncounted.increment();
+  }
+
+  /**
+   * @return total number of events
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return events per second, averaged over roughly the last ten seconds
+   */
+  public double getRate() {
+    tickIfNecessary();
+    return rate;
+  }
+
+  private void tickIfNecessary() {
+    long last = lastTick.get();
+    long age = clock.getAsLong() - last;
+    if (age < TICK_NANOS) {
+      return;
+    }
+    long ticks = age / TICK_NANOS;
+    if (!lastTick.compareAndSet(last, last + ticks * TICK_NANOS)) {
+      return;
+    }
+    double current = uncounted.sumThenReset();
+    for (long i = 0; i < ticks; i++) {
+      if (initialized) {
+        rate += ALPHA * (current - rate);
+      } else {
+        rate = current;
+        initialized = true;
+      }
+      current = 0;
+    }
+  }
+}
@@ -23,6 +23,11 @@
 
 package com.iluwatar.queue.load.leveling;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,37 +36,172 @@ import org.slf4j.LoggerFactory;
  *  ServiceExecuotr class.
  *  This class will pick up Messages one by one from 
  *  the Blocking Queue and process them.
+ *  <p>
+ *  Workers block on the queue, so a message is served as soon as it arrives. Started with {@link #start()}, the
+ *  executor runs between a minimum and a maximum number of workers: a worker that finds more than
+ *  {@link #SCALE_UP_DEPTH} messages waiting per worker starts another one, and a worker that has been idle for the
+ *  keep-alive time retires while there are more than the minimum.
+ *  </p>
  */
 public class ServiceExecutor implements Runnable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(App.class);
 
+  public static final int SCALE_UP_DEPTH = 8;
+  public static final long DEFAULT_KEEP_ALIVE_MILLIS = 1000;
+
   private final MessageQueue msgQueue;
+  private final int minWorkers;
+  private final int maxWorkers;
+  private final long keepAliveMillis;
+  private final AtomicInteger workerCount = new AtomicInteger();
+  private final AtomicInteger workerIndex = new AtomicInteger();
+  private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+  private final RateMeter services = new RateMeter();
+  private volatile boolean running = true;
 
   public ServiceExecutor(MessageQueue msgQueue) {
+    this(msgQueue, 1, 1, DEFAULT_KEEP_ALIVE_MILLIS);
+  }
+
+  /**
+   * Creates an elastic executor, its workers are started by {@link #start()}.
+   *
+   * @param msgQueue queue to serve
+   * @param minWorkers number of workers kept while idle
+   * @param maxWorkers maximum number of workers
+   * @param keepAliveMillis idle time after which a worker above the minimum retires
+   */
+  public ServiceExecutor(MessageQueue msgQueue, int minWorkers, int maxWorkers, long keepAliveMillis) {
+    if (minWorkers < 0 || maxWorkers < Math.max(1, minWorkers) || keepAliveMillis <= 0) {
+      throw new IllegalArgumentException("Invalid worker count or keep-alive time");
+    }
     this.msgQueue = msgQueue;
+    this.minWorkers = minWorkers;
+    this.maxWorkers = maxWorkers;
+    this.keepAliveMillis = keepAliveMillis;
   }
 
   /**
    * The ServiceExecutor thread will retrieve each message and process it.
    */
   public void run() {
+    workerCount.incrementAndGet();
+    work();
+  }
+
+  /**
+   * Starts the minimum number of workers, at least one.
+   */
+  public void start() {
+    for (int i = 0; i < Math.max(1, minWorkers); i++) {
+      startWorker();
+    }
+  }
+
+  /**
+   * Stops the workers once the queue is empty.
+   *
+   * @return true if all workers stopped within the given time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+    running = false;
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (Thread worker : workers) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining > 0) {
+        TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+      }
+    }
+    return workerCount.get() == 0;
+  }
+
+  /**
+   * Serves one message.
+   */
+  protected void serve(Message msg) {
+    LOGGER.info(msg.toString() + " is served.");
+  }
+
+  public int getWorkerCount() {
+    return workerCount.get();
+  }
+
+  /**
+   * @return served messages per second
+   */
+  public double getServiceRate() {
+    return services.getRate();
+  }
+
+  public long getServedCount() {
+    return services.getCount();
+  }
+
+  private boolean startWorker() {
+    int count;
+    do {
+      count = workerCount.get();
+      if (count >= maxWorkers) {
+        return false;
+      }
+    } while (!workerCount.compareAndSet(count, count + 1));
+    Thread worker = new Thread(() -> {
+      try {
+        work();
+      } finally {
+        workers.remove(Thread.currentThread());
+      }
+    }, "service-executor-" + workerIndex.incrementAndGet());
+    worker.setDaemon(true);
+    workers.add(worker);
+    worker.start();
+    return true;
+  }
+
+  private boolean retire() {
+    int count;
+    do {
+      count = workerCount.get();
+      if (count <= minWorkers && running) {
+        return false;
+      }
+    } while (!workerCount.compareAndSet(count, count - 1));
+    return true;
+  }
+
+  private void work() {
+    boolean retired = false;
     try {
       while (!Thread.currentThread().isInterrupted()) {
-        Message msg = msgQueue.retrieveMsg();
-
-        if (null != msg) {
-          LOGGER.info(msg.toString() + " is served.");
-        } else {
-          LOGGER.info("Service Executor: Waiting for Messages to serve .. ");
+        Message msg = msgQueue.retrieveMsg(keepAliveMillis, TimeUnit.MILLISECONDS);
+        if (null == msg) {
+          if (retire()) {
+            retired = true;
+            return;
+          }
+          LOGGER.debug("Service Executor: Waiting for Messages to serve .. ");
+          continue;
+        }
+        if (msgQueue.size() > (long) workerCount.get() * SCALE_UP_DEPTH) {
+          startWorker();
+        }
+        try {
+          serve(msg);
+          services.mark();
+        } catch (RuntimeException e) {
+          LOGGER.error("Service Executor: Failed to serve " + msg, e);
         }
-
-        Thread.sleep(1000);
       }
     } catch (InterruptedException ie) {
       LOGGER.error(ie.getMessage());
     } catch (Exception e) {
-      LOGGER.error(e.getMessage());
+      LOGGER.error("Service Executor: Worker stopped", e);
+    } finally {
+      if (!retired) {
+        workerCount.decrementAndGet();
+      }
     }
   }
-}
\ No newline at end of file
+}
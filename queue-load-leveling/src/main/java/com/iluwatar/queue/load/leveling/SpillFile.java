@@ -0,0 +1,120 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.queue.load.leveling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * First-in first-out overflow store of {@link MessageQueue}. Messages are appended as length
+ * prefixed UTF-8 records and read back from the start; the file is truncated whenever it has been
+ * read completely, so it only grows while the queue stays full.
+ */
+class SpillFile implements Closeable {
+
+  private static final int NULL_LENGTH = -1;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+  private long readPosition;
+  private long writePosition;
+  private Message head;
+  private int headSize;
+  private volatile long pending;
+
+  SpillFile(Path path) throws IOException {
+    this.path = path;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  synchronized void append(Message msg) throws IOException {
+    byte[] text = msg.getMsg() == null ? new byte[0] : msg.getMsg().getBytes(StandardCharsets.UTF_8);
+    ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + text.length);
+    record.putInt(msg.getMsg() == null ? NULL_LENGTH : text.length).put(text).flip();
+    while (record.hasRemaining()) {
+      writePosition += channel.write(record, writePosition);
+    }
+    pending++;
+  }
+
+  /**
+   * @return the oldest spilled message without removing it, or null if there is none
+   */
+  synchronized Message peek() throws IOException {
+    if (pending == 0) {
+      return null;
+    }
+    if (head == null) {
+      header.clear();
+      readFully(header, readPosition);
+      int length = header.getInt(0);
+      ByteBuffer text = ByteBuffer.allocate(Math.max(0, length));
+      readFully(text, readPosition + Integer.BYTES);
+      head = new Message(length == NULL_LENGTH ? null : new String(text.array(), StandardCharsets.UTF_8));
+      headSize = Integer.BYTES + text.capacity();
+    }
+    return head;
+  }
+
+  /**
+   * Removes the oldest spilled message.
+   */
+  synchronized void remove() throws IOException {
+    if (peek() == null) {
+      return;
+    }
+    readPosition += headSize;
+    head = null;
+    if (--pending == 0) {
+      channel.truncate(0);
+      readPosition = 0;
+      writePosition = 0;
+    }
+  }
+
+  long getPending() {
+    return pending;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+    Files.deleteIfExists(path);
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Spill file " + path + " is truncated");
+      }
+    }
+  }
+}
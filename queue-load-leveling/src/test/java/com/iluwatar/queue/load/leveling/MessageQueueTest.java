@@ -24,7 +24,13 @@ package com.iluwatar.queue.load.leveling;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * 
@@ -45,4 +51,66 @@ public class MessageQueueTest {
     assertEquals(msgQueue.retrieveMsg().getMsg(), "MessageQueue Test");
   }
 
+  @Test
+  public void testRejectWhenFull() throws Exception {
+    MessageQueue msgQueue = new MessageQueue(1, OverflowPolicy.REJECT);
+    assertTrue(msgQueue.submitMsg(new Message("first")));
+    assertFalse(msgQueue.submitMsg(new Message("second")));
+    assertEquals(1, msgQueue.getArrivedCount());
+    assertEquals(1, msgQueue.getRejectedCount());
+    assertEquals("first", msgQueue.retrieveMsg().getMsg());
+    assertNull(msgQueue.retrieveMsg(10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testSpilledMessagesKeepTheirOrder() throws Exception {
+    try (MessageQueue msgQueue = new MessageQueue(2, OverflowPolicy.SPILL_TO_DISK)) {
+      for (int i = 0; i < 10; i++) {
+        assertTrue(msgQueue.submitMsg(new Message("Message-" + i)));
+      }
+      assertEquals(8, msgQueue.getSpilledCount());
+      assertEquals(10, msgQueue.size());
+      for (int i = 0; i < 5; i++) {
+        assertEquals("Message-" + i, msgQueue.retrieveMsg().getMsg());
+      }
+      msgQueue.submitMsg(new Message("Message-10"));
+      for (int i = 5; i <= 10; i++) {
+        assertEquals("Message-" + i, msgQueue.retrieveMsg().getMsg());
+      }
+      assertEquals(0, msgQueue.size());
+      assertNull(msgQueue.retrieveMsg());
+    }
+  }
+
+  @Test
+  public void testBlockWaitsForSpace() throws Exception {
+    MessageQueue msgQueue = new MessageQueue(1, OverflowPolicy.BLOCK);
+    msgQueue.submitMsg(new Message("first"));
+    Thread producer = new Thread(() -> msgQueue.submitMsg(new Message("second")));
+    producer.start();
+    producer.join(100);
+    assertTrue(producer.isAlive());
+    assertEquals("first", msgQueue.retrieveMsg().getMsg());
+    producer.join(1000);
+    assertFalse(producer.isAlive());
+    assertEquals("second", msgQueue.retrieveMsg().getMsg());
+    assertEquals(0, msgQueue.getRejectedCount());
+  }
+
+  @Test
+  public void testRateMeter() {
+    AtomicLong now = new AtomicLong();
+    RateMeter meter = new RateMeter(now::get);
+    for (int i = 0; i < 50; i++) {
+      meter.mark();
+    }
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertEquals(50, meter.getRate(), 0.001);
+    for (int i = 0; i < 10; i++) {
+      now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+      assertTrue(meter.getRate() < 50);
+    }
+    assertTrue(meter.getRate() > 0);
+    assertEquals(50, meter.getCount());
+  }
 }
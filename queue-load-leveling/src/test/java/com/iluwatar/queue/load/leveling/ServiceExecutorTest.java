@@ -0,0 +1,101 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.queue.load.leveling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the elastic {@link ServiceExecutor}
+ */
+public class ServiceExecutorTest {
+
+  @Test
+  public void testInvalidConfiguration() {
+    assertThrows(IllegalArgumentException.class, () -> new ServiceExecutor(new MessageQueue(), 2, 1, 100));
+  }
+
+  @Test
+  public void testWorkersScaleWithQueueDepth() throws Exception {
+    MessageQueue msgQueue = new MessageQueue();
+    CountDownLatch release = new CountDownLatch(1);
+    ServiceExecutor executor = new ServiceExecutor(msgQueue, 1, 4, 50) {
+      @Override
+      protected void serve(Message msg) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    for (int i = 0; i < 100; i++) {
+      msgQueue.submitMsg(new Message("Message-" + i));
+    }
+    executor.start();
+    awaitCondition(() -> executor.getWorkerCount() == 4);
+    release.countDown();
+
+    awaitCondition(() -> executor.getServedCount() == 100);
+    awaitCondition(() -> executor.getWorkerCount() == 1);
+    assertTrue(executor.shutdown(1, TimeUnit.SECONDS));
+    assertEquals(0, executor.getWorkerCount());
+    assertEquals(100, msgQueue.getArrivedCount());
+  }
+
+  @Test
+  public void testFailedMessageDoesNotStopWorker() throws Exception {
+    MessageQueue msgQueue = new MessageQueue();
+    ServiceExecutor executor = new ServiceExecutor(msgQueue, 1, 1, 50) {
+      @Override
+      protected void serve(Message msg) {
+        if (msg.getMsg().equals("Message-0")) {
+          throw new IllegalStateException("Cannot serve " + msg);
+        }
+      }
+    };
+    for (int i = 0; i < 3; i++) {
+      msgQueue.submitMsg(new Message("Message-" + i));
+    }
+    executor.start();
+
+    awaitCondition(() -> executor.getServedCount() == 2);
+    assertEquals(1, executor.getWorkerCount());
+    assertTrue(executor.shutdown(1, TimeUnit.SECONDS));
+  }
+
+  private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+}
@@ -27,11 +27,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.iluwatar.reactor.framework.AbstractNioChannel;
+import com.iluwatar.reactor.framework.BufferAllocator;
 import com.iluwatar.reactor.framework.ChannelHandler;
 import com.iluwatar.reactor.framework.Dispatcher;
 import com.iluwatar.reactor.framework.NioDatagramChannel;
 import com.iluwatar.reactor.framework.NioReactor;
 import com.iluwatar.reactor.framework.NioServerSocketChannel;
+import com.iluwatar.reactor.framework.PooledDirectBufferAllocator;
 import com.iluwatar.reactor.framework.ThreadPoolDispatcher;
 
 /**
@@ -95,6 +97,8 @@ public class App {
   private NioReactor reactor;
   private List<AbstractNioChannel> channels = new ArrayList<>();
   private Dispatcher dispatcher;
+  private int workerReactors;
+  private BufferAllocator allocator = new PooledDirectBufferAllocator(1024, 64);
 
   /**
    * Creates an instance of App which will use provided dispatcher for dispatching events on
@@ -103,7 +107,19 @@ public class App {
    * @param dispatcher the dispatcher that will be used to dispatch events.
    */
   public App(Dispatcher dispatcher) {
+    this(dispatcher, 0);
+  }
+
+  /**
+   * Creates an instance of App which accepts connections on one reactor and serves them on
+   * {@code workerReactors} worker reactors.
+   * 
+   * @param dispatcher the dispatcher that will be used to dispatch events.
+   * @param workerReactors number of worker reactors, or 0 to serve everything on one reactor.
+   */
+  public App(Dispatcher dispatcher, int workerReactors) {
     this.dispatcher = dispatcher;
+    this.workerReactors = workerReactors;
   }
 
   /**
@@ -122,7 +138,7 @@ public class App {
     /*
      * The application can customize its event dispatching mechanism.
      */
-    reactor = new NioReactor(dispatcher);
+    reactor = new NioReactor(dispatcher, workerReactors);
 
     /*
      * This represents application specific business logic that dispatcher will call on appropriate
@@ -154,14 +170,14 @@ public class App {
   }
 
   private AbstractNioChannel tcpChannel(int port, ChannelHandler handler) throws IOException {
-    NioServerSocketChannel channel = new NioServerSocketChannel(port, handler);
+    NioServerSocketChannel channel = new NioServerSocketChannel(port, handler, allocator);
     channel.bind();
     channels.add(channel);
     return channel;
   }
 
   private AbstractNioChannel udpChannel(int port, ChannelHandler handler) throws IOException {
-    NioDatagramChannel channel = new NioDatagramChannel(port, handler);
+    NioDatagramChannel channel = new NioDatagramChannel(port, handler, allocator);
     channel.bind();
     channels.add(channel);
     return channel;
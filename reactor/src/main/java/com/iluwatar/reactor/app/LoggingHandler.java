@@ -79,7 +79,10 @@ public class LoggingHandler implements ChannelHandler {
   }
 
   private static void doLogging(ByteBuffer data) {
+    // read buffers may be direct, so copy the content out instead of using the backing array
+    byte[] bytes = new byte[data.remaining()];
+    data.duplicate().get(bytes);
     // assuming UTF-8 :(
-    LOGGER.info(new String(data.array(), 0, data.limit()));
+    LOGGER.info(new String(bytes));
   }
 }
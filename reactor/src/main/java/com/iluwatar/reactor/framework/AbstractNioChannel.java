@@ -23,6 +23,7 @@
 package com.iluwatar.reactor.framework;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
@@ -30,6 +31,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This represents the <i>Handle</i> of Reactor pattern. These are resources managed by OS which can
@@ -41,14 +43,43 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  * concrete implementation. It provides a block writing mechanism wherein when any
  * {@link ChannelHandler} wants to write data back, it queues the data in pending write queue and
  * clears it in block manner. This provides better throughput.
+ * 
+ * <p>
+ * Incoming data is read into buffers obtained from the channel's {@link BufferAllocator}. The
+ * channel releases a read buffer once the handler has handled it, and releases written buffers once
+ * they have been written completely.
+ * 
+ * <p>
+ * The bytes queued for every connection are bounded by a pair of watermarks. Once more than the high
+ * watermark is queued the connection becomes unwritable, and it becomes writable again when the
+ * queue has drained to the low watermark. The {@link ChannelHandler} is notified of both changes so
+ * it can stop producing data for a slow peer, and the channel can optionally stop reading from the
+ * peer while it is unwritable.
  */
 public abstract class AbstractNioChannel {
 
+  public static final int DEFAULT_LOW_WATERMARK = 32 * 1024;
+  public static final int DEFAULT_HIGH_WATERMARK = 64 * 1024;
+
   private final SelectableChannel channel;
   private final ChannelHandler handler;
-  private final Map<SelectableChannel, Queue<Object>> channelToPendingWrites =
+  private final BufferAllocator allocator;
+  private final Map<SelectableChannel, PendingWrites> channelToPendingWrites =
       new ConcurrentHashMap<>();
   private NioReactor reactor;
+  private volatile int lowWatermark = DEFAULT_LOW_WATERMARK;
+  private volatile int highWatermark = DEFAULT_HIGH_WATERMARK;
+  private volatile boolean autoReadPaused;
+
+  /**
+   * The data queued for one connection together with its size in bytes.
+   */
+  private static class PendingWrites extends ConcurrentLinkedQueue<Object> {
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicLong bytes = new AtomicLong();
+    private boolean writable = true;
+  }
 
   /**
    * Creates a new channel.
@@ -57,8 +88,21 @@ public abstract class AbstractNioChannel {
    * @param channel a NIO channel to be wrapped.
    */
   public AbstractNioChannel(ChannelHandler handler, SelectableChannel channel) {
+    this(handler, channel, new HeapBufferAllocator(1024));
+  }
+
+  /**
+   * Creates a new channel reading into buffers of the provided allocator.
+   * 
+   * @param handler which will handle events occurring on this channel.
+   * @param channel a NIO channel to be wrapped.
+   * @param allocator the allocator read buffers are obtained from.
+   */
+  public AbstractNioChannel(ChannelHandler handler, SelectableChannel channel,
+      BufferAllocator allocator) {
     this.handler = handler;
     this.channel = channel;
+    this.allocator = allocator;
   }
 
   /**
@@ -108,23 +152,172 @@ public abstract class AbstractNioChannel {
     return handler;
   }
 
+  /**
+   * @return the allocator read buffers are obtained from.
+   */
+  public BufferAllocator getAllocator() {
+    return allocator;
+  }
+
+  /**
+   * Sets the number of queued bytes above which a connection becomes unwritable and the number of
+   * queued bytes at or below which it becomes writable again.
+   * 
+   * @param lowWatermark the low watermark in bytes.
+   * @param highWatermark the high watermark in bytes.
+   */
+  public void setWriteBufferWatermarks(int lowWatermark, int highWatermark) {
+    if (lowWatermark < 0 || highWatermark < lowWatermark) {
+      throw new IllegalArgumentException("Invalid watermarks: " + lowWatermark + "/" + highWatermark);
+    }
+    this.lowWatermark = lowWatermark;
+    this.highWatermark = highWatermark;
+  }
+
+  public int getLowWatermark() {
+    return lowWatermark;
+  }
+
+  public int getHighWatermark() {
+    return highWatermark;
+  }
+
+  /**
+   * When enabled the channel stops reading from a connection while it is unwritable, so a peer that
+   * does not read its replies cannot make the server queue ever more of them.
+   * 
+   * @param autoReadPaused true to pause reads of unwritable connections.
+   */
+  public void setAutoReadPaused(boolean autoReadPaused) {
+    this.autoReadPaused = autoReadPaused;
+  }
+
+  public boolean isAutoReadPaused() {
+    return autoReadPaused;
+  }
+
+  /**
+   * @param key the key of the connection.
+   * @return false if more than the high watermark is queued for the connection and it has not
+   *         drained to the low watermark yet.
+   */
+  public boolean isWritable(SelectionKey key) {
+    PendingWrites pendingWrites = channelToPendingWrites.get(key.channel());
+    if (pendingWrites == null) {
+      return true;
+    }
+    synchronized (pendingWrites) {
+      return pendingWrites.writable;
+    }
+  }
+
+  /**
+   * @param key the key of the connection.
+   * @return the number of bytes queued for the connection and not written yet.
+   */
+  public long getPendingWriteBytes(SelectionKey key) {
+    PendingWrites pendingWrites = channelToPendingWrites.get(key.channel());
+    return pendingWrites == null ? 0 : pendingWrites.bytes.get();
+  }
+
+  /**
+   * Calls the handler to handle data read from this channel and releases the data afterwards.
+   * {@link Dispatcher}s should use this rather than calling the handler directly, otherwise pooled
+   * read buffers are never recycled.
+   * 
+   * @param readObject the data read.
+   * @param key the key on which read event occurred.
+   */
+  public void handleRead(Object readObject, SelectionKey key) {
+    try {
+      handler.handleChannelRead(this, readObject, key);
+    } finally {
+      release(readObject);
+    }
+  }
+
+  /**
+   * Releases the buffers held by data that was read or written. Subclasses with their own message
+   * types override this to release the buffers those messages carry.
+   * 
+   * @param data data that is no longer used by the channel.
+   */
+  protected void release(Object data) {
+    if (data instanceof ByteBuffer) {
+      allocator.release((ByteBuffer) data);
+    }
+  }
+
   /*
    * Called from the context of reactor thread when the key becomes writable. The channel writes the
    * whole pending block of data at once.
    */
   void flush(SelectionKey key) throws IOException {
-    Queue<Object> pendingWrites = channelToPendingWrites.get(key.channel());
-    while (true) {
-      Object pendingWrite = pendingWrites.poll();
-      if (pendingWrite == null) {
-        // We don't have anything more to write so channel is interested in reading more data
-        reactor.changeOps(key, SelectionKey.OP_READ);
-        break;
+    PendingWrites pendingWrites = channelToPendingWrites.get(key.channel());
+    boolean wasWritable = isWritable(key);
+    if (doFlush(pendingWrites, key)) {
+      // We don't have anything more to write so channel is interested in reading more data
+      reactor.changeOps(key, interestedOps(pendingWrites, false));
+      if (!pendingWrites.isEmpty()) {
+        // a handler queued data after the queue was drained, but before the change of ops
+        reactor.changeOps(key, interestedOps(pendingWrites, true));
       }
+    } else if (wasWritable != isWritable(key)) {
+      // drained below the low watermark, resume reading if it was paused
+      reactor.changeOps(key, interestedOps(pendingWrites, true));
+    }
+  }
 
+  /**
+   * Writes as much of the pending data as possible. By default each pending write is handed to
+   * {@link #doWrite(Object, SelectionKey)} on its own; subclasses can write several at once.
+   * 
+   * @param pendingWrites the data queued for the channel of the key, oldest first.
+   * @param key the key which is writable.
+   * @return true if all pending data has been written, false if the channel is still interested
+   *         in writing.
+   * @throws IOException if any I/O error occurs.
+   */
+  protected boolean doFlush(Queue<Object> pendingWrites, SelectionKey key) throws IOException {
+    Object pendingWrite;
+    while ((pendingWrite = pendingWrites.poll()) != null) {
+      long size = sizeOf(pendingWrite);
       // ask the concrete channel to make sense of data and write it to java channel
       doWrite(pendingWrite, key);
+      release(pendingWrite);
+      written(key, size);
     }
+    return true;
+  }
+
+  /**
+   * Accounts for bytes written by {@link #doFlush(Queue, SelectionKey)}. Subclasses overriding that
+   * method must call this for every write so the connection becomes writable again.
+   * 
+   * @param key the key which is writable.
+   * @param bytes the number of bytes written to the channel.
+   */
+  protected void written(SelectionKey key, long bytes) {
+    PendingWrites pendingWrites = channelToPendingWrites.get(key.channel());
+    if (pendingWrites != null && pendingWrites.bytes.addAndGet(-bytes) <= lowWatermark) {
+      setWritable(pendingWrites, key, true);
+    }
+  }
+
+  /**
+   * Returns the number of bytes the data occupies in the pending write queue. Subclasses with their
+   * own message types override this to count the bytes those messages carry.
+   * 
+   * @param data the data to be written on channel.
+   * @return the size of the data in bytes.
+   */
+  protected long sizeOf(Object data) {
+    if (data instanceof ByteBuffer) {
+      return ((ByteBuffer) data).remaining();
+    } else if (data instanceof FileRegion) {
+      return ((FileRegion) data).remaining();
+    }
+    return 0;
   }
 
   /**
@@ -155,21 +348,53 @@ public abstract class AbstractNioChannel {
    * </code>
    * </pre>
    * 
+   * <p>
+   * Writing never fails because the connection is unwritable; handlers that care about a slow peer
+   * check {@link #isWritable(SelectionKey)} or react to
+   * {@link ChannelHandler#handleChannelWritabilityChanged(AbstractNioChannel, SelectionKey, boolean)}.
+   * 
    * @param data the data to be written on underlying channel.
    * @param key the key which is writable.
    */
   public void write(Object data, SelectionKey key) {
-    Queue<Object> pendingWrites = this.channelToPendingWrites.get(key.channel());
+    PendingWrites pendingWrites = this.channelToPendingWrites.get(key.channel());
     if (pendingWrites == null) {
       synchronized (this.channelToPendingWrites) {
         pendingWrites = this.channelToPendingWrites.get(key.channel());
         if (pendingWrites == null) {
-          pendingWrites = new ConcurrentLinkedQueue<>();
+          pendingWrites = new PendingWrites();
           this.channelToPendingWrites.put(key.channel(), pendingWrites);
         }
       }
     }
+    long size = sizeOf(data);
     pendingWrites.add(data);
-    reactor.changeOps(key, SelectionKey.OP_WRITE);
+    if (pendingWrites.bytes.addAndGet(size) > highWatermark) {
+      setWritable(pendingWrites, key, false);
+    }
+    reactor.changeOps(key, interestedOps(pendingWrites, true));
+  }
+
+  /*
+   * Reads are wanted unless they are paused for an unwritable connection.
+   */
+  private int interestedOps(PendingWrites pendingWrites, boolean writePending) {
+    int ops = writePending ? SelectionKey.OP_WRITE : 0;
+    synchronized (pendingWrites) {
+      if (!autoReadPaused || pendingWrites.writable) {
+        ops |= SelectionKey.OP_READ;
+      }
+    }
+    return ops;
+  }
+
+  private void setWritable(PendingWrites pendingWrites, SelectionKey key, boolean writable) {
+    synchronized (pendingWrites) {
+      if (pendingWrites.writable == writable) {
+        return;
+      }
+      pendingWrites.writable = writable;
+    }
+    handler.handleChannelWritabilityChanged(this, key, writable);
   }
 }
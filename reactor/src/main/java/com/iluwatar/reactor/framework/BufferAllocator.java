@@ -0,0 +1,62 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Source of the {@link ByteBuffer}s channels read incoming data into. Buffers are reference
+ * counted: a freshly allocated buffer has a count of one, which the channel gives up once the
+ * {@link ChannelHandler} has handled the read event or once the buffer has been written to the
+ * peer. A handler that keeps a buffer beyond the read event, for example to write it back, must
+ * {@link #retain(ByteBuffer)} it first.
+ * 
+ * <p>
+ * Implementations must be thread-safe, as buffers are released from dispatcher threads.
+ * 
+ * @see HeapBufferAllocator
+ * @see PooledDirectBufferAllocator
+ */
+public interface BufferAllocator {
+
+  /**
+   * @return a cleared buffer ready to be read into, with a reference count of one.
+   */
+  ByteBuffer allocate();
+
+  /**
+   * Increments the reference count of the buffer. Buffers not allocated by this allocator are
+   * ignored.
+   * 
+   * @param buffer the buffer to be retained.
+   */
+  void retain(ByteBuffer buffer);
+
+  /**
+   * Decrements the reference count of the buffer and recycles it when the count drops to zero.
+   * Buffers not allocated by this allocator are ignored.
+   * 
+   * @param buffer the buffer to be released.
+   */
+  void release(ByteBuffer buffer);
+}
@@ -37,9 +37,30 @@ public interface ChannelHandler {
   /**
    * Called when the {@code channel} receives some data from remote peer.
    * 
+   * <p>
+   * The buffers carried by {@code readObject} belong to the channel's {@link BufferAllocator} and
+   * are released as soon as this method returns or throws, so they may be reused for the next read.
+   * A handler keeping the data beyond the call must copy it, or {@link BufferAllocator#retain} the
+   * buffer and release it once done.
+   * 
    * @param channel the channel from which the data was received.
    * @param readObject the data read.
    * @param key the key on which read event occurred.
    */
   void handleChannelRead(AbstractNioChannel channel, Object readObject, SelectionKey key);
+
+  /**
+   * Called when the data queued for a connection rises above the high watermark of the
+   * {@code channel}, or drains to its low watermark again. It is called on the thread that queued or
+   * wrote the data, so implementations must be quick and thread-safe.
+   * 
+   * @param channel the channel the connection belongs to.
+   * @param key the key of the connection.
+   * @param writable false if the connection became unwritable, true if it became writable again.
+   * @see AbstractNioChannel#setWriteBufferWatermarks(int, int)
+   */
+  default void handleChannelWritabilityChanged(AbstractNioChannel channel, SelectionKey key,
+      boolean writable) {
+    // writability changes are ignored by default
+  }
 }
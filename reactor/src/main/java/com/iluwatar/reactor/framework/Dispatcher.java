@@ -30,7 +30,7 @@ import java.nio.channels.SelectionKey;
  * connect, and then calls the {@link Dispatcher} to dispatch the read events. This decouples the
  * I/O processing from application specific processing. <br>
  * Dispatcher should call the {@link ChannelHandler} associated with the channel on which event
- * occurred.
+ * occurred, through {@link AbstractNioChannel#handleRead(Object, SelectionKey)}.
  * 
  * <p>
  * The application can customize the way in which event is dispatched such as using the reactor
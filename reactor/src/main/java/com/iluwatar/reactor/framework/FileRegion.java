@@ -0,0 +1,96 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A part of a file to be written to a TCP channel using {@link FileChannel#transferTo}, which lets
+ * the operating system send file content to the socket without copying it through user space.
+ * 
+ * <p>
+ * The region takes ownership of the file channel and closes it once it has been written completely.
+ */
+public class FileRegion {
+
+  private final FileChannel file;
+  private long position;
+  private long remaining;
+
+  /**
+   * Creates a region of {@code count} bytes starting at {@code position}.
+   * 
+   * @param file the file to be sent.
+   * @param position offset of the first byte to be sent.
+   * @param count number of bytes to be sent.
+   * @throws IOException if the size of the file cannot be read.
+   * @throws IllegalArgumentException if the region does not lie within the file.
+   */
+  public FileRegion(FileChannel file, long position, long count) throws IOException {
+    if (position < 0 || count < 0 || position > file.size() - count) {
+      throw new IllegalArgumentException("Region [" + position + ", " + position + " + " + count
+          + ") exceeds file size " + file.size());
+    }
+    this.file = file;
+    this.position = position;
+    this.remaining = count;
+  }
+
+  /**
+   * Transfers as much of the region as the target accepts without blocking.
+   * 
+   * @param target the channel to write to.
+   * @return number of bytes transferred.
+   * @throws EOFException if the file was truncated below the end of the region.
+   * @throws IOException if any I/O error occurs.
+   */
+  public long transferTo(WritableByteChannel target) throws IOException {
+    long transferred = file.transferTo(position, remaining, target);
+    if (transferred == 0 && remaining > 0 && position >= file.size()) {
+      // transferTo keeps returning 0 past the end of the file, the region can never complete
+      throw new EOFException("File ended " + remaining + " bytes before the end of the region");
+    }
+    position += transferred;
+    remaining -= transferred;
+    return transferred;
+  }
+
+  /**
+   * @return number of bytes still to be written.
+   */
+  public long remaining() {
+    return remaining;
+  }
+
+  /**
+   * Closes the underlying file.
+   * 
+   * @throws IOException if any I/O error occurs.
+   */
+  public void close() throws IOException {
+    file.close();
+  }
+}
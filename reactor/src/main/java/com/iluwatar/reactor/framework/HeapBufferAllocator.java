@@ -0,0 +1,64 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Allocates a new heap buffer for every read and leaves reclamation to the garbage collector. This
+ * is the default allocator of all channels.
+ */
+public class HeapBufferAllocator implements BufferAllocator {
+
+  private final int bufferSize;
+
+  /**
+   * Creates an allocator handing out heap buffers of provided size.
+   * 
+   * @param bufferSize capacity of each buffer in bytes.
+   */
+  public HeapBufferAllocator(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  @Override
+  public ByteBuffer allocate() {
+    return ByteBuffer.allocate(bufferSize);
+  }
+
+  /**
+   * No-op, heap buffers are not recycled.
+   */
+  @Override
+  public void retain(ByteBuffer buffer) {
+    // no-op
+  }
+
+  /**
+   * No-op, heap buffers are not recycled.
+   */
+  @Override
+  public void release(ByteBuffer buffer) {
+    // no-op
+  }
+}
@@ -58,6 +58,21 @@ public class NioDatagramChannel extends AbstractNioChannel {
     this.port = port;
   }
 
+  /**
+   * Creates a {@link DatagramChannel} which receives into buffers obtained from the provided
+   * allocator.
+   * 
+   * @param port the port to be bound to listen for incoming datagram requests.
+   * @param handler the handler to be used for handling incoming requests on this channel.
+   * @param allocator the allocator receive buffers are obtained from.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioDatagramChannel(int port, ChannelHandler handler, BufferAllocator allocator)
+      throws IOException {
+    super(handler, DatagramChannel.open(), allocator);
+    this.port = port;
+  }
+
   @Override
   public int getInterestedOps() {
     /*
@@ -73,8 +88,14 @@ public class NioDatagramChannel extends AbstractNioChannel {
    */
   @Override
   public DatagramPacket read(SelectionKey key) throws IOException {
-    ByteBuffer buffer = ByteBuffer.allocate(1024);
-    SocketAddress sender = ((DatagramChannel) key.channel()).receive(buffer);
+    ByteBuffer buffer = getAllocator().allocate();
+    SocketAddress sender;
+    try {
+      sender = ((DatagramChannel) key.channel()).receive(buffer);
+    } catch (IOException e) {
+      getAllocator().release(buffer);
+      throw e;
+    }
 
     /*
      * It is required to create a DatagramPacket because we need to preserve which socket address
@@ -127,6 +148,29 @@ public class NioDatagramChannel extends AbstractNioChannel {
     super.write(data, key);
   }
 
+  /**
+   * Releases the buffer carried by a {@link DatagramPacket}.
+   */
+  @Override
+  protected void release(Object data) {
+    if (data instanceof DatagramPacket) {
+      super.release(((DatagramPacket) data).getData());
+    } else {
+      super.release(data);
+    }
+  }
+
+  /**
+   * Counts the bytes carried by a {@link DatagramPacket}.
+   */
+  @Override
+  protected long sizeOf(Object data) {
+    if (data instanceof DatagramPacket) {
+      return super.sizeOf(((DatagramPacket) data).getData());
+    }
+    return super.sizeOf(data);
+  }
+
   /**
    * Container of data used for {@link NioDatagramChannel} to communicate with remote peer.
    */
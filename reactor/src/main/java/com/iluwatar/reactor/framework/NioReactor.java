@@ -50,6 +50,13 @@ import java.util.concurrent.TimeUnit;
  * {@link NioReactor} uses {@link Selector} for realizing Synchronous Event De-multiplexing.
  * 
  * <p>
+ * Multi-reactor mode: when created with worker reactors, this reactor only accepts connections and
+ * hands each accepted {@link SocketChannel} to one of its workers in round-robin order. Every worker
+ * is a {@link NioReactor} of its own, with its own {@link Selector}, event loop thread and pending
+ * command queue, so reading and writing of connections is spread over as many cores as there are
+ * workers. UDP channels and the server sockets themselves stay on the accepting reactor.
+ * 
+ * <p>
  * NOTE: This is one of the ways to implement NIO reactor and it does not take care of all possible edge cases which are
  * required in a real application. This implementation is meant to demonstrate the fundamental concepts that lie behind
  * Reactor pattern.
@@ -67,6 +74,8 @@ public class NioReactor {
    */
   private final Queue<Runnable> pendingCommands = new ConcurrentLinkedQueue<>();
   private final ExecutorService reactorMain = Executors.newSingleThreadExecutor();
+  private final NioReactor[] workers;
+  private int nextWorker;
 
   /**
    * Creates a reactor which will use provided {@code dispatcher} to dispatch events. The application can provide
@@ -78,14 +87,37 @@ public class NioReactor {
    *           if any I/O error occurs.
    */
   public NioReactor(Dispatcher dispatcher) throws IOException {
+    this(dispatcher, 0);
+  }
+
+  /**
+   * Creates a reactor which accepts connections itself and serves them on {@code workerCount} worker
+   * reactors. All reactors use the provided {@code dispatcher} to dispatch events.
+   * 
+   * @param dispatcher
+   *          a non-null dispatcher used to dispatch events on registered channels.
+   * @param workerCount
+   *          number of worker reactors accepted connections are spread over, or 0 to serve them on this
+   *          reactor.
+   * @throws IOException
+   *           if any I/O error occurs.
+   */
+  public NioReactor(Dispatcher dispatcher, int workerCount) throws IOException {
     this.dispatcher = dispatcher;
     this.selector = Selector.open();
+    this.workers = new NioReactor[workerCount];
+    for (int i = 0; i < workerCount; i++) {
+      workers[i] = new NioReactor(dispatcher);
+    }
   }
 
   /**
-   * Starts the reactor event loop in a new thread.
+   * Starts the reactor event loop, and those of its workers, in new threads.
    */
   public void start() {
+    for (NioReactor worker : workers) {
+      worker.start();
+    }
     reactorMain.execute(() -> {
       try {
         LOGGER.info("Reactor started, waiting for events...");
@@ -109,6 +141,9 @@ public class NioReactor {
     selector.wakeup();
     reactorMain.awaitTermination(4, TimeUnit.SECONDS);
     selector.close();
+    for (NioReactor worker : workers) {
+      worker.stop();
+    }
     LOGGER.info("Reactor stopped");
   }
 
@@ -219,9 +254,34 @@ public class NioReactor {
   private void onChannelAcceptable(SelectionKey key) throws IOException {
     ServerSocketChannel serverSocketChannel = (ServerSocketChannel) key.channel();
     SocketChannel socketChannel = serverSocketChannel.accept();
+    if (socketChannel == null) {
+      return;
+    }
     socketChannel.configureBlocking(false);
-    SelectionKey readKey = socketChannel.register(selector, SelectionKey.OP_READ);
-    readKey.attach(key.attachment());
+    if (workers.length == 0) {
+      SelectionKey readKey = socketChannel.register(selector, SelectionKey.OP_READ);
+      readKey.attach(key.attachment());
+    } else {
+      NioReactor worker = workers[nextWorker];
+      nextWorker = (nextWorker + 1) % workers.length;
+      worker.registerAccepted(socketChannel, (AbstractNioChannel) key.attachment());
+    }
+  }
+
+  /*
+   * Registers a connection accepted by another reactor. Registration blocks while the selector is in
+   * select(), so it is queued as a command for this reactor's own event loop.
+   */
+  private void registerAccepted(SocketChannel socketChannel, AbstractNioChannel channel) {
+    pendingCommands.add(() -> {
+      try {
+        SelectionKey readKey = socketChannel.register(selector, SelectionKey.OP_READ);
+        readKey.attach(channel);
+      } catch (IOException e) {
+        LOGGER.error("error registering accepted channel", e);
+      }
+    });
+    selector.wakeup();
   }
 
   /**
@@ -236,8 +296,22 @@ public class NioReactor {
    *          the new interest operations.
    */
   public void changeOps(SelectionKey key, int interestedOps) {
-    pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
-    selector.wakeup();
+    NioReactor owner = ownerOf(key);
+    owner.pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
+    owner.selector.wakeup();
+  }
+
+  /*
+   * Channels are registered with the accepting reactor, but their connections may be served by a
+   * worker. Commands must run on the event loop of the reactor whose selector the key belongs to.
+   */
+  private NioReactor ownerOf(SelectionKey key) {
+    for (NioReactor worker : workers) {
+      if (key.selector() == worker.selector) {
+        return worker;
+      }
+    }
+    return this;
   }
 
   /**
@@ -32,15 +32,29 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Queue;
 
 /**
  * A wrapper over {@link NioServerSocketChannel} which can read and write data on a
  * {@link SocketChannel}.
+ * 
+ * <p>
+ * Besides {@link ByteBuffer}s, handlers can write {@link FileRegion}s, which are sent with
+ * {@link java.nio.channels.FileChannel#transferTo} without copying file content into buffers.
+ * Queued buffers are written with a single gathering write per flush where possible.
  */
 public class NioServerSocketChannel extends AbstractNioChannel {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NioServerSocketChannel.class);
 
+  private static final int MAX_GATHERED_BUFFERS = 64;
+
+  /*
+   * Per reactor thread scratch array for gathering writes, so that flushing does not allocate.
+   */
+  private static final ThreadLocal<ByteBuffer[]> GATHERED_BUFFERS =
+      ThreadLocal.withInitial(() -> new ByteBuffer[MAX_GATHERED_BUFFERS]);
+
   private final int port;
 
   /**
@@ -59,6 +73,21 @@ public class NioServerSocketChannel extends AbstractNioChannel {
     this.port = port;
   }
 
+  /**
+   * Creates a {@link ServerSocketChannel} which reads into buffers obtained from the provided
+   * allocator.
+   * 
+   * @param port the port on which channel will be bound to accept incoming connection requests.
+   * @param handler the handler that will handle incoming requests on this channel.
+   * @param allocator the allocator read buffers are obtained from.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioServerSocketChannel(int port, ChannelHandler handler, BufferAllocator allocator)
+      throws IOException {
+    super(handler, ServerSocketChannel.open(), allocator);
+    this.port = port;
+  }
+
 
   @Override
   public int getInterestedOps() {
@@ -82,10 +111,17 @@ public class NioServerSocketChannel extends AbstractNioChannel {
   @Override
   public ByteBuffer read(SelectionKey key) throws IOException {
     SocketChannel socketChannel = (SocketChannel) key.channel();
-    ByteBuffer buffer = ByteBuffer.allocate(1024);
-    int read = socketChannel.read(buffer);
+    ByteBuffer buffer = getAllocator().allocate();
+    int read;
+    try {
+      read = socketChannel.read(buffer);
+    } catch (IOException e) {
+      getAllocator().release(buffer);
+      throw e;
+    }
     buffer.flip();
     if (read == -1) {
+      getAllocator().release(buffer);
       throw new IOException("Socket closed");
     }
     return buffer;
@@ -113,4 +149,55 @@ public class NioServerSocketChannel extends AbstractNioChannel {
     ByteBuffer pendingBuffer = (ByteBuffer) pendingWrite;
     ((SocketChannel) key.channel()).write(pendingBuffer);
   }
+
+  /**
+   * Writes runs of queued buffers with one gathering write each and file regions with
+   * {@link FileRegion#transferTo}. Data is only dequeued once it has been written completely, so a
+   * full socket send buffer leaves the rest queued for the next writable event.
+   */
+  @Override
+  protected boolean doFlush(Queue<Object> pendingWrites, SelectionKey key) throws IOException {
+    SocketChannel socketChannel = (SocketChannel) key.channel();
+    ByteBuffer[] gathered = GATHERED_BUFFERS.get();
+    while (true) {
+      Object head = pendingWrites.peek();
+      if (head == null) {
+        return true;
+      }
+      if (head instanceof FileRegion) {
+        FileRegion region = (FileRegion) head;
+        written(key, region.transferTo(socketChannel));
+        if (region.remaining() > 0) {
+          return false;
+        }
+        pendingWrites.poll();
+        region.close();
+        continue;
+      }
+      if (!(head instanceof ByteBuffer)) {
+        throw new IllegalStateException("Unsupported data written: " + head.getClass());
+      }
+      int count = 0;
+      for (Object pendingWrite : pendingWrites) {
+        if (!(pendingWrite instanceof ByteBuffer) || count == gathered.length) {
+          break;
+        }
+        gathered[count++] = (ByteBuffer) pendingWrite;
+      }
+      written(key, socketChannel.write(gathered, 0, count));
+      boolean complete = true;
+      for (int i = 0; i < count; i++) {
+        if (complete && !gathered[i].hasRemaining()) {
+          pendingWrites.poll();
+          release(gathered[i]);
+        } else {
+          complete = false;
+        }
+        gathered[i] = null;
+      }
+      if (!complete) {
+        return false;
+      }
+    }
+  }
 }
@@ -0,0 +1,116 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Recycles fixed-size direct buffers. Direct buffers let the operating system copy socket data
+ * straight into them, without the intermediate copy a heap buffer needs, and recycling them keeps
+ * the read path free of allocations once the pool has warmed up.
+ * 
+ * <p>
+ * Reference counts of outstanding buffers are tracked by identity, because {@link ByteBuffer}
+ * equality depends on the buffer content. At most {@code maxPooled} released buffers are kept for
+ * reuse; any surplus is left to the garbage collector.
+ */
+public class PooledDirectBufferAllocator implements BufferAllocator {
+
+  private final int bufferSize;
+  private final int maxPooled;
+  private final Deque<ByteBuffer> pool = new ArrayDeque<>();
+  private final Map<ByteBuffer, Integer> referenceCounts = new IdentityHashMap<>();
+  private long allocatedCount;
+
+  /**
+   * Creates a pool of direct buffers.
+   * 
+   * @param bufferSize capacity of each buffer in bytes.
+   * @param maxPooled maximum number of released buffers kept for reuse.
+   */
+  public PooledDirectBufferAllocator(int bufferSize, int maxPooled) {
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+  }
+
+  @Override
+  public synchronized ByteBuffer allocate() {
+    ByteBuffer buffer = pool.poll();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(bufferSize);
+      allocatedCount++;
+    }
+    buffer.clear();
+    referenceCounts.put(buffer, 1);
+    return buffer;
+  }
+
+  @Override
+  public synchronized void retain(ByteBuffer buffer) {
+    Integer count = referenceCounts.get(buffer);
+    if (count != null) {
+      referenceCounts.put(buffer, count + 1);
+    }
+  }
+
+  @Override
+  public synchronized void release(ByteBuffer buffer) {
+    Integer count = referenceCounts.get(buffer);
+    if (count == null) {
+      return;
+    }
+    if (count > 1) {
+      referenceCounts.put(buffer, count - 1);
+      return;
+    }
+    referenceCounts.remove(buffer);
+    if (pool.size() < maxPooled) {
+      pool.push(buffer);
+    }
+  }
+
+  /**
+   * @return number of direct buffers created so far.
+   */
+  public synchronized long getAllocatedCount() {
+    return allocatedCount;
+  }
+
+  /**
+   * @return number of buffers that are currently in use.
+   */
+  public synchronized int getOutstandingCount() {
+    return referenceCounts.size();
+  }
+
+  /**
+   * @return number of buffers waiting in the pool to be reused.
+   */
+  public synchronized int getPooledCount() {
+    return pool.size();
+  }
+}
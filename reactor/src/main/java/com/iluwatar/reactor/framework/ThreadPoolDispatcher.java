@@ -25,6 +25,7 @@ package com.iluwatar.reactor.framework;
 import java.nio.channels.SelectionKey;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,7 +54,13 @@ public class ThreadPoolDispatcher implements Dispatcher {
    */
   @Override
   public void onChannelReadEvent(AbstractNioChannel channel, Object readObject, SelectionKey key) {
-    executorService.execute(() -> channel.getHandler().handleChannelRead(channel, readObject, key));
+    try {
+      executorService.execute(() -> channel.handleRead(readObject, key));
+    } catch (RejectedExecutionException e) {
+      // the handler will never see the data, so its buffers are released here
+      channel.release(readObject);
+      throw e;
+    }
   }
 
   /**
@@ -94,4 +94,32 @@ public class ReactorTest {
     app.stop();
     LOGGER.info("testAppUsingSameThreadDispatcher stop");
   }
+
+  /**
+   * Test the application with connections served by worker reactors.
+   * 
+   * @throws IOException if any I/O error occurs.
+   * @throws InterruptedException if interrupted while stopping the application.
+   */
+  @Test
+  public void testAppUsingWorkerReactors() throws IOException, InterruptedException {
+    LOGGER.info("testAppUsingWorkerReactors start");
+    App app = new App(new ThreadPoolDispatcher(2), 2);
+    app.start();
+
+    AppClient client = new AppClient();
+    client.start();
+
+    // allow clients to send requests. Artificial delay.
+    try {
+      Thread.sleep(2000);
+    } catch (InterruptedException e) {
+      LOGGER.error("sleep interrupted", e);
+    }
+
+    client.stop();
+
+    app.stop();
+    LOGGER.info("testAppUsingWorkerReactors stop");
+  }
 }
@@ -0,0 +1,345 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the gathering and {@link FileRegion} write paths of {@link NioServerSocketChannel} against a
+ * socket that accepts a limited number of bytes per write.
+ */
+public class NioServerSocketChannelFlushTest {
+
+  private NioServerSocketChannel channel;
+  private RecordingSocketChannel socket;
+  private SelectionKey key;
+  private Queue<Object> pendingWrites;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    channel = new NioServerSocketChannel(0, (c, readObject, k) -> { });
+    socket = new RecordingSocketChannel();
+    key = new StubSelectionKey(socket);
+    pendingWrites = new ArrayDeque<>();
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    channel.getJavaChannel().close();
+  }
+
+  @Test
+  public void testQueuedBuffersAreWrittenWithOneGatheringWrite() throws IOException {
+    pendingWrites.add(buffer("Hello, "));
+    pendingWrites.add(buffer("gathering "));
+    pendingWrites.add(buffer("world"));
+
+    assertTrue(channel.doFlush(pendingWrites, key));
+    assertTrue(pendingWrites.isEmpty());
+    assertEquals(1, socket.gatheringWrites);
+    assertEquals("Hello, gathering world", socket.received());
+  }
+
+  @Test
+  public void testPartialGatheringWriteKeepsUnwrittenBuffersQueued() throws IOException {
+    ByteBuffer second = buffer("gathering ");
+    pendingWrites.add(buffer("Hello, "));
+    pendingWrites.add(second);
+    pendingWrites.add(buffer("world"));
+    socket.bytesPerWrite = 10;
+
+    assertFalse(channel.doFlush(pendingWrites, key));
+    assertEquals(2, pendingWrites.size());
+    assertSame(second, pendingWrites.peek());
+    assertEquals(3, second.position());
+
+    socket.bytesPerWrite = Integer.MAX_VALUE;
+    assertTrue(channel.doFlush(pendingWrites, key));
+    assertEquals("Hello, gathering world", socket.received());
+  }
+
+  @Test
+  public void testFileRegionIsTransferredAcrossPartialWrites() throws IOException {
+    Path file = Files.createTempFile("file-region", ".txt");
+    try {
+      Files.write(file, "skipped|sent through transferTo|skipped".getBytes(StandardCharsets.UTF_8));
+      FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+      FileRegion region = new FileRegion(fileChannel, 8, 23);
+      pendingWrites.add(region);
+      pendingWrites.add(buffer(", then a buffer"));
+      socket.bytesPerWrite = 5;
+
+      assertFalse(channel.doFlush(pendingWrites, key));
+      assertSame(region, pendingWrites.peek());
+      assertEquals(18, region.remaining());
+      assertTrue(fileChannel.isOpen());
+
+      socket.bytesPerWrite = Integer.MAX_VALUE;
+      assertTrue(channel.doFlush(pendingWrites, key));
+      assertTrue(pendingWrites.isEmpty());
+      assertFalse(fileChannel.isOpen());
+      assertEquals("sent through transferTo, then a buffer", socket.received());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testRegionPastEndOfFileIsRejected() throws IOException {
+    Path file = Files.createTempFile("file-region", ".txt");
+    try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+      Files.write(file, "ten bytes!".getBytes(StandardCharsets.UTF_8));
+      assertThrows(IllegalArgumentException.class, () -> new FileRegion(fileChannel, 4, 7));
+      assertThrows(IllegalArgumentException.class, () -> new FileRegion(fileChannel, -1, 5));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testTruncatedFileFailsTheFlush() throws IOException {
+    Path file = Files.createTempFile("file-region", ".txt");
+    try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      Files.write(file, "ten bytes!".getBytes(StandardCharsets.UTF_8));
+      pendingWrites.add(new FileRegion(fileChannel, 0, 10));
+      fileChannel.truncate(4);
+
+      assertFalse(channel.doFlush(pendingWrites, key));
+      assertEquals("ten ", socket.received());
+      assertThrows(EOFException.class, () -> channel.doFlush(pendingWrites, key));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static ByteBuffer buffer(String text) {
+    return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Socket channel recording written bytes, accepting at most {@code bytesPerWrite} per write call.
+   */
+  private static final class RecordingSocketChannel extends SocketChannel {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private int bytesPerWrite = Integer.MAX_VALUE;
+    private int gatheringWrites;
+
+    private RecordingSocketChannel() {
+      super(SelectorProvider.provider());
+    }
+
+    private String received() {
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      int count = Math.min(src.remaining(), bytesPerWrite);
+      for (int i = 0; i < count; i++) {
+        out.write(src.get());
+      }
+      return count;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+      gatheringWrites++;
+      int budget = bytesPerWrite;
+      long total = 0;
+      for (int i = offset; i < offset + length && budget > 0; i++) {
+        int count = Math.min(srcs[i].remaining(), budget);
+        for (int j = 0; j < count; j++) {
+          out.write(srcs[i].get());
+        }
+        budget -= count;
+        total += count;
+      }
+      return total;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SocketChannel bind(SocketAddress local) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> SocketChannel setOption(SocketOption<T> name, T value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> T getOption(SocketOption<T> name) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<SocketOption<?>> supportedOptions() {
+      return Collections.emptySet();
+    }
+
+    @Override
+    public SocketChannel shutdownInput() {
+      return this;
+    }
+
+    @Override
+    public SocketChannel shutdownOutput() {
+      return this;
+    }
+
+    @Override
+    public Socket socket() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isConnected() {
+      return true;
+    }
+
+    @Override
+    public boolean isConnectionPending() {
+      return false;
+    }
+
+    @Override
+    public boolean connect(SocketAddress remote) {
+      return true;
+    }
+
+    @Override
+    public boolean finishConnect() {
+      return true;
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+      return null;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+      return null;
+    }
+
+    @Override
+    protected void implCloseSelectableChannel() {
+      // nothing to release
+    }
+
+    @Override
+    protected void implConfigureBlocking(boolean block) {
+      // writes never block
+    }
+  }
+
+  /**
+   * Key of a channel that is not registered with any selector.
+   */
+  private static final class StubSelectionKey extends SelectionKey {
+
+    private final SocketChannel channel;
+    private int interestOps = OP_WRITE;
+
+    private StubSelectionKey(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public SocketChannel channel() {
+      return channel;
+    }
+
+    @Override
+    public Selector selector() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isValid() {
+      return true;
+    }
+
+    @Override
+    public void cancel() {
+      // never registered
+    }
+
+    @Override
+    public int interestOps() {
+      return interestOps;
+    }
+
+    @Override
+    public SelectionKey interestOps(int ops) {
+      interestOps = ops;
+      return this;
+    }
+
+    @Override
+    public int readyOps() {
+      return OP_WRITE;
+    }
+  }
+}
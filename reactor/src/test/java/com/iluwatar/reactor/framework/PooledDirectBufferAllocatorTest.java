@@ -0,0 +1,116 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link PooledDirectBufferAllocator}.
+ */
+public class PooledDirectBufferAllocatorTest {
+
+  @Test
+  public void testReleasedBuffersAreReused() {
+    PooledDirectBufferAllocator allocator = new PooledDirectBufferAllocator(64, 4);
+    ByteBuffer first = allocator.allocate();
+    assertTrue(first.isDirect());
+    assertEquals(64, first.capacity());
+    first.put((byte) 1);
+
+    allocator.release(first);
+    ByteBuffer second = allocator.allocate();
+    assertSame(first, second);
+    assertEquals(0, second.position());
+    assertEquals(1, allocator.getAllocatedCount());
+  }
+
+  @Test
+  public void testRetainedBuffersAreNotReused() {
+    PooledDirectBufferAllocator allocator = new PooledDirectBufferAllocator(64, 4);
+    ByteBuffer buffer = allocator.allocate();
+    allocator.retain(buffer);
+    allocator.release(buffer);
+    assertNotSame(buffer, allocator.allocate());
+    assertEquals(2, allocator.getOutstandingCount());
+
+    allocator.release(buffer);
+    assertEquals(1, allocator.getOutstandingCount());
+    assertEquals(1, allocator.getPooledCount());
+  }
+
+  @Test
+  public void testForeignBuffersAndSurplusAreIgnored() {
+    PooledDirectBufferAllocator allocator = new PooledDirectBufferAllocator(64, 1);
+    allocator.release(ByteBuffer.wrap(new byte[8]));
+    assertEquals(0, allocator.getPooledCount());
+
+    ByteBuffer first = allocator.allocate();
+    ByteBuffer second = allocator.allocate();
+    allocator.release(first);
+    allocator.release(second);
+    assertEquals(1, allocator.getPooledCount());
+    assertEquals(0, allocator.getOutstandingCount());
+  }
+
+  @Test
+  public void testReadBufferIsReleasedAfterHandlerFails() throws IOException {
+    PooledDirectBufferAllocator allocator = new PooledDirectBufferAllocator(64, 4);
+    NioServerSocketChannel channel = new NioServerSocketChannel(0, (c, readObject, key) -> {
+      throw new IllegalStateException("Handler failed");
+    }, allocator);
+    try {
+      ByteBuffer buffer = allocator.allocate();
+      assertThrows(IllegalStateException.class, () -> channel.handleRead(buffer, null));
+      assertEquals(0, allocator.getOutstandingCount());
+      assertEquals(1, allocator.getPooledCount());
+    } finally {
+      channel.getJavaChannel().close();
+    }
+  }
+
+  @Test
+  public void testReadBufferIsReleasedWhenDispatchIsRejected() throws Exception {
+    PooledDirectBufferAllocator allocator = new PooledDirectBufferAllocator(64, 4);
+    NioServerSocketChannel channel = new NioServerSocketChannel(0, (c, readObject, key) -> { }, allocator);
+    ThreadPoolDispatcher dispatcher = new ThreadPoolDispatcher(1);
+    dispatcher.stop();
+    try {
+      ByteBuffer buffer = allocator.allocate();
+      assertThrows(RejectedExecutionException.class,
+          () -> dispatcher.onChannelReadEvent(channel, buffer, null));
+      assertEquals(0, allocator.getOutstandingCount());
+    } finally {
+      channel.getJavaChannel().close();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the write watermarks of {@link AbstractNioChannel} against a client that reads slowly.
+ */
+public class WriteWatermarkTest {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int CHUNKS = 128;
+
+  @Test
+  public void testInvalidWatermarks() throws Exception {
+    NioServerSocketChannel channel = new NioServerSocketChannel(0, (c, readObject, key) -> { });
+    assertThrows(IllegalArgumentException.class, () -> channel.setWriteBufferWatermarks(10, 5));
+  }
+
+  @Test
+  public void testSlowReaderTogglesWritability() throws Exception {
+    CountDownLatch unwritable = new CountDownLatch(1);
+    CountDownLatch writableAgain = new CountDownLatch(1);
+    AtomicReference<SelectionKey> connection = new AtomicReference<>();
+    ChannelHandler handler = new ChannelHandler() {
+      @Override
+      public void handleChannelRead(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+        connection.set(key);
+        for (int i = 0; i < CHUNKS; i++) {
+          channel.write(ByteBuffer.allocate(CHUNK_SIZE), key);
+        }
+      }
+
+      @Override
+      public void handleChannelWritabilityChanged(AbstractNioChannel channel, SelectionKey key,
+          boolean writable) {
+        (writable ? writableAgain : unwritable).countDown();
+      }
+    };
+
+    NioServerSocketChannel channel = new NioServerSocketChannel(0, handler);
+    channel.setWriteBufferWatermarks(CHUNK_SIZE, 2 * CHUNK_SIZE);
+    channel.setAutoReadPaused(true);
+    channel.bind();
+    NioReactor reactor = new NioReactor(new SameThreadDispatcher());
+    reactor.registerChannel(channel).start();
+
+    try (Socket client = new Socket()) {
+      client.setReceiveBufferSize(4096);
+      client.connect(new InetSocketAddress(InetAddress.getLocalHost(),
+          channel.getJavaChannel().socket().getLocalPort()));
+      client.getOutputStream().write(1);
+      client.getOutputStream().flush();
+
+      assertTrue(unwritable.await(5, TimeUnit.SECONDS));
+      assertFalse(channel.isWritable(connection.get()));
+      assertTrue(channel.getPendingWriteBytes(connection.get()) > channel.getLowWatermark());
+
+      InputStream in = client.getInputStream();
+      byte[] buffer = new byte[CHUNK_SIZE];
+      long total = 0;
+      while (total < (long) CHUNK_SIZE * CHUNKS) {
+        int read = in.read(buffer);
+        assertTrue(read > 0);
+        total += read;
+      }
+      assertTrue(writableAgain.await(5, TimeUnit.SECONDS));
+      assertTrue(channel.isWritable(connection.get()));
+      assertEquals(0, channel.getPendingWriteBytes(connection.get()));
+    } finally {
+      reactor.stop();
+    }
+  }
+}
@@ -22,45 +22,90 @@
  */
 package com.iluwatar.reader.writer.lock;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Date;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Class responsible for control the access for reader or writer
  * 
  * Allows multiple readers to hold the lock at same time, but if any writer holds the lock then readers wait. If reader
- * holds the lock then writer waits. This lock is not fair.
+ * holds the lock then writer waits.
+ * <p>
+ * Readers do not share a counter: every reader increments a counter stripe picked by its thread, each stripe on its
+ * own cache line, so concurrent read acquisitions do not contend. A writer first claims the lock, which excludes other
+ * writers, then closes the lock for new readers and waits until the stripes add up to zero. Whether it closes the lock
+ * right away or only once the readers are gone is the {@link Preference} of the lock.
+ * <p>
+ * Both locks are reentrant, the writer may also take the read lock and keep it after releasing the write lock. A
+ * reader cannot upgrade to the write lock. Threads that have to wait block on an internal lock, which is only touched
+ * when there is contention between readers and writers.
  */
 public class ReaderWriterLock implements ReadWriteLock {
-  
-  private static final Logger LOGGER = LoggerFactory.getLogger(ReaderWriterLock.class);
 
+  /**
+   * Who wins when readers keep arriving while a writer waits.
+   */
+  public enum Preference {
+    /**
+     * A waiting writer stops new readers, so a steady stream of readers cannot starve writers.
+     */
+    WRITER,
+    /**
+     * New readers are admitted as long as the writer has not acquired the lock, which maximizes read throughput.
+     */
+    READER
+  }
 
-  private Object readerMutex = new Object();
+  /**
+   * Number of longs between two stripes, so that every stripe has its own cache line.
+   */
+  private static final int STRIDE = 16;
 
-  private int currentReaderCount;
+  private final Preference preference;
+  private final int stripeMask;
+  private final AtomicLongArray readerCounts;
+  private final ThreadLocal<int[]> readHolds = ThreadLocal.withInitial(() -> new int[1]);
 
+  private final AtomicReference<Thread> writer = new AtomicReference<>();
+  private volatile boolean readersBlocked;
+  private volatile boolean writeLocked;
   /**
-   * Global mutex is used to indicate that whether reader or writer gets the lock in the moment.
-   * <p>
-   * 1. When it contains the reference of {@link #readerLock}, it means that the lock is acquired by the reader, another
-   * reader can also do the read operation concurrently. <br>
-   * 2. When it contains the reference of reference of {@link #writerLock}, it means that the lock is acquired by the
-   * writer exclusively, no more reader or writer can get the lock.
-   * <p>
-   * This is the most important field in this class to control the access for reader/writer.
+   * Reentrant holds of the writer, only accessed by the thread that owns {@link #writer}.
    */
-  private Set<Object> globalMutex = new HashSet<>();
+  private int writeHolds;
 
-  private ReadLock readerLock = new ReadLock();
-  private WriteLock writerLock = new WriteLock();
+  private final ReentrantLock waitLock = new ReentrantLock();
+  /**
+   * Signalled when the writer releases the lock, awaited by readers and by writers waiting to claim it.
+   */
+  private final Condition released = waitLock.newCondition();
+  /**
+   * Signalled when a reader leaves, awaited only by the writer that claimed the lock and waits for the readers.
+   */
+  private final Condition readerLeft = waitLock.newCondition();
+
+  private final ReadLock readerLock = new ReadLock();
+  private final WriteLock writerLock = new WriteLock();
+
+  public ReaderWriterLock() {
+    this(Preference.WRITER);
+  }
+
+  /**
+   * @param preference whether waiting writers stop new readers
+   */
+  public ReaderWriterLock(Preference preference) {
+    this.preference = preference;
+    int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    this.stripeMask = stripes - 1;
+    this.readerCounts = new AtomicLongArray(stripes * STRIDE);
+  }
 
   @Override
   public Lock readLock() {
@@ -72,90 +117,301 @@ public class ReaderWriterLock implements ReadWriteLock {
     return writerLock;
   }
 
-  /**
-   * return true when globalMutex hold the reference of writerLock
-   */
-  private boolean doesWriterOwnThisLock() {
-    return globalMutex.contains(writerLock);
+  public Preference getPreference() {
+    return preference;
   }
 
   /**
-   * Nobody get the lock when globalMutex contains nothing
-   * 
+   * @return number of read holds of all threads
    */
-  private boolean isLockFree() {
-    return globalMutex.isEmpty();
+  public long getReadLockCount() {
+    long count = 0;
+    for (int i = 0; i <= stripeMask; i++) {
+      count += readerCounts.get(i * STRIDE);
+    }
+    return count;
   }
 
   /**
-   * Reader Lock, can be access for more than one reader concurrently if no writer get the lock
+   * @return true when a writer holds the lock
    */
-  private class ReadLock implements Lock {
+  public boolean isWriteLocked() {
+    return writeLocked;
+  }
 
-    @Override
-    public void lock() {
-      synchronized (readerMutex) {
-        currentReaderCount++;
-        if (currentReaderCount == 1) {
-          acquireForReaders();
+  public boolean isWriteLockedByCurrentThread() {
+    return writer.get() == Thread.currentThread() && writeHolds > 0;
+  }
+
+  private int stripe() {
+    long id = Thread.currentThread().getId();
+    return ((int) (id ^ (id >>> 32)) * 0x9E3779B9 >>> 16 & stripeMask) * STRIDE;
+  }
+
+  private boolean tryAcquireRead() {
+    int[] holds = readHolds.get();
+    int stripe = stripe();
+    if (holds[0] > 0 || writer.get() == Thread.currentThread()) {
+      // reentrant read, or the writer taking the read lock, must not wait for the writer
+      readerCounts.getAndIncrement(stripe);
+      holds[0]++;
+      return true;
+    }
+    readerCounts.getAndIncrement(stripe);
+    if (!readersBlocked) {
+      holds[0]++;
+      return true;
+    }
+    readerCounts.getAndDecrement(stripe);
+    // the writer may have counted this attempt, only it must be told, blocked readers keep waiting
+    wakeDrainingWriter();
+    return false;
+  }
+
+  private boolean acquireRead(boolean interruptible, long nanos) throws InterruptedException {
+    if (tryAcquireRead()) {
+      return true;
+    }
+    long deadline = System.nanoTime() + nanos;
+    lockWaitLock(interruptible);
+    try {
+      while (!tryAcquireRead()) {
+        if (!await(released, interruptible, nanos >= 0, deadline)) {
+          return false;
         }
       }
+      return true;
+    } finally {
+      waitLock.unlock();
     }
+  }
 
-    /**
-     * Acquire the globalMutex lock on behalf of current and future concurrent readers. Make sure no writers currently
-     * owns the lock.
-     */
-    private void acquireForReaders() {
-      // Try to get the globalMutex lock for the first reader
-      synchronized (globalMutex) {
-        // If the no one get the lock or the lock is locked by reader, just set the reference
-        // to the globalMutex to indicate that the lock is locked by Reader.
-        while (doesWriterOwnThisLock()) {
-          try {
-            globalMutex.wait();
-          } catch (InterruptedException e) {
-            LOGGER.info("InterruptedException while waiting for globalMutex in acquireForReaders", e);
-            Thread.currentThread().interrupt();
+  private void releaseRead() {
+    int[] holds = readHolds.get();
+    if (holds[0] == 0) {
+      throw new IllegalMonitorStateException("Read lock not held by current thread");
+    }
+    holds[0]--;
+    readerCounts.getAndDecrement(stripe());
+    wakeDrainingWriter();
+  }
+
+  private boolean tryAcquireWrite() {
+    Thread current = Thread.currentThread();
+    if (isWriteLockedByCurrentThread()) {
+      writeHolds++;
+      return true;
+    }
+    checkNotUpgrading();
+    if (!writer.compareAndSet(null, current)) {
+      return false;
+    }
+    if (preference == Preference.WRITER) {
+      readersBlocked = true;
+    }
+    if (tryDrainReaders()) {
+      writeHolds = 1;
+      writeLocked = true;
+      return true;
+    }
+    abandonWrite();
+    return false;
+  }
+
+  private boolean acquireWrite(boolean interruptible, long nanos) throws InterruptedException {
+    if (isWriteLockedByCurrentThread()) {
+      writeHolds++;
+      return true;
+    }
+    checkNotUpgrading();
+    return claimAndDrain(interruptible, nanos >= 0, System.nanoTime() + nanos);
+  }
+
+  /**
+   * Claims the write lock and waits until no reader holds the read lock, leaving the write lock with a single hold.
+   */
+  private boolean claimAndDrain(boolean interruptible, boolean timed, long deadline) throws InterruptedException {
+    Thread current = Thread.currentThread();
+    if (!writer.compareAndSet(null, current)) {
+      lockWaitLock(interruptible);
+      try {
+        while (!writer.compareAndSet(null, current)) {
+          if (!await(released, interruptible, timed, deadline)) {
+            return false;
           }
         }
-        globalMutex.add(this);
+      } finally {
+        waitLock.unlock();
+      }
+    }
+    if (preference == Preference.WRITER) {
+      readersBlocked = true;
+    }
+    boolean drained = false;
+    try {
+      drained = tryDrainReaders() || awaitReaders(interruptible, timed, deadline);
+    } finally {
+      if (!drained) {
+        abandonWrite();
       }
     }
+    if (drained) {
+      writeHolds = 1;
+      writeLocked = true;
+    }
+    return drained;
+  }
 
-    @Override
-    public void unlock() {
+  /**
+   * Completes the acquisition of the claimed write lock if no reader holds the read lock. Readers check
+   * {@link #readersBlocked} after incrementing their stripe and the writer sums the stripes after setting it, so at
+   * least one of them sees the other.
+   */
+  private boolean tryDrainReaders() {
+    if (getReadLockCount() != 0) {
+      return false;
+    }
+    if (readersBlocked) {
+      return true;
+    }
+    readersBlocked = true;
+    if (getReadLockCount() == 0) {
+      return true;
+    }
+    // a reader slipped in, let it and the readers that saw the lock closed continue
+    readersBlocked = false;
+    wakeAll();
+    return false;
+  }
 
-      synchronized (readerMutex) {
-        currentReaderCount--;
-        // Release the lock only when it is the last reader, it is ensure that the lock is released
-        // when all reader is completely.
-        if (currentReaderCount == 0) {
-          synchronized (globalMutex) {
-            // Notify the waiter, mostly the writer
-            globalMutex.remove(this);
-            globalMutex.notifyAll();
-          }
+  private boolean awaitReaders(boolean interruptible, boolean timed, long deadline) throws InterruptedException {
+    lockWaitLock(interruptible);
+    try {
+      while (!tryDrainReaders()) {
+        if (!await(readerLeft, interruptible, timed, deadline)) {
+          return false;
         }
       }
+      return true;
+    } finally {
+      waitLock.unlock();
+    }
+  }
+
+  private void releaseWrite() {
+    if (!isWriteLockedByCurrentThread()) {
+      throw new IllegalMonitorStateException("Write lock not held by current thread");
+    }
+    if (--writeHolds == 0) {
+      abandonWrite();
+    }
+  }
+
+  private void abandonWrite() {
+    writeLocked = false;
+    readersBlocked = false;
+    writer.set(null);
+    wakeAll();
+  }
+
+  private void checkNotUpgrading() {
+    if (readHolds.get()[0] > 0) {
+      throw new IllegalMonitorStateException("Read lock cannot be upgraded to write lock");
+    }
+  }
+
+  private void wakeDrainingWriter() {
+    if (writer.get() != null && !writeLocked) {
+      waitLock.lock();
+      try {
+        readerLeft.signal();
+      } finally {
+        waitLock.unlock();
+      }
+    }
+  }
+
+  private void wakeAll() {
+    waitLock.lock();
+    try {
+      released.signalAll();
+    } finally {
+      waitLock.unlock();
+    }
+  }
+
+  private void lockWaitLock(boolean interruptible) throws InterruptedException {
+    if (interruptible) {
+      waitLock.lockInterruptibly();
+    } else {
+      waitLock.lock();
+    }
+  }
+
+  /**
+   * Waits for a signal of the condition while holding {@link #waitLock}.
+   *
+   * @return false if the deadline has passed
+   */
+  private boolean await(Condition condition, boolean interruptible, boolean timed, long deadline)
+      throws InterruptedException {
+    if (timed) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      condition.awaitNanos(remaining);
+    } else if (interruptible) {
+      condition.await();
+    } else {
+      condition.awaitUninterruptibly();
+    }
+    return true;
+  }
+
+  /**
+   * Reader Lock, can be access for more than one reader concurrently if no writer get the lock
+   */
+  private class ReadLock implements Lock {
 
+    @Override
+    public void lock() {
+      try {
+        acquireRead(false, -1);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException("Uninterruptible acquisition was interrupted", e);
+      }
+    }
+
+    @Override
+    public void unlock() {
+      releaseRead();
     }
 
     @Override
     public void lockInterruptibly() throws InterruptedException {
-      throw new UnsupportedOperationException();
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      acquireRead(true, -1);
     }
 
     @Override
     public boolean tryLock() {
-      throw new UnsupportedOperationException();
+      return tryAcquireRead();
     }
 
     @Override
     public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
-      throw new UnsupportedOperationException();
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      return acquireRead(true, Math.max(0, unit.toNanos(time)));
     }
 
+    /**
+     * Readers share the lock, so there is nothing a condition could be atomically released with.
+     */
     @Override
     public Condition newCondition() {
       throw new UnsupportedOperationException();
@@ -170,51 +426,181 @@ public class ReaderWriterLock implements ReadWriteLock {
 
     @Override
     public void lock() {
-
-      synchronized (globalMutex) {
-
-        // Wait until the lock is free.
-        while (!isLockFree()) {
-          try {
-            globalMutex.wait();
-          } catch (InterruptedException e) {
-            LOGGER.info("InterruptedException while waiting for globalMutex to begin writing", e);
-            Thread.currentThread().interrupt();
-          }
-        }
-        // When the lock is free, acquire it by placing an entry in globalMutex
-        globalMutex.add(this);
+      try {
+        acquireWrite(false, -1);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException("Uninterruptible acquisition was interrupted", e);
       }
     }
 
     @Override
     public void unlock() {
-
-      synchronized (globalMutex) {
-        globalMutex.remove(this);
-        // Notify the waiter, other writer or reader
-        globalMutex.notifyAll();
-      }
+      releaseWrite();
     }
 
     @Override
     public void lockInterruptibly() throws InterruptedException {
-      throw new UnsupportedOperationException();
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      acquireWrite(true, -1);
     }
 
     @Override
     public boolean tryLock() {
-      throw new UnsupportedOperationException();
+      return tryAcquireWrite();
     }
 
     @Override
     public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
-      throw new UnsupportedOperationException();
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      return acquireWrite(true, Math.max(0, unit.toNanos(time)));
     }
 
     @Override
     public Condition newCondition() {
-      throw new UnsupportedOperationException();
+      return new WriteCondition(waitLock.newCondition());
+    }
+  }
+
+  /**
+   * Condition of the write lock. Waiting fully releases the write lock while holding {@link #waitLock}, and the
+   * condition is signalled under the write lock and {@link #waitLock}, so no signal gets lost in between.
+   */
+  private class WriteCondition implements Condition {
+
+    private final Condition condition;
+
+    WriteCondition(Condition condition) {
+      this.condition = condition;
+    }
+
+    @Override
+    public void await() throws InterruptedException {
+      SavedHolds holds = release();
+      try {
+        condition.await();
+      } finally {
+        reacquire(holds);
+      }
+    }
+
+    @Override
+    public boolean await(long time, TimeUnit unit) throws InterruptedException {
+      SavedHolds holds = release();
+      try {
+        return condition.await(time, unit);
+      } finally {
+        reacquire(holds);
+      }
+    }
+
+    @Override
+    public void awaitUninterruptibly() {
+      SavedHolds holds = release();
+      try {
+        condition.awaitUninterruptibly();
+      } finally {
+        reacquire(holds);
+      }
+    }
+
+    @Override
+    public long awaitNanos(long nanosTimeout) throws InterruptedException {
+      SavedHolds holds = release();
+      try {
+        return condition.awaitNanos(nanosTimeout);
+      } finally {
+        reacquire(holds);
+      }
+    }
+
+    @Override
+    public boolean awaitUntil(Date deadline) throws InterruptedException {
+      SavedHolds holds = release();
+      try {
+        return condition.awaitUntil(deadline);
+      } finally {
+        reacquire(holds);
+      }
+    }
+
+    @Override
+    public void signal() {
+      checkHeld();
+      waitLock.lock();
+      try {
+        condition.signal();
+      } finally {
+        waitLock.unlock();
+      }
+    }
+
+    @Override
+    public void signalAll() {
+      checkHeld();
+      waitLock.lock();
+      try {
+        condition.signalAll();
+      } finally {
+        waitLock.unlock();
+      }
+    }
+
+    private void checkHeld() {
+      if (!isWriteLockedByCurrentThread()) {
+        throw new IllegalMonitorStateException("Write lock not held by current thread");
+      }
+    }
+
+    /**
+     * Releases the write lock and the read holds of the writer, which would otherwise keep the signalling writer
+     * from acquiring the lock.
+     */
+    private SavedHolds release() {
+      checkHeld();
+      int[] reads = readHolds.get();
+      SavedHolds holds = new SavedHolds(writeHolds, reads[0]);
+      waitLock.lock();
+      if (holds.reads > 0) {
+        reads[0] = 0;
+        readerCounts.getAndAdd(stripe(), -holds.reads);
+      }
+      writeHolds = 0;
+      abandonWrite();
+      return holds;
+    }
+
+    /**
+     * Restores the holds directly, {@link WriteLock#lock()} would take the writer for a reader upgrading its lock.
+     */
+    private void reacquire(SavedHolds holds) {
+      waitLock.unlock();
+      try {
+        claimAndDrain(false, false, 0);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException("Uninterruptible acquisition was interrupted", e);
+      }
+      writeHolds = holds.writes;
+      if (holds.reads > 0) {
+        readerCounts.getAndAdd(stripe(), holds.reads);
+        readHolds.get()[0] = holds.reads;
+      }
+    }
+  }
+
+  /**
+   * Write and read holds of a writer waiting on a {@link WriteCondition}.
+   */
+  private static final class SavedHolds {
+    private final int writes;
+    private final int reads;
+
+    SavedHolds(int writes, int reads) {
+      this.writes = writes;
+      this.reads = reads;
     }
   }
 
@@ -0,0 +1,122 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reader.writer.lock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * JMH benchmark of {@link ReaderWriterLock} with both preferences against
+ * {@link ReentrantReadWriteLock}, at read:write ratios of 99:1, 90:10 and 50:50. Every operation
+ * reads or updates a small array under the lock. Run {@link #main(String[])} to execute it with 1,
+ * 4 and 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderWriterLockBenchmark {
+
+  @Param({"99", "90", "50"})
+  private int readPercent;
+
+  @Param({"writer-preference", "reader-preference", "jdk"})
+  private String lockType;
+
+  private ReadWriteLock lock;
+  private final long[] data = new long[8];
+
+  /**
+   * Creates the lock under test.
+   */
+  @Setup
+  public void setUp() {
+    switch (lockType) {
+      case "reader-preference":
+        lock = new ReaderWriterLock(ReaderWriterLock.Preference.READER);
+        break;
+      case "jdk":
+        lock = new ReentrantReadWriteLock();
+        break;
+      default:
+        lock = new ReaderWriterLock(ReaderWriterLock.Preference.WRITER);
+        break;
+    }
+  }
+
+  /**
+   * Reads or writes the shared data according to the read:write ratio.
+   */
+  @Benchmark
+  public long readOrWrite() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int index = random.nextInt(data.length);
+    if (random.nextInt(100) < readPercent) {
+      lock.readLock().lock();
+      try {
+        return data[index];
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+    lock.writeLock().lock();
+    try {
+      return ++data[index];
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Benchmark entry point
+   */
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : new int[] {1, 4, 16}) {
+      Options options = new OptionsBuilder()
+          .include(ReaderWriterLockBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
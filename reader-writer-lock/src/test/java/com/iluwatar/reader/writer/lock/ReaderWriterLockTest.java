@@ -0,0 +1,280 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reader.writer.lock;
+
+import com.iluwatar.reader.writer.lock.ReaderWriterLock.Preference;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for the acquisition modes, reentrancy and preferences of {@link ReaderWriterLock}
+ */
+public class ReaderWriterLockTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @Test
+  public void testTryLockAndTimeouts() throws Exception {
+    ReaderWriterLock lock = new ReaderWriterLock();
+    assertTrue(lock.readLock().tryLock());
+    assertFalse(inOtherThread(() -> lock.writeLock().tryLock()));
+    assertFalse(inOtherThread(() -> lock.writeLock().tryLock(20, TimeUnit.MILLISECONDS)));
+    assertTrue(inOtherThread(() -> {
+      boolean acquired = lock.readLock().tryLock(20, TimeUnit.MILLISECONDS);
+      lock.readLock().unlock();
+      return acquired;
+    }));
+    lock.readLock().unlock();
+    assertEquals(0, lock.getReadLockCount());
+
+    assertTrue(lock.writeLock().tryLock(20, TimeUnit.MILLISECONDS));
+    assertTrue(lock.isWriteLocked());
+    assertFalse(inOtherThread(() -> lock.readLock().tryLock(20, TimeUnit.MILLISECONDS)));
+    lock.writeLock().unlock();
+    assertFalse(lock.isWriteLocked());
+  }
+
+  @Test
+  public void testReentrancyAndDowngrade() throws Exception {
+    ReaderWriterLock lock = new ReaderWriterLock();
+    lock.writeLock().lock();
+    lock.writeLock().lock();
+    lock.readLock().lock();
+    lock.writeLock().unlock();
+    assertTrue(lock.isWriteLocked());
+    lock.writeLock().unlock();
+    assertFalse(lock.isWriteLocked());
+    assertEquals(1, lock.getReadLockCount());
+    assertTrue(inOtherThread(() -> {
+      boolean acquired = lock.readLock().tryLock();
+      lock.readLock().unlock();
+      return acquired;
+    }));
+
+    assertThrows(IllegalMonitorStateException.class, () -> lock.writeLock().lock());
+    lock.readLock().unlock();
+    assertThrows(IllegalMonitorStateException.class, () -> lock.readLock().unlock());
+    assertThrows(IllegalMonitorStateException.class, () -> lock.writeLock().unlock());
+  }
+
+  @Test
+  public void testWaitingWriterStopsNewReaders() throws Exception {
+    assertFalse(readerAdmittedWhileWriterWaits(Preference.WRITER));
+    assertTrue(readerAdmittedWhileWriterWaits(Preference.READER));
+  }
+
+  @Test
+  public void testInterruptibleAcquisition() throws Exception {
+    ReaderWriterLock lock = new ReaderWriterLock();
+    lock.readLock().lock();
+    Future<Boolean> writer = executor.submit(() -> {
+      try {
+        lock.writeLock().lockInterruptibly();
+        return false;
+      } catch (InterruptedException e) {
+        return true;
+      }
+    });
+    Thread.sleep(50);
+    writer.cancel(true);
+    assertThrows(Exception.class, () -> writer.get(1, TimeUnit.SECONDS));
+    // the interrupted writer must have given up its claim
+    assertTrue(inOtherThread(() -> {
+      boolean acquired = lock.readLock().tryLock();
+      lock.readLock().unlock();
+      return acquired;
+    }));
+    lock.readLock().unlock();
+  }
+
+  @Test
+  public void testWriteCondition() throws Exception {
+    ReaderWriterLock lock = new ReaderWriterLock();
+    Lock writeLock = lock.writeLock();
+    Condition ready = writeLock.newCondition();
+    AtomicBoolean flag = new AtomicBoolean();
+    CountDownLatch waiting = new CountDownLatch(1);
+    Future<Boolean> waiter = executor.submit(() -> {
+      writeLock.lock();
+      try {
+        waiting.countDown();
+        while (!flag.get()) {
+          ready.await();
+        }
+        return lock.isWriteLockedByCurrentThread();
+      } finally {
+        writeLock.unlock();
+      }
+    });
+    assertTrue(waiting.await(1, TimeUnit.SECONDS));
+    writeLock.lock();
+    flag.set(true);
+    ready.signal();
+    writeLock.unlock();
+    assertTrue(waiter.get(1, TimeUnit.SECONDS));
+    assertThrows(IllegalMonitorStateException.class, ready::signal);
+    assertThrows(UnsupportedOperationException.class, () -> lock.readLock().newCondition());
+  }
+
+  @Test
+  public void testWriteConditionReleasesReadHoldsOfWriter() throws Exception {
+    ReaderWriterLock lock = new ReaderWriterLock();
+    Lock writeLock = lock.writeLock();
+    Condition ready = writeLock.newCondition();
+    AtomicBoolean flag = new AtomicBoolean();
+    CountDownLatch waiting = new CountDownLatch(1);
+    Future<Long> waiter = executor.submit(() -> {
+      writeLock.lock();
+      lock.readLock().lock();
+      try {
+        waiting.countDown();
+        while (!flag.get()) {
+          ready.await();
+        }
+        assertTrue(lock.isWriteLockedByCurrentThread());
+        return lock.getReadLockCount();
+      } finally {
+        lock.readLock().unlock();
+        writeLock.unlock();
+      }
+    });
+    assertTrue(waiting.await(1, TimeUnit.SECONDS));
+    writeLock.lock();
+    assertEquals(0, lock.getReadLockCount());
+    flag.set(true);
+    ready.signal();
+    writeLock.unlock();
+    assertEquals(1, (long) waiter.get(1, TimeUnit.SECONDS));
+    assertEquals(0, lock.getReadLockCount());
+  }
+
+  @Test
+  public void testReadersBlockedByWriterStayParked() throws Exception {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadCpuTimeSupported());
+    ReaderWriterLock lock = new ReaderWriterLock();
+    lock.writeLock().lock();
+    Thread[] readers = new Thread[2];
+    for (int i = 0; i < readers.length; i++) {
+      readers[i] = new Thread(() -> {
+        lock.readLock().lock();
+        lock.readLock().unlock();
+      });
+      readers[i].start();
+    }
+    for (Thread reader : readers) {
+      while (reader.getState() != Thread.State.WAITING) {
+        Thread.sleep(1);
+      }
+    }
+    long cpuBefore = cpuTime(threads, readers);
+    Thread.sleep(500);
+    long cpuNanos = cpuTime(threads, readers) - cpuBefore;
+    lock.writeLock().unlock();
+    for (Thread reader : readers) {
+      reader.join(1000);
+      assertFalse(reader.isAlive());
+    }
+    assertTrue(cpuNanos < TimeUnit.MILLISECONDS.toNanos(50), "readers used " + cpuNanos + " ns of CPU");
+  }
+
+  @Test
+  public void testMutualExclusionUnderContention() throws Exception {
+    for (Preference preference : Preference.values()) {
+      ReaderWriterLock lock = new ReaderWriterLock(preference);
+      long[] pair = new long[2];
+      AtomicBoolean torn = new AtomicBoolean();
+      Future<?>[] futures = new Future<?>[8];
+      for (int t = 0; t < futures.length; t++) {
+        boolean writerThread = t % 4 == 0;
+        futures[t] = executor.submit(() -> {
+          for (int i = 0; i < 5_000; i++) {
+            Lock l = writerThread ? lock.writeLock() : lock.readLock();
+            l.lock();
+            try {
+              if (writerThread) {
+                pair[0]++;
+                pair[1]++;
+              } else if (pair[0] != pair[1]) {
+                torn.set(true);
+              }
+            } finally {
+              l.unlock();
+            }
+          }
+        });
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      assertFalse(torn.get());
+      assertEquals(2 * 5_000, pair[0]);
+      assertEquals(0, lock.getReadLockCount());
+    }
+  }
+
+  private boolean readerAdmittedWhileWriterWaits(Preference preference) throws Exception {
+    ReaderWriterLock lock = new ReaderWriterLock(preference);
+    lock.readLock().lock();
+    Future<Boolean> writer = executor.submit(() -> lock.writeLock().tryLock(5, TimeUnit.SECONDS));
+    Thread.sleep(50);
+    boolean admitted = inOtherThread(() -> {
+      boolean acquired = lock.readLock().tryLock();
+      if (acquired) {
+        lock.readLock().unlock();
+      }
+      return acquired;
+    });
+    lock.readLock().unlock();
+    assertTrue(writer.get(1, TimeUnit.SECONDS));
+    return admitted;
+  }
+
+  private boolean inOtherThread(java.util.concurrent.Callable<Boolean> action) throws Exception {
+    return executor.submit(action).get(1, TimeUnit.SECONDS);
+  }
+
+  private static long cpuTime(ThreadMXBean threads, Thread... measured) {
+    long total = 0;
+    for (Thread thread : measured) {
+      total += threads.getThreadCpuTime(thread.getId());
+    }
+    return total;
+  }
+}
@@ -65,13 +65,16 @@ public class Customer extends Thread {
         
     while (fruitShop.countFruit() > 0) {
       FruitBowl bowl = fruitShop.takeBowl();
-      Fruit fruit;
-            
-      if (bowl != null && (fruit = bowl.take()) != null) {
+      if (bowl == null) {
+        break;
+      }
+
+      Fruit fruit = bowl.take();
+      if (fruit != null) {
         LOGGER.info("{} took an {}", name, fruit);
         fruitBowl.put(fruit);
-        fruitShop.returnBowl(bowl);
       }
+      fruitShop.returnBowl(bowl);
     }
 
     LOGGER.info("{} took {}", name, fruitBowl);
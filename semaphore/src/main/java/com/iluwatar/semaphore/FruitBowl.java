@@ -26,7 +26,8 @@ import java.util.List;
 import java.util.ArrayList;
 
 /**
- * A FruitBowl contains Fruit. 
+ * A FruitBowl contains Fruit. Each bowl is its own monitor, so customers
+ * using different bowls do not contend.
  */
 public class FruitBowl {
     
@@ -36,7 +37,7 @@ public class FruitBowl {
    * 
    * @return The amount of Fruit left in the bowl. 
    */
-  public int countFruit() {
+  public synchronized int countFruit() {
     return fruit.size();
   }
 
@@ -45,7 +46,7 @@ public class FruitBowl {
    * 
    * @param f fruit
    */
-  public void put(Fruit f) {
+  public synchronized void put(Fruit f) {
     fruit.add(f);
   }
   
@@ -53,7 +54,7 @@ public class FruitBowl {
    * Take an item of Fruit out of the bowl.
    * @return The Fruit taken out of the bowl, or null if empty.
    */
-  public Fruit take() {
+  public synchronized Fruit take() {
     if (fruit.isEmpty()) {
       return null;
     } else {
@@ -64,7 +65,7 @@ public class FruitBowl {
   /**
    * toString method
    */   
-  public String toString() {
+  public synchronized String toString() {
     int apples = 0;
     int oranges = 0;
     int lemons = 0;
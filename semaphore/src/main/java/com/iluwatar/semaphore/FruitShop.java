@@ -22,6 +22,8 @@
  */
 package com.iluwatar.semaphore;
 
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 /**
  * A FruitShop contains three FruitBowl instances and controls access to them.
  */
@@ -30,25 +32,21 @@ public class FruitShop {
   /**
    * The FruitBowl instances stored in the class.
    */
-  private FruitBowl[] bowls = {
+  private final FruitBowl[] bowls = {
     new FruitBowl(),
     new FruitBowl(),
     new FruitBowl()
   };
 
   /**
-   * Access flags for each of the FruitBowl instances.
+   * Access flags for each of the FruitBowl instances, 1 when available.
    */
-  private boolean[] available = {
-    true,
-    true,
-    true
-  };
+  private final AtomicIntegerArray available = new AtomicIntegerArray(new int[] {1, 1, 1});
 
   /**
    * The Semaphore that controls access to the class resources.
    */
-  private Semaphore semaphore;
+  private final Semaphore semaphore;
   
   /**
    * FruitShop constructor
@@ -60,46 +58,39 @@ public class FruitShop {
       bowls[2].put(new Fruit(Fruit.FruitType.LEMON));
     }
         
-    semaphore = new Semaphore(3);
+    semaphore = new Semaphore(3, true);
   }
 
   /**
    * 
    * @return The amount of Fruit left in the shop.
    */
-  public synchronized int countFruit() {
+  public int countFruit() {
     return bowls[0].countFruit() + bowls[1].countFruit() + bowls[2].countFruit();
   }
   
   /**
    * Method called by Customer to get a FruitBowl from the shop. This method
-   * will try to acquire the Semaphore before returning the first available 
-   * FruitBowl.
+   * will acquire the Semaphore before returning the first available 
+   * FruitBowl, which must then be given back with {@link #returnBowl(FruitBowl)}.
+   *
+   * @return the bowl, or null if interrupted while waiting
    */   
-  public synchronized FruitBowl takeBowl() {
-        
-    FruitBowl bowl = null;
-        
+  public FruitBowl takeBowl() {
     try {
       semaphore.acquire();
-            
-      if (available[0]) {
-        bowl = bowls[0];
-        available[0] = false;
-      } else if (available[1]) {
-        bowl = bowls[1];
-        available[1] = false;
-      } else if (available[2]) {
-        bowl = bowls[2];
-        available[2] = false;
-      }
-            
     } catch (InterruptedException e) {
-      e.printStackTrace();
-    } finally {
-      semaphore.release();
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    // a license guarantees that one of the bowls is available
+    while (true) {
+      for (int i = 0; i < bowls.length; i++) {
+        if (available.compareAndSet(i, 1, 0)) {
+          return bowls[i];
+        }
+      }
     }
-    return bowl;
   }
   
   /**
@@ -107,13 +98,13 @@ public class FruitShop {
    * This method releases the Semaphore, making the FruitBowl available to 
    * another Customer.
    */   
-  public synchronized void returnBowl(FruitBowl bowl) {
-    if (bowl == bowls[0]) {
-      available[0] = true;
-    } else if (bowl == bowls[1]) {
-      available[1] = true;
-    } else if (bowl == bowls[2]) {
-      available [2] = true;
+  public void returnBowl(FruitBowl bowl) {
+    for (int i = 0; i < bowls.length; i++) {
+      if (bowl == bowls[i]) {
+        available.set(i, 1);
+        semaphore.release();
+        return;
+      }
     }
   }
     
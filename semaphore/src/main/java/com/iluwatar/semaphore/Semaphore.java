@@ -22,20 +22,53 @@
  */
 package com.iluwatar.semaphore;
 
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Semaphore is an implementation of a semaphore lock.
+ * <p>
+ * The available licenses are taken and given back with compare-and-set, so an uncontended acquire
+ * or release never blocks. A thread that has to wait parks in a queue. A fair semaphore hands out
+ * licenses in queue order, even to a thread that asks for more licenses than those available while
+ * later ones would fit; a non-fair one lets arriving and queued threads take whatever fits.
  */
 public class Semaphore implements Lock {
 
   private final int licenses;
+  private final boolean fair;
   /**
    * The number of concurrent resource accesses which are allowed.
    */
-  private int counter;
-    
+  private final AtomicInteger counter;
+  private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queueLength = new AtomicInteger();
+  private final LongAdder waits = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
   public Semaphore(int licenses) {
+    this(licenses, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param licenses number of licenses
+   * @param fair whether licenses are handed out in arrival order
+   */
+  public Semaphore(int licenses, boolean fair) {
+    if (licenses < 1) {
+      throw new IllegalArgumentException("A semaphore needs at least one license");
+    }
     this.licenses = licenses;
-    this.counter = licenses;    
+    this.fair = fair;
+    this.counter = new AtomicInteger(licenses);
   }
   
   /**
@@ -49,7 +82,38 @@ public class Semaphore implements Lock {
    * Returns the number of available licenses
    */
   public int getAvailableLicenses() {
-    return counter; 
+    return counter.get();
+  }
+
+  public boolean isFair() {
+    return fair;
+  }
+
+  /**
+   * Returns the number of threads waiting for licenses
+   */
+  public int getQueueLength() {
+    return queueLength.get();
+  }
+
+  /**
+   * Returns the number of acquisitions that had to wait, including those that timed out or were
+   * interrupted
+   */
+  public long getWaitCount() {
+    return waits.sum();
+  }
+
+  /**
+   * Returns the average time spent waiting by the acquisitions that had to wait
+   */
+  public long getAverageWaitTime(TimeUnit unit) {
+    long count = waits.sum();
+    return count == 0 ? 0 : unit.convert(waitNanos.sum() / count, TimeUnit.NANOSECONDS);
+  }
+
+  public long getMaxWaitTime(TimeUnit unit) {
+    return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
   }
   
   /**
@@ -57,21 +121,179 @@ public class Semaphore implements Lock {
    * available this will wait until the lock has been released to re-attempt
    * the acquire.
    */
-  public synchronized void acquire() throws InterruptedException {
-    while (counter == 0) {
-      wait();
+  public void acquire() throws InterruptedException {
+    acquire(1);
+  }
+
+  /**
+   * Acquires the given number of licenses, waiting until they are available.
+   *
+   * @throws InterruptedException if interrupted while waiting, no license is taken then
+   */
+  public void acquire(int n) throws InterruptedException {
+    checkCount(n);
+    if (!tryFastAcquire(n)) {
+      await(n, 0, false);
     }
-    counter = counter - 1;
+  }
+
+  /**
+   * Acquires a license only if one is available, never waiting.
+   */
+  public boolean tryAcquire() {
+    return tryAcquire(1);
+  }
+
+  /**
+   * Acquires the given number of licenses only if they are available, never waiting.
+   */
+  public boolean tryAcquire(int n) {
+    checkCount(n);
+    return tryFastAcquire(n);
+  }
+
+  /**
+   * Acquires a license, waiting up to the given time for it.
+   *
+   * @return false if the time elapsed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+    return tryAcquire(1, timeout, unit);
+  }
+
+  /**
+   * Acquires the given number of licenses, waiting up to the given time for them.
+   *
+   * @return false if the time elapsed, no license is taken then
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean tryAcquire(int n, long timeout, TimeUnit unit) throws InterruptedException {
+    checkCount(n);
+    return tryFastAcquire(n) || await(n, Math.max(1, unit.toNanos(timeout)), true);
   }
   
   /**
    * Method called by a thread to release the lock.
+   *
+   * @throws IllegalStateException if all licenses are already available
+   */
+  public void release() {
+    release(1);
+  }
+
+  /**
+   * Gives back the given number of licenses.
+   *
+   * @throws IllegalStateException if that would make more licenses available than the semaphore
+   *     manages, no license is given back then
+   */
+  public void release(int n) {
+    checkCount(n);
+    int available;
+    do {
+      available = counter.get();
+      if (available + n > licenses) {
+        throw new IllegalStateException("Releasing " + n + " licenses while " + available + " of "
+            + licenses + " are available");
+      }
+    } while (!counter.compareAndSet(available, available + n));
+    signalWaiters();
+  }
+
+  private void checkCount(int n) {
+    if (n < 1 || n > licenses) {
+      throw new IllegalArgumentException("License count must be between 1 and " + licenses);
+    }
+  }
+
+  private boolean tryFastAcquire(int n) {
+    return (!fair || waiters.isEmpty()) && tryTake(n);
+  }
+
+  private boolean tryTake(int n) {
+    int available;
+    do {
+      available = counter.get();
+      if (available < n) {
+        return false;
+      }
+    } while (!counter.compareAndSet(available, available - n));
+    return true;
+  }
+
+  /**
+   * Queues the current thread and parks it until the licenses are taken, the time elapses or it is
+   * interrupted.
    */
-  public synchronized void release() {
-    if (counter < licenses) {
-      counter = counter + 1;
-      notify();
+  private boolean await(int n, long timeoutNanos, boolean timed) throws InterruptedException {
+    Waiter waiter = new Waiter(Thread.currentThread(), n);
+    long start = System.nanoTime();
+    waiters.add(waiter);
+    queueLength.incrementAndGet();
+    try {
+      while (true) {
+        if ((!fair || waiters.peek() == waiter) && tryTake(n)) {
+          return true;
+        }
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        if (!timed) {
+          LockSupport.park(this);
+        } else {
+          long remaining = timeoutNanos - (System.nanoTime() - start);
+          if (remaining <= 0) {
+            return false;
+          }
+          LockSupport.parkNanos(this, remaining);
+        }
+      }
+    } finally {
+      waiters.remove(waiter);
+      queueLength.decrementAndGet();
+      long waited = System.nanoTime() - start;
+      waits.increment();
+      waitNanos.add(waited);
+      maxWaitNanos.accumulate(waited);
+      // pass on the licenses left over, or those a woken waiter did not take
+      if (counter.get() > 0) {
+        signalWaiters();
+      }
     }
   }
 
+  /**
+   * Wakes the head of the queue, or in a non-fair semaphore every waiter whose request fits.
+   */
+  private void signalWaiters() {
+    if (fair) {
+      Waiter head = waiters.peek();
+      if (head != null) {
+        LockSupport.unpark(head.thread);
+      }
+      return;
+    }
+    int available = counter.get();
+    for (Iterator<Waiter> iterator = waiters.iterator(); iterator.hasNext() && available > 0;) {
+      Waiter waiter = iterator.next();
+      if (waiter.licenses <= available) {
+        available -= waiter.licenses;
+        LockSupport.unpark(waiter.thread);
+      }
+    }
+  }
+
+  /**
+   * Thread waiting for licenses
+   */
+  private static final class Waiter {
+    private final Thread thread;
+    private final int licenses;
+
+    private Waiter(Thread thread, int licenses) {
+      this.thread = thread;
+      this.licenses = licenses;
+    }
+  }
 }
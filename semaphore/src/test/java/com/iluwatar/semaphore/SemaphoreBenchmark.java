@@ -0,0 +1,141 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.semaphore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link Semaphore}, non-fair and fair, against the previous monitor based
+ * implementation. Each operation acquires a license, does a little work and releases it, so with
+ * one license and many threads almost every acquire contends. Run {@link #main(String[])} to
+ * execute it with 1, 4 and 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SemaphoreBenchmark {
+
+  private static final long WORK_TOKENS = 50;
+
+  @Param({"1", "3"})
+  private int licenses;
+
+  @Param({"cas", "cas-fair", "monitor"})
+  private String semaphoreType;
+
+  private Lock semaphore;
+
+  /**
+   * Creates the semaphore under test.
+   */
+  @Setup
+  public void setUp() {
+    switch (semaphoreType) {
+      case "cas-fair":
+        semaphore = new Semaphore(licenses, true);
+        break;
+      case "monitor":
+        semaphore = new MonitorSemaphore(licenses);
+        break;
+      default:
+        semaphore = new Semaphore(licenses);
+        break;
+    }
+  }
+
+  /**
+   * Acquires a license, works and releases it.
+   */
+  @Benchmark
+  public void acquireRelease() throws InterruptedException {
+    semaphore.acquire();
+    try {
+      Blackhole.consumeCPU(WORK_TOKENS);
+    } finally {
+      semaphore.release();
+    }
+  }
+
+  /**
+   * The monitor based semaphore this module used before.
+   */
+  private static class MonitorSemaphore implements Lock {
+
+    private final int licenses;
+    private int counter;
+
+    MonitorSemaphore(int licenses) {
+      this.licenses = licenses;
+      this.counter = licenses;
+    }
+
+    @Override
+    public synchronized void acquire() throws InterruptedException {
+      while (counter == 0) {
+        wait();
+      }
+      counter = counter - 1;
+    }
+
+    @Override
+    public synchronized void release() {
+      if (counter < licenses) {
+        counter = counter + 1;
+        notify();
+      }
+    }
+  }
+
+  /**
+   * Benchmark entry point
+   */
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : new int[] {1, 4, 16}) {
+      Options options = new OptionsBuilder()
+          .include(SemaphoreBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
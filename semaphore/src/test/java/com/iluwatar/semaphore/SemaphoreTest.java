@@ -24,7 +24,17 @@ package com.iluwatar.semaphore;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -52,7 +62,105 @@ public class SemaphoreTest {
       assertEquals(sphore.getAvailableLicenses(), i);
     }
 
-    sphore.release();
+    assertThrows(IllegalStateException.class, sphore::release);
     assertEquals(sphore.getAvailableLicenses(), 3);
   }
+
+  @Test
+  public void batchAcquireReleaseTest() throws Exception {
+    Semaphore sphore = new Semaphore(5);
+    sphore.acquire(3);
+    assertFalse(sphore.tryAcquire(3));
+    assertTrue(sphore.tryAcquire(2));
+    assertEquals(0, sphore.getAvailableLicenses());
+    sphore.release(5);
+    assertThrows(IllegalStateException.class, () -> sphore.release(1));
+    assertThrows(IllegalArgumentException.class, () -> sphore.acquire(6));
+    assertEquals(5, sphore.getAvailableLicenses());
+  }
+
+  @Test
+  public void timedAcquireTest() throws Exception {
+    Semaphore sphore = new Semaphore(1);
+    sphore.acquire();
+    assertFalse(sphore.tryAcquire(20, TimeUnit.MILLISECONDS));
+    assertEquals(0, sphore.getQueueLength());
+    assertEquals(1, sphore.getWaitCount());
+    assertTrue(sphore.getMaxWaitTime(TimeUnit.MILLISECONDS) >= 20);
+
+    Thread releaser = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      sphore.release();
+    });
+    releaser.start();
+    assertTrue(sphore.tryAcquire(5, TimeUnit.SECONDS));
+    releaser.join();
+  }
+
+  @Test
+  public void interruptedAcquireTest() throws Exception {
+    Semaphore sphore = new Semaphore(1);
+    sphore.acquire();
+    AtomicBoolean interrupted = new AtomicBoolean();
+    Thread waiter = new Thread(() -> {
+      try {
+        sphore.acquire();
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      }
+    });
+    waiter.start();
+    awaitQueueLength(sphore, 1);
+    waiter.interrupt();
+    waiter.join(5000);
+    assertTrue(interrupted.get());
+    assertEquals(0, sphore.getQueueLength());
+    assertEquals(0, sphore.getAvailableLicenses());
+  }
+
+  @Test
+  public void fairOrderTest() throws Exception {
+    Semaphore sphore = new Semaphore(2, true);
+    sphore.acquire(2);
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    Thread big = new Thread(() -> acquireAndRecord(sphore, 2, "big", order));
+    big.start();
+    awaitQueueLength(sphore, 1);
+    Thread small = new Thread(() -> acquireAndRecord(sphore, 1, "small", order));
+    small.start();
+    awaitQueueLength(sphore, 2);
+
+    // one license would fit the later request, but the earlier one is served first
+    sphore.release();
+    assertFalse(sphore.tryAcquire());
+    Thread.sleep(50);
+    assertTrue(order.isEmpty());
+    sphore.release();
+    big.join(5000);
+    small.join(5000);
+    assertEquals(Arrays.asList("big", "small"), order);
+    assertEquals(2, sphore.getAvailableLicenses());
+  }
+
+  private static void acquireAndRecord(Semaphore sphore, int n, String name, List<String> order) {
+    try {
+      sphore.acquire(n);
+      order.add(name);
+      sphore.release(n);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void awaitQueueLength(Semaphore sphore, int length) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (sphore.getQueueLength() != length && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(length, sphore.getQueueLength());
+  }
 }
@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 
@@ -43,6 +44,9 @@ import java.util.concurrent.Executors;
  * into a {@link Worker} object that implements {@link Runnable}. We create an
  * {@link ExecutorService} with fixed number of threads (Thread Pool) and use them to execute the
  * {@link Worker}s.
+ * <p>
+ * The same tasks are then run by a {@link TaskScheduler}, which places each one according to its
+ * cost and lets idle threads steal queued tasks from busy ones.
  *
  */
 public class App {
@@ -94,6 +98,22 @@ public class App {
     while (!executor.isTerminated()) {
       Thread.yield();
     }
+
+    // Run the same tasks on a work-stealing scheduler growing from one to three threads
+    TaskScheduler scheduler = new TaskScheduler(1, 3, 1, TimeUnit.SECONDS);
+    for (Task task : tasks) {
+      scheduler.submit(task);
+    }
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      LOGGER.error("Interrupted while waiting for the scheduler.", e);
+      Thread.currentThread().interrupt();
+    }
+    for (WorkerStats stats : scheduler.getWorkerStats()) {
+      LOGGER.info(stats.toString());
+    }
     LOGGER.info("Program finished");
   }
 }
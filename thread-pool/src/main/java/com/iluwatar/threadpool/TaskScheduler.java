@@ -0,0 +1,339 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.threadpool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *
+ * TaskScheduler runs {@link Task}s on a pool of threads, each with its own deque of tasks.
+ * <p>
+ * A submitted task is placed on the worker with the least pending work, measured as the sum of
+ * {@link Task#getTimeMs()} of its queued and running tasks, rather than on the shortest queue. A
+ * worker takes tasks from the head of its own deque and, once it is empty, steals from the tail of
+ * the worker with the most pending work.
+ * <p>
+ * The pool grows by one worker, up to the maximum, when a task is submitted while every worker is
+ * busy, and a worker that found nothing to do for the keep-alive time retires while there are more
+ * than the minimum. A worker killed by an {@link Error} hands its queued tasks to the other workers
+ * and is replaced if the pool fell below the minimum.
+ *
+ */
+public class TaskScheduler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TaskScheduler.class);
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final int minWorkers;
+  private final int maxWorkers;
+  private final long keepAliveNanos;
+  private final List<SchedulerWorker> workers = new CopyOnWriteArrayList<>();
+  private final AtomicInteger workerCount = new AtomicInteger();
+  private final AtomicInteger workerIndex = new AtomicInteger();
+  private final AtomicInteger busyWorkers = new AtomicInteger();
+  private final AtomicLong unfinishedTasks = new AtomicLong();
+  private final Object terminationLock = new Object();
+  private final List<WorkerStats> retiredStats = new CopyOnWriteArrayList<>();
+  private volatile boolean shutdown;
+
+  /**
+   * Creates a scheduler and starts the minimum number of workers.
+   *
+   * @param minWorkers number of workers kept while idle, at least one
+   * @param maxWorkers maximum number of workers
+   * @param keepAlive idle time after which a worker above the minimum retires
+   * @param unit unit of {@code keepAlive}
+   */
+  public TaskScheduler(int minWorkers, int maxWorkers, long keepAlive, TimeUnit unit) {
+    if (minWorkers < 1 || maxWorkers < minWorkers || keepAlive <= 0) {
+      throw new IllegalArgumentException("Invalid worker count or keep-alive time");
+    }
+    this.minWorkers = minWorkers;
+    this.maxWorkers = maxWorkers;
+    this.keepAliveNanos = unit.toNanos(keepAlive);
+    for (int i = 0; i < minWorkers; i++) {
+      addWorker();
+    }
+  }
+
+  /**
+   * Places the task on the least loaded worker.
+   *
+   * @throws RejectedExecutionException if the scheduler has been shut down
+   */
+  public void submit(Task task) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Scheduler has been shut down");
+    }
+    unfinishedTasks.incrementAndGet();
+    if (busyWorkers.get() >= workerCount.get()) {
+      addWorker();
+    }
+    place(task);
+  }
+
+  /**
+   * Stops accepting tasks, the queued ones are still executed.
+   */
+  public void shutdown() {
+    shutdown = true;
+    for (SchedulerWorker worker : workers) {
+      LockSupport.unpark(worker.thread);
+    }
+  }
+
+  /**
+   * Waits for all workers to finish after {@link #shutdown()}.
+   *
+   * @return true if the workers finished in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (terminationLock) {
+      while (workerCount.get() > 0) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(terminationLock, remaining);
+      }
+    }
+    return true;
+  }
+
+  public int getWorkerCount() {
+    return workerCount.get();
+  }
+
+  /**
+   * @return submitted tasks that have not completed yet
+   */
+  public long getUnfinishedTaskCount() {
+    return unfinishedTasks.get();
+  }
+
+  /**
+   * @return statistics of the current workers followed by those of the retired ones
+   */
+  public List<WorkerStats> getWorkerStats() {
+    List<WorkerStats> stats = new ArrayList<>();
+    for (SchedulerWorker worker : workers) {
+      stats.add(worker.stats());
+    }
+    stats.addAll(retiredStats);
+    return stats;
+  }
+
+  /**
+   * Executes a task on a worker thread.
+   */
+  protected void execute(Task task) {
+    new Worker(task).run();
+  }
+
+  private void place(Task task) {
+    while (true) {
+      SchedulerWorker target = null;
+      for (SchedulerWorker worker : workers) {
+        if (target == null || worker.pendingCost.get() < target.pendingCost.get()) {
+          target = worker;
+        }
+      }
+      if (target == null) {
+        addWorker();
+        continue;
+      }
+      target.push(task);
+      // a retiring worker may have drained its deque before the task was pushed
+      if (target.retired && target.deque.removeLastOccurrence(task)) {
+        target.pendingCost.addAndGet(-task.getTimeMs());
+        continue;
+      }
+      LockSupport.unpark(target.thread);
+      return;
+    }
+  }
+
+  private void addWorker() {
+    int count;
+    do {
+      count = workerCount.get();
+      if (count >= maxWorkers) {
+        return;
+      }
+    } while (!workerCount.compareAndSet(count, count + 1));
+    SchedulerWorker worker = new SchedulerWorker("task-scheduler-" + workerIndex.incrementAndGet());
+    workers.add(worker);
+    worker.thread.start();
+    LOGGER.debug("Started {}, {} workers", worker.thread.getName(), count + 1);
+  }
+
+  private boolean tryRetire() {
+    int count;
+    do {
+      count = workerCount.get();
+      if (count <= minWorkers) {
+        return false;
+      }
+    } while (!workerCount.compareAndSet(count, count - 1));
+    return true;
+  }
+
+  private Task steal(SchedulerWorker thief) {
+    SchedulerWorker victim = null;
+    for (SchedulerWorker worker : workers) {
+      if (worker != thief && !worker.deque.isEmpty()
+          && (victim == null || worker.pendingCost.get() > victim.pendingCost.get())) {
+        victim = worker;
+      }
+    }
+    if (victim == null) {
+      return null;
+    }
+    Task task = victim.deque.pollLast();
+    if (task != null) {
+      victim.pendingCost.addAndGet(-task.getTimeMs());
+    }
+    return task;
+  }
+
+  private void terminated(SchedulerWorker worker, boolean stillCounted) {
+    retiredStats.add(worker.stats());
+    workers.remove(worker);
+    if (stillCounted) {
+      workerCount.decrementAndGet();
+    }
+    synchronized (terminationLock) {
+      terminationLock.notifyAll();
+    }
+  }
+
+  /**
+   * Thread owning a deque of tasks.
+   */
+  private final class SchedulerWorker implements Runnable {
+
+    private final Thread thread;
+    private final ConcurrentLinkedDeque<Task> deque = new ConcurrentLinkedDeque<>();
+    private final AtomicLong pendingCost = new AtomicLong();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder steals = new LongAdder();
+    private final LongAdder idleNanos = new LongAdder();
+    private volatile boolean retired;
+
+    private SchedulerWorker(String name) {
+      thread = new Thread(this, name);
+      thread.setDaemon(true);
+    }
+
+    private void push(Task task) {
+      pendingCost.addAndGet(task.getTimeMs());
+      deque.offerLast(task);
+    }
+
+    @Override
+    public void run() {
+      long idleSince = System.nanoTime();
+      try {
+        while (true) {
+          Task task = deque.pollFirst();
+          if (task == null) {
+            task = steal(this);
+            if (task != null) {
+              steals.increment();
+              pendingCost.addAndGet(task.getTimeMs());
+            }
+          }
+          if (task != null) {
+            long now = System.nanoTime();
+            idleNanos.add(now - idleSince);
+            runTask(task);
+            idleSince = System.nanoTime();
+          } else if (shutdown && unfinishedTasks.get() == 0) {
+            terminated(this, true);
+            return;
+          } else if (System.nanoTime() - idleSince >= keepAliveNanos && tryRetire()) {
+            retire();
+            terminated(this, false);
+            return;
+          } else {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+          }
+        }
+      } catch (RuntimeException | Error e) {
+        // the count is released first so that place() can start a worker for the orphaned tasks
+        workerCount.decrementAndGet();
+        retire();
+        if (workerCount.get() < minWorkers) {
+          addWorker();
+        }
+        terminated(this, false);
+        throw e;
+      }
+    }
+
+    private void runTask(Task task) {
+      busyWorkers.incrementAndGet();
+      try {
+        execute(task);
+      } catch (RuntimeException e) {
+        LOGGER.error("Task {} failed.", task, e);
+      } finally {
+        busyWorkers.decrementAndGet();
+        pendingCost.addAndGet(-task.getTimeMs());
+        executed.increment();
+        unfinishedTasks.decrementAndGet();
+      }
+    }
+
+    private void retire() {
+      retired = true;
+      workers.remove(this);
+      Task task;
+      while ((task = deque.pollFirst()) != null) {
+        pendingCost.addAndGet(-task.getTimeMs());
+        place(task);
+      }
+      LOGGER.debug("Retired {}", thread.getName());
+    }
+
+    private WorkerStats stats() {
+      return new WorkerStats(thread.getName(), executed.sum(), steals.sum(),
+          TimeUnit.NANOSECONDS.toMillis(idleNanos.sum()), deque.size());
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.threadpool;
+
+/**
+ *
+ * Snapshot of the statistics of one {@link TaskScheduler} worker
+ *
+ */
+public class WorkerStats {
+
+  private final String name;
+  private final long executed;
+  private final long steals;
+  private final long idleMs;
+  private final int queueLength;
+
+  /**
+   * Constructor
+   */
+  public WorkerStats(String name, long executed, long steals, long idleMs, int queueLength) {
+    this.name = name;
+    this.executed = executed;
+    this.steals = steals;
+    this.idleMs = idleMs;
+    this.queueLength = queueLength;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return number of tasks executed, including stolen ones
+   */
+  public long getExecuted() {
+    return executed;
+  }
+
+  /**
+   * @return number of tasks taken from other workers
+   */
+  public long getSteals() {
+    return steals;
+  }
+
+  public long getIdleMs() {
+    return idleMs;
+  }
+
+  public int getQueueLength() {
+    return queueLength;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s executed=%d steals=%d idleMs=%d queueLength=%d", name, executed, steals, idleMs,
+        queueLength);
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.threadpool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the time needed to run a batch of tasks with {@link TaskScheduler} against a
+ * fixed thread pool with a shared queue. The cost mixes are uniform, skewed (one task in ten is
+ * fifty times longer) and front-loaded (the long tasks are submitted first). Tasks burn CPU in
+ * proportion to {@link Task#getTimeMs()} instead of sleeping. Run {@link #main(String[])} to execute it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSchedulerBenchmark {
+
+  private static final int BATCH_SIZE = 1000;
+  private static final int THREADS = 4;
+  private static final long CPU_TOKENS_PER_COST = 100;
+
+  @Param({"uniform", "skewed", "front-loaded"})
+  private String mix;
+
+  private final List<Task> batch = new ArrayList<>();
+
+  /**
+   * Creates the batch of tasks for the cost mix.
+   */
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      int cost;
+      switch (mix) {
+        case "skewed":
+          cost = random.nextInt(10) == 0 ? 500 : 10;
+          break;
+        case "front-loaded":
+          cost = i < BATCH_SIZE / 10 ? 500 : 10;
+          break;
+        default:
+          cost = 59;
+          break;
+      }
+      batch.add(new SpinningTask(cost));
+    }
+  }
+
+  /**
+   * Runs the batch on a {@link TaskScheduler}.
+   */
+  @Benchmark
+  public void taskScheduler() throws InterruptedException {
+    TaskScheduler scheduler = new TaskScheduler(THREADS, THREADS, 1, TimeUnit.SECONDS) {
+      @Override
+      protected void execute(Task task) {
+        ((SpinningTask) task).spin();
+      }
+    };
+    for (Task task : batch) {
+      scheduler.submit(task);
+    }
+    scheduler.shutdown();
+    scheduler.awaitTermination(1, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Runs the batch on a fixed thread pool.
+   */
+  @Benchmark
+  public void fixedThreadPool() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    for (Task task : batch) {
+      executor.execute(((SpinningTask) task)::spin);
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Discards the batch.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    batch.clear();
+  }
+
+  /**
+   * Task burning CPU in proportion to its cost
+   */
+  private static class SpinningTask extends Task {
+
+    SpinningTask(int cost) {
+      super(cost);
+    }
+
+    void spin() {
+      Blackhole.consumeCPU(getTimeMs() * CPU_TOKENS_PER_COST);
+    }
+  }
+
+  /**
+   * Benchmark entry point
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(TaskSchedulerBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
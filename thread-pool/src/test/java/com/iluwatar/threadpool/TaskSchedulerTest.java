@@ -0,0 +1,163 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.threadpool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link TaskScheduler}
+ */
+public class TaskSchedulerTest {
+
+  @Test
+  public void testInvalidConfiguration() {
+    assertThrows(IllegalArgumentException.class, () -> new TaskScheduler(0, 1, 1, TimeUnit.SECONDS));
+    assertThrows(IllegalArgumentException.class, () -> new TaskScheduler(2, 1, 1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testAllTasksAreExecuted() throws Exception {
+    TaskScheduler scheduler = new TaskScheduler(2, 4, 1, TimeUnit.SECONDS);
+    for (int i = 0; i < 50; i++) {
+      scheduler.submit(new TestTask(i % 10 == 0 ? 20 : 1, null));
+    }
+    scheduler.shutdown();
+    assertTrue(scheduler.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(0, scheduler.getUnfinishedTaskCount());
+    assertEquals(50, scheduler.getWorkerStats().stream().mapToLong(WorkerStats::getExecuted).sum());
+    assertThrows(RejectedExecutionException.class, () -> scheduler.submit(new TestTask(1, null)));
+  }
+
+  @Test
+  public void testIdleWorkerStealsQueuedTask() throws Exception {
+    CountDownLatch blocker = new CountDownLatch(1);
+    CountDownLatch other = new CountDownLatch(1);
+    CountDownLatch stolen = new CountDownLatch(1);
+    TaskScheduler scheduler = new TestScheduler(2, 2);
+    // the cost of the first task is underestimated, so the third one is queued behind it
+    scheduler.submit(new TestTask(1, blocker::await));
+    scheduler.submit(new TestTask(5, other::await));
+    scheduler.submit(new TestTask(5, stolen::countDown));
+    other.countDown();
+
+    assertTrue(stolen.await(5, TimeUnit.SECONDS));
+    blocker.countDown();
+    scheduler.shutdown();
+    assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(scheduler.getWorkerStats().stream().mapToLong(WorkerStats::getSteals).sum() >= 1);
+  }
+
+  @Test
+  public void testPoolGrowsWhenBusyAndShrinksWhenIdle() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    TaskScheduler scheduler = new TestScheduler(1, 3);
+    for (int i = 0; i < 6; i++) {
+      scheduler.submit(new TestTask(10, release::await));
+      Thread.sleep(20);
+    }
+    assertEquals(3, scheduler.getWorkerCount());
+    release.countDown();
+
+    awaitCondition(() -> scheduler.getWorkerCount() == 1);
+    awaitCondition(() -> scheduler.getWorkerStats().stream().mapToLong(WorkerStats::getExecuted).sum() == 6);
+    assertEquals(0, scheduler.getUnfinishedTaskCount());
+  }
+
+  @Test
+  public void testTasksQueuedOnWorkerKilledByErrorAreExecuted() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger executed = new AtomicInteger();
+    TaskScheduler scheduler = new TestScheduler(1, 1);
+    scheduler.submit(new TestTask(1, release::await));
+    scheduler.submit(new TestTask(1, () -> {
+      throw new AssertionError("Task failed hard");
+    }));
+    for (int i = 0; i < 3; i++) {
+      scheduler.submit(new TestTask(1, executed::incrementAndGet));
+    }
+    release.countDown();
+
+    awaitCondition(() -> executed.get() == 3);
+    assertEquals(1, scheduler.getWorkerCount());
+    scheduler.shutdown();
+    assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(0, scheduler.getUnfinishedTaskCount());
+  }
+
+  private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+
+  /**
+   * Task running a body instead of sleeping
+   */
+  private static class TestTask extends Task {
+
+    private final Body body;
+
+    TestTask(int timeMs, Body body) {
+      super(timeMs);
+      this.body = body;
+    }
+  }
+
+  /**
+   * Body of a {@link TestTask}
+   */
+  private interface Body {
+    void run() throws InterruptedException;
+  }
+
+  /**
+   * Scheduler running the body of {@link TestTask}s
+   */
+  private static class TestScheduler extends TaskScheduler {
+
+    TestScheduler(int minWorkers, int maxWorkers) {
+      super(minWorkers, maxWorkers, 50, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void execute(Task task) {
+      try {
+        ((TestTask) task).body.run();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -35,9 +35,11 @@ import java.util.concurrent.ThreadLocalRandom;
 class B2BService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(B2BService.class);
+  private final Throttler throttler;
   private final CallsCount callsCount;
 
   public B2BService(Throttler timer, CallsCount callsCount) {
+    this.throttler = timer;
     this.callsCount = callsCount;
     timer.start();
   }
@@ -48,13 +50,11 @@ class B2BService {
    */
   public int dummyCustomerApi(Tenant tenant) {
     String tenantName = tenant.getName();
-    long count = callsCount.getCount(tenantName);
-    LOGGER.debug("Counter for {} : {} ", tenant.getName(), count);
-    if (count >= tenant.getAllowedCallsPerSecond()) {
+    if (!throttler.tryAcquire(tenant, callsCount)) {
       LOGGER.error("API access per second limit reached for: {}", tenantName);
       return -1;
     }
-    callsCount.incrementCount(tenantName);
+    LOGGER.debug("Counter for {} : {} ", tenantName, callsCount.getCount(tenantName));
     return getRandomCustomerId();
   }
 
@@ -26,7 +26,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -56,6 +55,25 @@ public final class CallsCount {
     tenantCallsCount.get(tenantName).incrementAndGet();
   }
   
+  /**
+   * Increments the count of the specified tenant unless it has already reached the limit. The check
+   * and the increment happen atomically, so concurrent callers cannot exceed the limit together.
+   * @param tenantName name of the tenant.
+   * @param limit maximum count of the tenant.
+   * @return true if the count was incremented.
+   */
+  public boolean tryIncrement(String tenantName, long limit) {
+    AtomicLong count = tenantCallsCount.get(tenantName);
+    long current;
+    do {
+      current = count.get();
+      if (current >= limit) {
+        return false;
+      }
+    } while (!count.compareAndSet(current, current + 1));
+    return true;
+  }
+
   /**
    * 
    * @param tenantName name of the tenant.
@@ -70,8 +88,8 @@ public final class CallsCount {
    */
   public void reset() {
     LOGGER.debug("Resetting the map.");
-    for (Entry<String, AtomicLong> e : tenantCallsCount.entrySet()) {
-      tenantCallsCount.put(e.getKey(), new AtomicLong(0));
+    for (AtomicLong count : tenantCallsCount.values()) {
+      count.set(0);
     }
   }
 }
@@ -0,0 +1,148 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.quota;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Quota store in a memory-mapped file, shared by all processes on a host that open the same file.
+ * It stands in for a networked store such as a key-value server: every lease is one short critical
+ * section under an exclusive file lock.
+ * <p>
+ * The file is an open-addressing hash table of fixed-size slots holding the 64-bit hash of the
+ * tenant name, the window, the used calls and a check of the name made of its length and
+ * {@link String#hashCode()}. A slot only belongs to a tenant if both the hash and the check match,
+ * so tenants whose hashes collide get separate slots. All processes must open the file with the
+ * same number of slots, and there must be fewer tenants than slots.
+ * </p>
+ */
+public class FileQuotaStore implements QuotaStore {
+
+  public static final int DEFAULT_SLOTS = 4096;
+
+  static final int SLOT_SIZE = 4 * Long.BYTES;
+  static final int WINDOW_OFFSET = Long.BYTES;
+  static final int USED_OFFSET = 2 * Long.BYTES;
+  static final int CHECK_OFFSET = 3 * Long.BYTES;
+
+  /**
+   * File locks are held per JVM, threads and stores of the same JVM have to be serialized first.
+   */
+  private static final Map<Path, ReentrantLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+  private final FileChannel channel;
+  private final MappedByteBuffer slots;
+  private final int slotCount;
+  private final ReentrantLock processLock;
+
+  public FileQuotaStore(Path file) throws IOException {
+    this(file, DEFAULT_SLOTS);
+  }
+
+  /**
+   * Opens the store, creating the file if it does not exist yet.
+   * @param file the shared file.
+   * @param slotCount maximum number of tenants.
+   * @throws IOException if the file cannot be opened or mapped.
+   */
+  public FileQuotaStore(Path file, int slotCount) throws IOException {
+    if (slotCount <= 0) {
+      throw new IllegalArgumentException("Slot count must be positive");
+    }
+    this.slotCount = slotCount;
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) slotCount * SLOT_SIZE);
+    this.processLock = PROCESS_LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), p -> new ReentrantLock());
+  }
+
+  @Override
+  public long lease(String tenantName, long window, long requested, long limit) {
+    long key = hash(tenantName);
+    long check = check(tenantName);
+    processLock.lock();
+    try (FileLock lock = channel.lock()) {
+      int offset = find(key, check);
+      long storedWindow = slots.getLong(offset + WINDOW_OFFSET);
+      if (storedWindow > window) {
+        return 0;
+      }
+      long used = storedWindow == window ? slots.getLong(offset + USED_OFFSET) : 0;
+      long granted = Math.min(requested, Math.max(0, limit - used));
+      slots.putLong(offset, key);
+      slots.putLong(offset + WINDOW_OFFSET, window);
+      slots.putLong(offset + USED_OFFSET, used + granted);
+      slots.putLong(offset + CHECK_OFFSET, check);
+      return granted;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      processLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private int find(long key, long check) {
+    int start = (int) Long.remainderUnsigned(key, slotCount);
+    for (int i = 0; i < slotCount; i++) {
+      int offset = ((start + i) % slotCount) * SLOT_SIZE;
+      long stored = slots.getLong(offset);
+      if (stored == 0 || stored == key && slots.getLong(offset + CHECK_OFFSET) == check) {
+        return offset;
+      }
+    }
+    throw new IllegalStateException("Quota store is full");
+  }
+
+  /**
+   * 64-bit FNV-1a hash of the tenant name, never 0 because 0 marks a free slot.
+   */
+  static long hash(String tenantName) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < tenantName.length(); i++) {
+      hash ^= tenantName.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return hash == 0 ? 1 : hash;
+  }
+
+  /**
+   * Length of the tenant name and its {@link String#hashCode()}, independent of {@link #hash}.
+   */
+  static long check(String tenantName) {
+    return (long) tenantName.length() << 32 | tenantName.hashCode() & 0xffffffffL;
+  }
+}
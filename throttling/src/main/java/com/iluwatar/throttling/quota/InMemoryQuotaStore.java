@@ -0,0 +1,68 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.quota;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Quota store kept in the memory of a single process. Enough for one node, or for several
+ * throttlers in the same JVM that have to share the quota of a tenant.
+ */
+public class InMemoryQuotaStore implements QuotaStore {
+
+  /**
+   * Immutable usage of a tenant in one window.
+   */
+  private static final class Usage {
+    private final long window;
+    private final long used;
+
+    private Usage(long window, long used) {
+      this.window = window;
+      this.used = used;
+    }
+  }
+
+  private final Map<String, Usage> usages = new ConcurrentHashMap<>();
+
+  @Override
+  public long lease(String tenantName, long window, long requested, long limit) {
+    long[] granted = new long[1];
+    usages.compute(tenantName, (name, usage) -> {
+      long used = usage != null && usage.window == window ? usage.used : 0;
+      if (usage != null && usage.window > window) {
+        // a node with a lagging clock must not reopen a window that is already over
+        return usage;
+      }
+      granted[0] = Math.min(requested, Math.max(0, limit - used));
+      return new Usage(window, used + granted[0]);
+    });
+    return granted[0];
+  }
+
+  @Override
+  public void close() {
+    usages.clear();
+  }
+}
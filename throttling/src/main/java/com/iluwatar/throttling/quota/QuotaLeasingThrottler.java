@@ -0,0 +1,150 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.quota;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import com.iluwatar.throttling.timer.Throttler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttler that enforces the quota of a tenant across all nodes sharing a {@link QuotaStore}.
+ * Calls are leased from the store in batches of a fraction of the tenant's quota and handed out
+ * locally, so only one call in a batch pays for a round trip to the store.
+ * <p>
+ * The store never grants more than the quota, so the tenant cannot exceed it. Calls leased by a
+ * node but not used before the window ends are lost, which bounds the under-use at one batch per
+ * node and window. Once the store has no quota left, the node rejects calls locally until the next
+ * window.
+ * </p>
+ */
+public class QuotaLeasingThrottler implements Throttler {
+
+  public static final double DEFAULT_BATCH_FRACTION = 0.05;
+
+  /**
+   * Calls leased by this node for a tenant in one window.
+   */
+  private static final class Lease {
+    private final long window;
+    private final AtomicLong remaining = new AtomicLong();
+    private volatile boolean exhausted;
+
+    private Lease(long window) {
+      this.window = window;
+    }
+  }
+
+  private final QuotaStore store;
+  private final int throttlePeriod;
+  private final double batchFraction;
+  private final LongSupplier clock;
+  private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+  private final LongAdder roundTrips = new LongAdder();
+
+  public QuotaLeasingThrottler(QuotaStore store, int throttlePeriod) {
+    this(store, throttlePeriod, DEFAULT_BATCH_FRACTION);
+  }
+
+  public QuotaLeasingThrottler(QuotaStore store, int throttlePeriod, double batchFraction) {
+    this(store, throttlePeriod, batchFraction, System::currentTimeMillis);
+  }
+
+  QuotaLeasingThrottler(QuotaStore store, int throttlePeriod, double batchFraction, LongSupplier clock) {
+    if (throttlePeriod <= 0 || batchFraction <= 0 || batchFraction > 1) {
+      throw new IllegalArgumentException("Invalid throttle period or batch fraction");
+    }
+    this.store = store;
+    this.throttlePeriod = throttlePeriod;
+    this.batchFraction = batchFraction;
+    this.clock = clock;
+  }
+
+  /**
+   * Nothing to schedule, a new window starts with a new lease.
+   */
+  @Override
+  public void start() {
+    // leases expire with their window
+  }
+
+  @Override
+  public boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    int limit = tenant.getAllowedCallsPerSecond();
+    if (limit == 0) {
+      return false;
+    }
+    long window = clock.getAsLong() / throttlePeriod;
+    Lease lease = leases.get(tenant.getName());
+    if (lease == null || lease.window < window) {
+      lease = leases.compute(tenant.getName(), (name, old) -> old != null && old.window >= window ? old
+          : new Lease(window));
+    }
+    while (true) {
+      if (take(lease.remaining)) {
+        return true;
+      }
+      if (lease.exhausted) {
+        return false;
+      }
+      synchronized (lease) {
+        if (lease.remaining.get() == 0 && !lease.exhausted) {
+          roundTrips.increment();
+          long granted = store.lease(tenant.getName(), lease.window, batchSize(limit), limit);
+          if (granted == 0) {
+            lease.exhausted = true;
+          } else {
+            lease.remaining.addAndGet(granted);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @return number of leases requested from the store.
+   */
+  public long getStoreRoundTrips() {
+    return roundTrips.sum();
+  }
+
+  private long batchSize(int limit) {
+    return Math.max(1, (long) (limit * batchFraction));
+  }
+
+  private static boolean take(AtomicLong remaining) {
+    long current;
+    do {
+      current = remaining.get();
+      if (current == 0) {
+        return false;
+      }
+    } while (!remaining.compareAndSet(current, current - 1));
+    return true;
+  }
+}
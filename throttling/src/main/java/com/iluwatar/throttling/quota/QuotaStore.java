@@ -0,0 +1,48 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.quota;
+
+import java.io.Closeable;
+
+/**
+ * Store of the calls every tenant has used per throttling window, shared by all nodes that serve
+ * the tenant. Nodes do not ask the store for every call, they lease a batch of calls at a time
+ * with {@link #lease(String, long, long, long)} and hand them out locally.
+ * <p>
+ * Windows are identified by their index, the wall clock time divided by the window length, so all
+ * nodes agree on the current window as long as their clocks are reasonably in sync.
+ * </p>
+ */
+public interface QuotaStore extends Closeable {
+
+  /**
+   * Atomically takes up to <code>requested</code> calls from the quota of the tenant in the given
+   * window. A window the store has not seen for the tenant starts with the whole quota.
+   * @param tenantName name of the tenant.
+   * @param window index of the throttling window.
+   * @param requested number of calls the node would like to lease.
+   * @param limit number of calls the tenant may make per window.
+   * @return number of calls granted, between 0 and <code>requested</code>.
+   */
+  long lease(String tenantName, long window, long requested, long limit);
+}
@@ -0,0 +1,159 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.timer;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Base class of the throttlers that keep a small state per tenant and bring it up to date when the
+ * tenant makes a call, instead of resetting all tenants from a timer. No background thread is
+ * needed, and idle tenants cost nothing but their entry in the map.
+ * <p>
+ * Idle tenants are purged when the map has doubled in size since the last purge, so the map stays
+ * proportional to the number of active tenants. A purged state is retired atomically first, so a
+ * call racing with the purge is never counted against a state that is about to be dropped.
+ * </p>
+ * @param <S> type of the per-tenant state
+ */
+public abstract class LazyRefillThrottler<S> implements Throttler {
+
+  /**
+   * Outcome of an acquisition attempt on one tenant state.
+   */
+  protected enum Acquisition {
+    ACCEPTED, REJECTED, RETIRED
+  }
+
+  private static final int MIN_PURGE_SIZE = 1024;
+
+  protected final long periodNanos;
+  private final LongSupplier clock;
+  private final long origin;
+  private final Map<String, S> states = new ConcurrentHashMap<>();
+  private volatile int nextPurgeSize = MIN_PURGE_SIZE;
+
+  /**
+   * @param throttlePeriod length of the throttling period in milliseconds.
+   * @param clock source of nanosecond timestamps.
+   */
+  protected LazyRefillThrottler(int throttlePeriod, LongSupplier clock) {
+    if (throttlePeriod <= 0) {
+      throw new IllegalArgumentException("Throttle period must be positive");
+    }
+    this.periodNanos = TimeUnit.MILLISECONDS.toNanos(throttlePeriod);
+    this.clock = clock;
+    this.origin = clock.getAsLong();
+  }
+
+  /**
+   * Nothing to schedule, the tenants are refilled when they make a call.
+   */
+  @Override
+  public void start() {
+    // refilled lazily
+  }
+
+  @Override
+  public boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    int limit = tenant.getAllowedCallsPerSecond();
+    if (limit == 0) {
+      return false;
+    }
+    String name = tenant.getName();
+    while (true) {
+      long now = now();
+      S state = states.get(name);
+      if (state == null) {
+        state = states.computeIfAbsent(name, k -> newState(now));
+        purgeIfGrown();
+      }
+      Acquisition acquisition = tryTake(state, limit, now);
+      if (acquisition != Acquisition.RETIRED) {
+        return acquisition == Acquisition.ACCEPTED;
+      }
+      states.remove(name, state);
+    }
+  }
+
+  /**
+   * Drops the state of every tenant whose state is no different from a fresh one.
+   */
+  public void purgeIdleTenants() {
+    long now = now();
+    states.entrySet().removeIf(e -> retireIfIdle(e.getValue(), now));
+  }
+
+  /**
+   * @return number of tenants that currently have a state.
+   */
+  public int getTenantCount() {
+    return states.size();
+  }
+
+  /**
+   * @return nanoseconds since this throttler was created.
+   */
+  protected long now() {
+    return clock.getAsLong() - origin;
+  }
+
+  /**
+   * @param now current time.
+   * @return state of a tenant that has not made any calls yet.
+   */
+  protected abstract S newState(long now);
+
+  /**
+   * Takes one call from the quota of the tenant, if there is any left.
+   * @param state state of the tenant.
+   * @param limit allowed calls per period.
+   * @param now current time.
+   * @return the outcome, {@link Acquisition#RETIRED} if the state has been purged.
+   */
+  protected abstract Acquisition tryTake(S state, int limit, long now);
+
+  /**
+   * Retires the state if it is equivalent to a fresh one.
+   * @param state state of the tenant.
+   * @param now current time.
+   * @return true if the state has been retired and can be dropped.
+   */
+  protected abstract boolean retireIfIdle(S state, long now);
+
+  private void purgeIfGrown() {
+    if (states.size() >= nextPurgeSize) {
+      synchronized (states) {
+        if (states.size() >= nextPurgeSize) {
+          purgeIdleTenants();
+          nextPurgeSize = Math.max(MIN_PURGE_SIZE, states.size() * 2);
+        }
+      }
+    }
+  }
+}
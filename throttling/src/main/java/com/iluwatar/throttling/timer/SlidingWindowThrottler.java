@@ -0,0 +1,111 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.timer;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free sliding window counter. Every tenant keeps the number of calls of the current and of
+ * the previous fixed window; the calls in the sliding window ending now are estimated by weighting
+ * the previous window with the share of it that still overlaps the sliding window. Unlike a counter
+ * that is reset at the window boundary, a burst at the end of one window and the start of the next
+ * cannot exceed the quota.
+ */
+public class SlidingWindowThrottler extends LazyRefillThrottler<AtomicReference<SlidingWindowThrottler.Window>> {
+
+  private static final Window RETIRED = new Window(-1, 0, 0);
+
+  /**
+   * Immutable call counts of a tenant.
+   */
+  static final class Window {
+    final long index;
+    final long previous;
+    final long current;
+
+    Window(long index, long previous, long current) {
+      this.index = index;
+      this.previous = previous;
+      this.current = current;
+    }
+  }
+
+  /**
+   * @param throttlePeriod length of the window in milliseconds.
+   */
+  public SlidingWindowThrottler(int throttlePeriod) {
+    this(throttlePeriod, System::nanoTime);
+  }
+
+  SlidingWindowThrottler(int throttlePeriod, LongSupplier clock) {
+    super(throttlePeriod, clock);
+  }
+
+  @Override
+  protected AtomicReference<Window> newState(long now) {
+    return new AtomicReference<>(new Window(now / periodNanos, 0, 0));
+  }
+
+  @Override
+  protected Acquisition tryTake(AtomicReference<Window> state, int limit, long now) {
+    long index = now / periodNanos;
+    double overlap = 1 - (double) (now - index * periodNanos) / periodNanos;
+    while (true) {
+      Window window = state.get();
+      if (window == RETIRED) {
+        return Acquisition.RETIRED;
+      }
+      long windowIndex = index;
+      double weight = overlap;
+      long previous;
+      long current;
+      if (window.index >= index) {
+        // a caller whose now is older than the window must not move it backwards, it counts against
+        // the window as it is, with the whole previous window
+        windowIndex = window.index;
+        weight = window.index == index ? overlap : 1;
+        previous = window.previous;
+        current = window.current;
+      } else if (window.index == index - 1) {
+        previous = window.current;
+        current = 0;
+      } else {
+        previous = 0;
+        current = 0;
+      }
+      if (previous * weight + current + 1 > limit) {
+        return Acquisition.REJECTED;
+      }
+      if (state.compareAndSet(window, new Window(windowIndex, previous, current + 1))) {
+        return Acquisition.ACCEPTED;
+      }
+    }
+  }
+
+  @Override
+  protected boolean retireIfIdle(AtomicReference<Window> state, long now) {
+    Window window = state.get();
+    return window != RETIRED && window.index < now / periodNanos - 1 && state.compareAndSet(window, RETIRED);
+  }
+}
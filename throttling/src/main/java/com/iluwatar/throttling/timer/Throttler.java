@@ -25,6 +25,9 @@
  */
 package com.iluwatar.throttling.timer;
 
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+
 /**
  * An interface for defining the structure of different types of throttling ways.
  * @author drastogi
@@ -33,4 +36,15 @@ package com.iluwatar.throttling.timer;
 public interface Throttler {
   
   void start();
+
+  /**
+   * Decides whether the tenant may make one more call. The default implementation counts the calls
+   * in {@link CallsCount} and relies on {@link #start()} to reset the counters periodically.
+   * @param tenant the calling tenant.
+   * @param callsCount the call counters of the tenants.
+   * @return true if the call is allowed.
+   */
+  default boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    return callsCount.tryIncrement(tenant.getName(), tenant.getAllowedCallsPerSecond());
+  }
 }
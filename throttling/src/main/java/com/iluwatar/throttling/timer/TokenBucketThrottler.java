@@ -0,0 +1,83 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.timer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket. Every tenant gets a bucket holding up to its allowed calls per period,
+ * refilled continuously at the same rate, so bursts are capped at one period's worth of calls and
+ * there is no window boundary at which the quota resets all at once.
+ * <p>
+ * The bucket is stored as the single timestamp at which it will be full again (the theoretical
+ * arrival time of the generic cell rate algorithm): a call is allowed if moving that timestamp one
+ * refill interval further does not push it more than one period into the future. Each call is
+ * one compare-and-set on that timestamp.
+ * </p>
+ */
+public class TokenBucketThrottler extends LazyRefillThrottler<AtomicLong> {
+
+  private static final long RETIRED = -1;
+
+  /**
+   * @param throttlePeriod period in milliseconds over which the allowed calls are counted.
+   */
+  public TokenBucketThrottler(int throttlePeriod) {
+    this(throttlePeriod, System::nanoTime);
+  }
+
+  TokenBucketThrottler(int throttlePeriod, LongSupplier clock) {
+    super(throttlePeriod, clock);
+  }
+
+  @Override
+  protected AtomicLong newState(long now) {
+    return new AtomicLong(now);
+  }
+
+  @Override
+  protected Acquisition tryTake(AtomicLong fullAt, int limit, long now) {
+    long interval = Math.max(1, periodNanos / limit);
+    long capacity = interval * limit;
+    while (true) {
+      long current = fullAt.get();
+      if (current == RETIRED) {
+        return Acquisition.RETIRED;
+      }
+      long next = Math.max(current, now) + interval;
+      if (next - now > capacity) {
+        return Acquisition.REJECTED;
+      }
+      if (fullAt.compareAndSet(current, next)) {
+        return Acquisition.ACCEPTED;
+      }
+    }
+  }
+
+  @Override
+  protected boolean retireIfIdle(AtomicLong fullAt, long now) {
+    long current = fullAt.get();
+    return current != RETIRED && current <= now && fullAt.compareAndSet(current, RETIRED);
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.quota;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link QuotaStore} implementations and {@link QuotaLeasingThrottler}
+ */
+public class QuotaStoreTest {
+
+  private final CallsCount callsCount = new CallsCount();
+  private final AtomicLong clock = new AtomicLong(10_000);
+  private Path directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("quota");
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(directory.resolve("quota.bin"));
+    Files.deleteIfExists(directory);
+  }
+
+  @Test
+  public void testInMemoryStore() {
+    QuotaStore store = new InMemoryQuotaStore();
+    assertEquals(6, store.lease("tenant", 1, 6, 10));
+    assertEquals(4, store.lease("tenant", 1, 6, 10));
+    assertEquals(0, store.lease("tenant", 1, 6, 10));
+    assertEquals(6, store.lease("tenant", 2, 6, 10));
+    assertEquals(0, store.lease("tenant", 1, 6, 10));
+    assertEquals(6, store.lease("other", 1, 6, 10));
+  }
+
+  @Test
+  public void testFileStoreIsSharedAndPersistent() throws IOException {
+    Path file = directory.resolve("quota.bin");
+    try (QuotaStore first = new FileQuotaStore(file, 16); QuotaStore second = new FileQuotaStore(file, 16)) {
+      assertEquals(6, first.lease("tenant", 1, 6, 10));
+      assertEquals(4, second.lease("tenant", 1, 6, 10));
+      assertEquals(6, second.lease("tenant", 2, 6, 10));
+      for (int i = 0; i < 15; i++) {
+        assertEquals(1, first.lease("tenant" + i, 1, 1, 1));
+      }
+    }
+    try (QuotaStore reopened = new FileQuotaStore(file, 16)) {
+      assertEquals(4, reopened.lease("tenant", 2, 6, 10));
+    }
+  }
+
+  @Test
+  public void testTenantsWithCollidingHashesDoNotShareTheQuota() throws IOException {
+    Path file = directory.resolve("quota.bin");
+    long key = FileQuotaStore.hash("tenant");
+    // slot of another tenant with the same hash whose quota is used up
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      ByteBuffer slot = ByteBuffer.allocate(FileQuotaStore.SLOT_SIZE);
+      slot.putLong(key).putLong(1).putLong(10).putLong(FileQuotaStore.check("colliding tenant")).flip();
+      channel.write(slot, Long.remainderUnsigned(key, 16) * FileQuotaStore.SLOT_SIZE);
+    }
+    try (QuotaStore store = new FileQuotaStore(file, 16)) {
+      assertEquals(6, store.lease("tenant", 1, 6, 10));
+      assertEquals(4, store.lease("tenant", 1, 6, 10));
+    }
+  }
+
+  @Test
+  public void testNodesShareTheQuota() throws Exception {
+    try (QuotaStore store = new FileQuotaStore(directory.resolve("quota.bin"))) {
+      QuotaLeasingThrottler[] nodes = new QuotaLeasingThrottler[4];
+      for (int i = 0; i < nodes.length; i++) {
+        nodes[i] = new QuotaLeasingThrottler(store, 1000, 0.05, clock::get);
+      }
+      Tenant tenant = new Tenant("tenant", 1000, callsCount);
+      AtomicInteger accepted = new AtomicInteger();
+      Thread[] threads = new Thread[8];
+      for (int i = 0; i < threads.length; i++) {
+        QuotaLeasingThrottler node = nodes[i % nodes.length];
+        threads[i] = new Thread(() -> {
+          for (int call = 0; call < 500; call++) {
+            if (node.tryAcquire(tenant, callsCount)) {
+              accepted.incrementAndGet();
+            }
+          }
+        });
+        threads[i].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertEquals(1000, accepted.get());
+
+      long roundTrips = 0;
+      for (QuotaLeasingThrottler node : nodes) {
+        roundTrips += node.getStoreRoundTrips();
+      }
+      assertTrue(roundTrips <= 1000 / 50 + nodes.length, "Calls must be leased in batches");
+
+      clock.addAndGet(1000);
+      assertTrue(nodes[0].tryAcquire(tenant, callsCount));
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * The MIT License
+ * Copyright (c) 2014-2016 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling.timer;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link TokenBucketThrottler} and {@link SlidingWindowThrottler}
+ */
+public class LazyRefillThrottlerTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final CallsCount callsCount = new CallsCount();
+
+  @Test
+  public void testTokenBucketRefillsContinuously() {
+    Throttler throttler = new TokenBucketThrottler(1000, clock::get);
+    Tenant tenant = new Tenant("tenant", 5, callsCount);
+    assertEquals(5, acquire(throttler, tenant, 10));
+
+    advance(200);
+    assertEquals(1, acquire(throttler, tenant, 10));
+    advance(5000);
+    assertEquals(5, acquire(throttler, tenant, 10));
+  }
+
+  @Test
+  public void testSlidingWindowLimitsBurstsAtBoundary() {
+    Throttler throttler = new SlidingWindowThrottler(1000, clock::get);
+    Tenant tenant = new Tenant("tenant", 4, callsCount);
+    advance(900);
+    assertEquals(4, acquire(throttler, tenant, 10));
+
+    advance(200);
+    assertEquals(0, acquire(throttler, tenant, 10));
+    advance(400);
+    assertEquals(2, acquire(throttler, tenant, 10));
+    advance(1000);
+    assertEquals(3, acquire(throttler, tenant, 10));
+  }
+
+  @Test
+  public void testSlidingWindowIgnoresOutdatedNow() {
+    SlidingWindowThrottler throttler = new SlidingWindowThrottler(1000, clock::get);
+    long window = TimeUnit.MILLISECONDS.toNanos(1000);
+    AtomicReference<SlidingWindowThrottler.Window> state = throttler.newState(0);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(LazyRefillThrottler.Acquisition.ACCEPTED, throttler.tryTake(state, 4, window + 500));
+    }
+
+    // a caller that read the clock before the window advanced
+    assertEquals(LazyRefillThrottler.Acquisition.REJECTED, throttler.tryTake(state, 4, window - 1));
+    assertEquals(1, state.get().index);
+    assertEquals(4, state.get().current);
+  }
+
+  @Test
+  public void testZeroAllowedCalls() {
+    Tenant tenant = new Tenant("tenant", 0, callsCount);
+    assertFalse(new TokenBucketThrottler(1000, clock::get).tryAcquire(tenant, callsCount));
+    assertFalse(new SlidingWindowThrottler(1000, clock::get).tryAcquire(tenant, callsCount));
+  }
+
+  @Test
+  public void testTokenBucketUnderContention() throws Exception {
+    assertEquals(1000, acquireConcurrently(new TokenBucketThrottler(1000, clock::get)));
+  }
+
+  @Test
+  public void testSlidingWindowUnderContention() throws Exception {
+    assertEquals(1000, acquireConcurrently(new SlidingWindowThrottler(1000, clock::get)));
+  }
+
+  @Test
+  public void testCallsCountUnderContention() throws Exception {
+    assertEquals(1000, acquireConcurrently((Throttler) () -> { }));
+  }
+
+  @Test
+  public void testIdleTenantsArePurged() {
+    TokenBucketThrottler throttler = new TokenBucketThrottler(1000, clock::get);
+    for (int i = 0; i < 5000; i++) {
+      assertTrue(throttler.tryAcquire(new Tenant("tenant" + i, 1, callsCount), callsCount));
+      advance(1);
+    }
+    assertTrue(throttler.getTenantCount() < 5000);
+
+    Tenant tenant = new Tenant("tenant0", 1, callsCount);
+    advance(1000);
+    throttler.purgeIdleTenants();
+    assertEquals(0, throttler.getTenantCount());
+    assertEquals(1, acquire(throttler, tenant, 10));
+    assertEquals(1, throttler.getTenantCount());
+  }
+
+  private void advance(long millis) {
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  private int acquire(Throttler throttler, Tenant tenant, int calls) {
+    int accepted = 0;
+    for (int i = 0; i < calls; i++) {
+      if (throttler.tryAcquire(tenant, callsCount)) {
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+
+  private int acquireConcurrently(Throttler throttler) throws InterruptedException {
+    Tenant tenant = new Tenant("busy", 1000, callsCount);
+    AtomicInteger accepted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[16];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        accepted.addAndGet(acquire(throttler, tenant, 500));
+      });
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return accepted.get();
+  }
+}